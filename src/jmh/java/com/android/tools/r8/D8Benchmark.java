@@ -0,0 +1,83 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8;
+
+import com.android.tools.r8.benchmarks.SyntheticBenchmarkInputs;
+import com.android.tools.r8.origin.Origin;
+import com.android.tools.r8.utils.ThreadUtils;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end D8 compilations on a single thread.
+ *
+ * <p>Compiling class files covers the full pipeline. Merging DEX files passes the DEX code
+ * through, such that the time is dominated by {@link com.android.tools.r8.dex.DexParser} and
+ * {@link com.android.tools.r8.dex.FileWriter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class D8Benchmark {
+
+  @Param({"200"})
+  public int classes;
+
+  @Param({"20"})
+  public int methodsPerClass;
+
+  private List<byte[]> classFiles;
+  private byte[] dexFile;
+  private ExecutorService executor;
+
+  @Setup
+  public void setup() throws CompilationFailedException {
+    SyntheticBenchmarkInputs inputs = new SyntheticBenchmarkInputs(classes, methodsPerClass);
+    classFiles = inputs.generateClassFiles();
+    dexFile = inputs.generateDexFile();
+    executor = ThreadUtils.getExecutorService(1);
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Benchmark
+  public void compileClassFiles() throws CompilationFailedException {
+    D8Command.Builder builder = createBuilder();
+    for (int i = 0; i < classFiles.size(); i++) {
+      builder.addClassProgramData(classFiles.get(i), SyntheticBenchmarkInputs.origin(i));
+    }
+    D8.run(builder.build(), executor);
+  }
+
+  @Benchmark
+  public void mergeDexFiles() throws CompilationFailedException {
+    D8.run(createBuilder().addDexProgramData(dexFile, Origin.unknown()).build(), executor);
+  }
+
+  private static D8Command.Builder createBuilder() {
+    return D8Command.builder()
+        .setMode(CompilationMode.DEBUG)
+        .setDisableDesugaring(true)
+        .setProgramConsumer(DexIndexedConsumer.emptyConsumer());
+  }
+}
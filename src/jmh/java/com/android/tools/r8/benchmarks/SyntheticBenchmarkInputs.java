@@ -0,0 +1,404 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.benchmarks;
+
+import com.android.tools.r8.ByteDataView;
+import com.android.tools.r8.CompilationFailedException;
+import com.android.tools.r8.CompilationMode;
+import com.android.tools.r8.D8;
+import com.android.tools.r8.D8Command;
+import com.android.tools.r8.DexIndexedConsumer;
+import com.android.tools.r8.DiagnosticsHandler;
+import com.android.tools.r8.dex.ApplicationReader;
+import com.android.tools.r8.graph.AppInfo;
+import com.android.tools.r8.graph.AppView;
+import com.android.tools.r8.graph.DexProgramClass;
+import com.android.tools.r8.graph.ProgramMethod;
+import com.android.tools.r8.ir.code.IRCode;
+import com.android.tools.r8.ir.optimize.CodeRewriter;
+import com.android.tools.r8.ir.optimize.DeadCodeRemover;
+import com.android.tools.r8.origin.Origin;
+import com.android.tools.r8.utils.AndroidApp;
+import com.android.tools.r8.utils.InternalOptions;
+import com.android.tools.r8.utils.Timing;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Deterministic synthetic inputs for the JMH benchmarks.
+ *
+ * <p>The inputs are generated from code rather than read from prebuilt archives, such that the
+ * benchmarks do not depend on third_party downloads and the inputs can be scaled with JMH
+ * parameters. Each generated class has instance fields, a constructor, static methods with loops,
+ * branches and exceptional exits that call into the next class, instance methods that access
+ * fields, and a toString method calling into the library.
+ */
+public class SyntheticBenchmarkInputs {
+
+  private static final String PACKAGE = "com/example/synthetic/";
+  private static final int FIELDS_PER_CLASS = 4;
+  private static final String[] CONSTANTS = {"zero", "one", "two", "three"};
+
+  private final int classCount;
+  private final int methodsPerClass;
+
+  public SyntheticBenchmarkInputs(int classCount, int methodsPerClass) {
+    assert classCount > 0;
+    assert methodsPerClass > 0;
+    this.classCount = classCount;
+    this.methodsPerClass = methodsPerClass;
+  }
+
+  public static Origin origin(int classIndex) {
+    return new Origin(Origin.root()) {
+      @Override
+      public String part() {
+        return binaryName(classIndex) + ".class";
+      }
+    };
+  }
+
+  public static String binaryName(int classIndex) {
+    return PACKAGE + "C" + classIndex;
+  }
+
+  public static String descriptor(int classIndex) {
+    return "L" + binaryName(classIndex) + ";";
+  }
+
+  public int getClassCount() {
+    return classCount;
+  }
+
+  public int getMethodsPerClass() {
+    return methodsPerClass;
+  }
+
+  /** Java class files for all synthetic classes. */
+  public List<byte[]> generateClassFiles() {
+    List<byte[]> result = new ArrayList<>(classCount);
+    for (int i = 0; i < classCount; i++) {
+      result.add(generateClassFile(i));
+    }
+    return result;
+  }
+
+  /** A single DEX file containing all synthetic classes, compiled with D8 in debug mode. */
+  public byte[] generateDexFile() throws CompilationFailedException {
+    List<byte[]> classFiles = generateClassFiles();
+    D8Command.Builder builder =
+        D8Command.builder().setMode(CompilationMode.DEBUG).setDisableDesugaring(true);
+    for (int i = 0; i < classFiles.size(); i++) {
+      builder.addClassProgramData(classFiles.get(i), origin(i));
+    }
+    byte[][] result = new byte[1][];
+    builder.setProgramConsumer(
+        new DexIndexedConsumer.ForwardingConsumer(null) {
+          @Override
+          public void accept(
+              int fileIndex,
+              ByteDataView data,
+              Set<String> descriptors,
+              DiagnosticsHandler handler) {
+            assert fileIndex == 0;
+            result[0] = data.copyByteData();
+          }
+        });
+    D8.run(builder.build());
+    return result[0];
+  }
+
+  /** A D8 app view for the synthetic classes, with the methods in class and method order. */
+  public AppView<AppInfo> readApplication(List<ProgramMethod> methods) throws IOException {
+    List<byte[]> classFiles = generateClassFiles();
+    AndroidApp.Builder builder = AndroidApp.builder();
+    for (int i = 0; i < classFiles.size(); i++) {
+      builder.addClassProgramData(classFiles.get(i), origin(i));
+    }
+    return readApplication(builder.build(), methods);
+  }
+
+  /** A D8 app view for the given app, with the methods in class and method order. */
+  public static AppView<AppInfo> readApplication(AndroidApp app, List<ProgramMethod> methods)
+      throws IOException {
+    InternalOptions options = new InternalOptions();
+    options.programConsumer = DexIndexedConsumer.emptyConsumer();
+    AppView<AppInfo> appView =
+        AppView.createForD8(
+            AppInfo.createInitialAppInfo(
+                new ApplicationReader(app, options, Timing.empty()).read().toDirect()));
+    for (DexProgramClass clazz : appView.appInfo().classesWithDeterministicOrder()) {
+      clazz.forEachProgramMethod(methods::add);
+    }
+    return appView;
+  }
+
+  /**
+   * Builds the IR for a method, removes dead code and orders the blocks as done by IRConverter
+   * before register allocation.
+   */
+  public static IRCode buildIRForRegisterAllocation(AppView<?> appView, ProgramMethod method) {
+    IRCode code = method.buildIR(appView);
+    new DeadCodeRemover(appView, new CodeRewriter(appView, null)).run(code, Timing.empty());
+    code.traceBlocks();
+    return code;
+  }
+
+  /**
+   * A proguard map for a renamed version of the synthetic classes with field, method and inline
+   * frame mappings.
+   */
+  public String generateProguardMap() {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < classCount; i++) {
+      String originalClass = "com.example.original.pkg" + (i % 16) + ".OriginalClass" + i;
+      builder.append(originalClass).append(" -> a.").append(renamed(i)).append(":\n");
+      builder.append("# {\"id\":\"sourceFile\",\"fileName\":\"OriginalClass")
+          .append(i)
+          .append(".java\"}\n");
+      for (int f = 0; f < FIELDS_PER_CLASS; f++) {
+        builder.append("    int field").append(f).append(" -> ").append(renamed(f)).append("\n");
+      }
+      for (int m = 0; m < methodsPerClass; m++) {
+        int line = 10 + m * 20;
+        String renamedMethod = renamed(m);
+        builder.append("    ").append(line).append(":").append(line + 9)
+            .append(":int staticMethod").append(m).append("(int,int):")
+            .append(line).append(":").append(line + 9)
+            .append(" -> ").append(renamedMethod).append("\n");
+        builder.append("    ").append(line + 10).append(":").append(line + 10)
+            .append(":void com.example.original.Util.inlined(java.lang.String):42:42 -> ")
+            .append(renamedMethod).append("\n");
+        builder.append("    ").append(line + 10).append(":").append(line + 10)
+            .append(":int staticMethod").append(m).append("(int,int):").append(line + 10)
+            .append(" -> ").append(renamedMethod).append("\n");
+      }
+    }
+    return builder.toString();
+  }
+
+  private static String renamed(int index) {
+    StringBuilder builder = new StringBuilder();
+    do {
+      builder.append((char) ('a' + index % 26));
+      index /= 26;
+    } while (index > 0);
+    return builder.toString();
+  }
+
+  private byte[] generateClassFile(int classIndex) {
+    String name = binaryName(classIndex);
+    ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+    writer.visit(
+        Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, "java/lang/Object", null);
+    writer.visitSource("C" + classIndex + ".java", null);
+    for (int f = 0; f < FIELDS_PER_CLASS; f++) {
+      writer.visitField(Opcodes.ACC_PRIVATE, "f" + f, "I", null, null).visitEnd();
+    }
+    writer
+        .visitField(
+            Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC, "name", "Ljava/lang/String;", null, null)
+        .visitEnd();
+    generateConstructor(writer);
+    for (int m = 0; m < methodsPerClass; m++) {
+      generateStaticMethod(writer, classIndex, m);
+      generateInstanceMethod(writer, classIndex, m);
+    }
+    generateToString(writer, classIndex);
+    generateArrayMethod(writer);
+    writer.visitEnd();
+    return writer.toByteArray();
+  }
+
+  private static void generateConstructor(ClassWriter writer) {
+    MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+    mv.visitCode();
+    Label start = new Label();
+    mv.visitLabel(start);
+    mv.visitLineNumber(1, start);
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+    mv.visitInsn(Opcodes.RETURN);
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+  }
+
+  // static int m<i>(int a, int b) {
+  //   int sum = 0;
+  //   for (int k = 0; k < a; k++) {
+  //     if (k % 3 == 0) sum += b * k; else sum ^= k;
+  //   }
+  //   if (sum < 0) throw new IllegalStateException("negative");
+  //   return sum + C<next>.m<next>(b, sum);
+  // }
+  private void generateStaticMethod(ClassWriter writer, int classIndex, int methodIndex) {
+    MethodVisitor mv =
+        writer.visitMethod(
+            Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "m" + methodIndex, "(II)I", null, null);
+    mv.visitCode();
+    int line = 10 + methodIndex * 20;
+    Label start = new Label();
+    Label condition = new Label();
+    Label otherwise = new Label();
+    Label increment = new Label();
+    Label end = new Label();
+    Label exit = new Label();
+    mv.visitLabel(start);
+    mv.visitLineNumber(line, start);
+    mv.visitInsn(Opcodes.ICONST_0);
+    mv.visitVarInsn(Opcodes.ISTORE, 2);
+    mv.visitInsn(Opcodes.ICONST_0);
+    mv.visitVarInsn(Opcodes.ISTORE, 3);
+    mv.visitLabel(condition);
+    mv.visitLineNumber(line + 1, condition);
+    mv.visitVarInsn(Opcodes.ILOAD, 3);
+    mv.visitVarInsn(Opcodes.ILOAD, 0);
+    mv.visitJumpInsn(Opcodes.IF_ICMPGE, end);
+    mv.visitVarInsn(Opcodes.ILOAD, 3);
+    mv.visitInsn(Opcodes.ICONST_3);
+    mv.visitInsn(Opcodes.IREM);
+    mv.visitJumpInsn(Opcodes.IFNE, otherwise);
+    mv.visitVarInsn(Opcodes.ILOAD, 2);
+    mv.visitVarInsn(Opcodes.ILOAD, 1);
+    mv.visitVarInsn(Opcodes.ILOAD, 3);
+    mv.visitInsn(Opcodes.IMUL);
+    mv.visitInsn(Opcodes.IADD);
+    mv.visitVarInsn(Opcodes.ISTORE, 2);
+    mv.visitJumpInsn(Opcodes.GOTO, increment);
+    mv.visitLabel(otherwise);
+    mv.visitLineNumber(line + 2, otherwise);
+    mv.visitVarInsn(Opcodes.ILOAD, 2);
+    mv.visitVarInsn(Opcodes.ILOAD, 3);
+    mv.visitInsn(Opcodes.IXOR);
+    mv.visitVarInsn(Opcodes.ISTORE, 2);
+    mv.visitLabel(increment);
+    mv.visitIincInsn(3, 1);
+    mv.visitJumpInsn(Opcodes.GOTO, condition);
+    mv.visitLabel(end);
+    mv.visitLineNumber(line + 3, end);
+    mv.visitVarInsn(Opcodes.ILOAD, 2);
+    mv.visitJumpInsn(Opcodes.IFGE, exit);
+    mv.visitTypeInsn(Opcodes.NEW, "java/lang/IllegalStateException");
+    mv.visitInsn(Opcodes.DUP);
+    mv.visitLdcInsn("negative");
+    mv.visitMethodInsn(
+        Opcodes.INVOKESPECIAL,
+        "java/lang/IllegalStateException",
+        "<init>",
+        "(Ljava/lang/String;)V",
+        false);
+    mv.visitInsn(Opcodes.ATHROW);
+    mv.visitLabel(exit);
+    mv.visitLineNumber(line + 4, exit);
+    mv.visitVarInsn(Opcodes.ILOAD, 2);
+    mv.visitVarInsn(Opcodes.ILOAD, 1);
+    mv.visitVarInsn(Opcodes.ILOAD, 2);
+    mv.visitMethodInsn(
+        Opcodes.INVOKESTATIC,
+        binaryName((classIndex + 1) % classCount),
+        "m" + ((methodIndex + 1) % methodsPerClass),
+        "(II)I",
+        false);
+    mv.visitInsn(Opcodes.IADD);
+    mv.visitInsn(Opcodes.IRETURN);
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+  }
+
+  // int v<i>(int a) {
+  //   f<i % 4> = m<i>(a, f0);
+  //   return f<i % 4>;
+  // }
+  private static void generateInstanceMethod(
+      ClassWriter writer, int classIndex, int methodIndex) {
+    String owner = binaryName(classIndex);
+    String field = "f" + (methodIndex % FIELDS_PER_CLASS);
+    MethodVisitor mv =
+        writer.visitMethod(Opcodes.ACC_PUBLIC, "v" + methodIndex, "(I)I", null, null);
+    mv.visitCode();
+    Label start = new Label();
+    mv.visitLabel(start);
+    mv.visitLineNumber(15 + methodIndex * 20, start);
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitVarInsn(Opcodes.ILOAD, 1);
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitFieldInsn(Opcodes.GETFIELD, owner, "f0", "I");
+    mv.visitMethodInsn(Opcodes.INVOKESTATIC, owner, "m" + methodIndex, "(II)I", false);
+    mv.visitFieldInsn(Opcodes.PUTFIELD, owner, field, "I");
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitFieldInsn(Opcodes.GETFIELD, owner, field, "I");
+    mv.visitInsn(Opcodes.IRETURN);
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+  }
+
+  // public String toString() {
+  //   return new StringBuilder().append(name).append(f0).toString();
+  // }
+  private static void generateToString(ClassWriter writer, int classIndex) {
+    String owner = binaryName(classIndex);
+    MethodVisitor mv =
+        writer.visitMethod(Opcodes.ACC_PUBLIC, "toString", "()Ljava/lang/String;", null, null);
+    mv.visitCode();
+    Label start = new Label();
+    mv.visitLabel(start);
+    mv.visitLineNumber(2, start);
+    mv.visitTypeInsn(Opcodes.NEW, "java/lang/StringBuilder");
+    mv.visitInsn(Opcodes.DUP);
+    mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "()V", false);
+    mv.visitFieldInsn(Opcodes.GETSTATIC, owner, "name", "Ljava/lang/String;");
+    mv.visitMethodInsn(
+        Opcodes.INVOKEVIRTUAL,
+        "java/lang/StringBuilder",
+        "append",
+        "(Ljava/lang/String;)Ljava/lang/StringBuilder;",
+        false);
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitFieldInsn(Opcodes.GETFIELD, owner, "f0", "I");
+    mv.visitMethodInsn(
+        Opcodes.INVOKEVIRTUAL,
+        "java/lang/StringBuilder",
+        "append",
+        "(I)Ljava/lang/StringBuilder;",
+        false);
+    mv.visitMethodInsn(
+        Opcodes.INVOKEVIRTUAL,
+        "java/lang/StringBuilder",
+        "toString",
+        "()Ljava/lang/String;",
+        false);
+    mv.visitInsn(Opcodes.ARETURN);
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+  }
+
+  // static String[] names() {
+  //   return new String[] { "zero", "one", "two", "three" };
+  // }
+  private static void generateArrayMethod(ClassWriter writer) {
+    MethodVisitor mv =
+        writer.visitMethod(Opcodes.ACC_STATIC, "names", "()[Ljava/lang/String;", null, null);
+    mv.visitCode();
+    Label start = new Label();
+    mv.visitLabel(start);
+    mv.visitLineNumber(3, start);
+    mv.visitLdcInsn(CONSTANTS.length);
+    mv.visitTypeInsn(Opcodes.ANEWARRAY, "java/lang/String");
+    for (int i = 0; i < CONSTANTS.length; i++) {
+      mv.visitInsn(Opcodes.DUP);
+      mv.visitLdcInsn(i);
+      mv.visitLdcInsn(CONSTANTS[i]);
+      mv.visitInsn(Opcodes.AASTORE);
+    }
+    mv.visitInsn(Opcodes.ARETURN);
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+  }
+}
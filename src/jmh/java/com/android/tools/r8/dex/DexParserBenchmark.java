@@ -0,0 +1,65 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.dex;
+
+import com.android.tools.r8.CompilationFailedException;
+import com.android.tools.r8.ProgramResource;
+import com.android.tools.r8.ProgramResource.Kind;
+import com.android.tools.r8.ResourceException;
+import com.android.tools.r8.benchmarks.SyntheticBenchmarkInputs;
+import com.android.tools.r8.graph.ClassKind;
+import com.android.tools.r8.graph.DexProgramClass;
+import com.android.tools.r8.origin.Origin;
+import com.android.tools.r8.utils.InternalOptions;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Parsing of a DEX file into program classes with {@link DexParser}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class DexParserBenchmark {
+
+  @Param({"500"})
+  public int classes;
+
+  @Param({"20"})
+  public int methodsPerClass;
+
+  private byte[] dexFile;
+  private InternalOptions options;
+
+  @Setup
+  public void setup() throws CompilationFailedException {
+    dexFile = new SyntheticBenchmarkInputs(classes, methodsPerClass).generateDexFile();
+    options = new InternalOptions();
+  }
+
+  @Benchmark
+  public List<DexProgramClass> parseDexFile() throws IOException, ResourceException {
+    ProgramResource resource = ProgramResource.fromBytes(Origin.unknown(), Kind.DEX, dexFile, null);
+    DexParser<DexProgramClass> parser =
+        new DexParser<>(new DexReader(resource), ClassKind.PROGRAM, options);
+    parser.populateIndexTables();
+    List<DexProgramClass> result = new ArrayList<>(classes);
+    parser.addClassDefsTo(result::add);
+    return result;
+  }
+}
@@ -0,0 +1,73 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.graph;
+
+import com.android.tools.r8.benchmarks.SyntheticBenchmarkInputs;
+import com.android.tools.r8.utils.InternalOptions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reading of class files with {@link JarClassFileReader}, with and without parsing the {@link
+ * LazyCfCode} of all methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class ClassFileParsingBenchmark {
+
+  @Param({"500"})
+  public int classes;
+
+  @Param({"20"})
+  public int methodsPerClass;
+
+  private List<byte[]> classFiles;
+  private JarApplicationReader application;
+
+  @Setup
+  public void setup() {
+    classFiles = new SyntheticBenchmarkInputs(classes, methodsPerClass).generateClassFiles();
+    application = new JarApplicationReader(new InternalOptions());
+  }
+
+  private List<DexProgramClass> readClasses() {
+    List<DexProgramClass> result = new ArrayList<>(classFiles.size());
+    JarClassFileReader<DexProgramClass> reader =
+        new JarClassFileReader<>(application, result::add, ClassKind.PROGRAM);
+    for (int i = 0; i < classFiles.size(); i++) {
+      reader.read(SyntheticBenchmarkInputs.origin(i), classFiles.get(i));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public void readClassFiles(Blackhole blackhole) {
+    blackhole.consume(readClasses());
+  }
+
+  @Benchmark
+  public void readClassFilesAndParseCode(Blackhole blackhole) {
+    for (DexProgramClass clazz : readClasses()) {
+      clazz.forEachProgramMethod(
+          method -> blackhole.consume(method.getDefinition().getCode().asCfCode()));
+    }
+  }
+}
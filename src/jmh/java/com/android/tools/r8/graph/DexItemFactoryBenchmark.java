@@ -0,0 +1,159 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.graph;
+
+import com.android.tools.r8.benchmarks.SyntheticBenchmarkInputs;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Interning of strings, types and methods in the {@link DexItemFactory}.
+ *
+ * <p>The "new" benchmarks intern into a fresh factory, such that every item is created, and the
+ * "existing" benchmarks look up items that are already present in the factory. The construction
+ * of the fresh factory is not part of the measurement. The "concurrently" benchmarks look up
+ * existing items from several threads, as done by the parallel class readers, to measure the
+ * contention on the factory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class DexItemFactoryBenchmark {
+
+  @Param({"1000"})
+  public int classes;
+
+  @Param({"20"})
+  public int methodsPerClass;
+
+  @State(Scope.Thread)
+  public static class FreshFactory {
+
+    DexItemFactory factory;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+      factory = new DexItemFactory();
+    }
+  }
+
+  private final List<String> descriptors = new ArrayList<>();
+  private final List<String> methodNames = new ArrayList<>();
+  private DexItemFactory populatedFactory;
+
+  @Setup
+  public void setup() {
+    for (int i = 0; i < classes; i++) {
+      descriptors.add(SyntheticBenchmarkInputs.descriptor(i));
+    }
+    for (int i = 0; i < methodsPerClass; i++) {
+      methodNames.add("m" + i);
+    }
+    populatedFactory = new DexItemFactory();
+    createMethods(populatedFactory, null);
+    createDebugEvents(populatedFactory, null);
+  }
+
+  private void createStrings(DexItemFactory factory, Blackhole blackhole) {
+    for (String descriptor : descriptors) {
+      consume(blackhole, factory.createString(descriptor));
+    }
+  }
+
+  private void createTypes(DexItemFactory factory, Blackhole blackhole) {
+    for (String descriptor : descriptors) {
+      consume(blackhole, factory.createType(descriptor));
+    }
+  }
+
+  private void createMethods(DexItemFactory factory, Blackhole blackhole) {
+    DexProto proto = factory.createProto(factory.intType, factory.intType, factory.intType);
+    for (String descriptor : descriptors) {
+      DexType holder = factory.createType(descriptor);
+      for (String methodName : methodNames) {
+        consume(blackhole, factory.createMethod(holder, proto, methodName));
+      }
+    }
+  }
+
+  private void createDebugEvents(DexItemFactory factory, Blackhole blackhole) {
+    for (int i = 0; i < classes; i++) {
+      consume(blackhole, factory.createAdvanceLine(i % 64));
+      consume(blackhole, factory.createAdvancePC(i % 16));
+      consume(blackhole, factory.createDefault(i % 256));
+    }
+  }
+
+  private static void consume(Blackhole blackhole, Object object) {
+    if (blackhole != null) {
+      blackhole.consume(object);
+    }
+  }
+
+  @Benchmark
+  public void createStringNew(FreshFactory fresh, Blackhole blackhole) {
+    createStrings(fresh.factory, blackhole);
+  }
+
+  @Benchmark
+  public void createStringExisting(Blackhole blackhole) {
+    createStrings(populatedFactory, blackhole);
+  }
+
+  @Benchmark
+  public void createTypeNew(FreshFactory fresh, Blackhole blackhole) {
+    createTypes(fresh.factory, blackhole);
+  }
+
+  @Benchmark
+  public void createTypeExisting(Blackhole blackhole) {
+    createTypes(populatedFactory, blackhole);
+  }
+
+  @Benchmark
+  public void createMethodNew(FreshFactory fresh, Blackhole blackhole) {
+    createMethods(fresh.factory, blackhole);
+  }
+
+  @Benchmark
+  public void createMethodExisting(Blackhole blackhole) {
+    createMethods(populatedFactory, blackhole);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void createTypeExistingConcurrently(Blackhole blackhole) {
+    createTypes(populatedFactory, blackhole);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void createMethodExistingConcurrently(Blackhole blackhole) {
+    createMethods(populatedFactory, blackhole);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void createDebugEventExistingConcurrently(Blackhole blackhole) {
+    createDebugEvents(populatedFactory, blackhole);
+  }
+}
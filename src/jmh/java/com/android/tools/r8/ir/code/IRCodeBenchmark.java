@@ -0,0 +1,114 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.ir.code;
+
+import com.android.tools.r8.benchmarks.SyntheticBenchmarkInputs;
+import com.android.tools.r8.graph.AppInfo;
+import com.android.tools.r8.graph.AppView;
+import com.android.tools.r8.graph.ProgramMethod;
+import com.android.tools.r8.utils.AndroidApp;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Construction and mutation of the instruction lists of {@link BasicBlock} and the user lists of
+ * {@link Value}.
+ *
+ * <p>The methods of the synthetic classes are used unless the methods of a real app are given
+ * with -p app=/path/to/app.jar. Run with -prof gc to measure the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class IRCodeBenchmark {
+
+  @Param({"200"})
+  public int classes;
+
+  @Param({"20"})
+  public int methodsPerClass;
+
+  @Param({""})
+  public String app;
+
+  private final List<ProgramMethod> methods = new ArrayList<>();
+  private final List<IRCode> codes = new ArrayList<>();
+  private AppView<AppInfo> appView;
+
+  @Setup
+  public void setup() throws IOException {
+    if (app.isEmpty()) {
+      appView = new SyntheticBenchmarkInputs(classes, methodsPerClass).readApplication(methods);
+    } else {
+      appView =
+          SyntheticBenchmarkInputs.readApplication(
+              AndroidApp.builder().addProgramFiles(Paths.get(app)).build(), methods);
+      methods.removeIf(method -> !method.getDefinition().hasCode());
+    }
+    for (ProgramMethod method : methods) {
+      codes.add(SyntheticBenchmarkInputs.buildIRForRegisterAllocation(appView, method));
+    }
+  }
+
+  @Benchmark
+  public void buildIR(Blackhole blackhole) {
+    for (ProgramMethod method : methods) {
+      blackhole.consume(SyntheticBenchmarkInputs.buildIRForRegisterAllocation(appView, method));
+    }
+  }
+
+  @Benchmark
+  public void iterateInstructionsAndUsers(Blackhole blackhole) {
+    for (IRCode code : codes) {
+      for (Instruction instruction : code.instructions()) {
+        for (Value inValue : instruction.inValues()) {
+          blackhole.consume(inValue.numberOfUsers());
+        }
+        if (instruction.hasOutValue()) {
+          blackhole.consume(instruction.outValue().uniqueUsers());
+        }
+      }
+    }
+  }
+
+  // Removes and reinserts each instruction and its uses, which leaves the instructions unchanged.
+  @Benchmark
+  public void removeAndInsertInstructions() {
+    for (IRCode code : codes) {
+      for (BasicBlock block : code.blocks) {
+        ListIterator<Instruction> iterator = block.getInstructions().listIterator();
+        while (iterator.hasNext()) {
+          Instruction instruction = iterator.next();
+          iterator.remove();
+          for (Value inValue : instruction.inValues()) {
+            inValue.removeUser(instruction);
+          }
+          for (Value inValue : instruction.inValues()) {
+            inValue.addUser(instruction);
+          }
+          iterator.add(instruction);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.ir.conversion;
+
+import com.android.tools.r8.benchmarks.SyntheticBenchmarkInputs;
+import com.android.tools.r8.graph.AppInfo;
+import com.android.tools.r8.graph.AppView;
+import com.android.tools.r8.graph.ProgramMethod;
+import com.android.tools.r8.ir.code.IRCode;
+import com.android.tools.r8.ir.optimize.CodeRewriter;
+import com.android.tools.r8.ir.optimize.PeepholeOptimizer;
+import com.android.tools.r8.ir.regalloc.LinearScanRegisterAllocator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Construction of DEX code from register allocated IR with {@link DexBuilder}.
+ *
+ * <p>The IR is built, register allocated and cleaned up before each invocation, outside the
+ * measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class DexBuilderBenchmark {
+
+  @Param({"200"})
+  public int classes;
+
+  @Param({"20"})
+  public int methodsPerClass;
+
+  private final List<ProgramMethod> methods = new ArrayList<>();
+  private final List<IRCode> codes = new ArrayList<>();
+  private final List<LinearScanRegisterAllocator> allocators = new ArrayList<>();
+  private AppView<AppInfo> appView;
+
+  @Setup
+  public void setup() throws IOException {
+    appView = new SyntheticBenchmarkInputs(classes, methodsPerClass).readApplication(methods);
+  }
+
+  @Setup(Level.Invocation)
+  public void allocateRegisters() {
+    codes.clear();
+    allocators.clear();
+    for (ProgramMethod method : methods) {
+      IRCode code = SyntheticBenchmarkInputs.buildIRForRegisterAllocation(appView, method);
+      LinearScanRegisterAllocator allocator = new LinearScanRegisterAllocator(appView, code);
+      allocator.allocateRegisters();
+      // Clean up the code after register allocation as done by IRConverter.
+      for (int i = 0; i < IRConverter.PEEPHOLE_OPTIMIZATION_PASSES; i++) {
+        CodeRewriter.collapseTrivialGotos(code);
+        PeepholeOptimizer.optimize(code, allocator);
+      }
+      CodeRewriter.removeUnneededMovesOnExitingPaths(code, allocator);
+      CodeRewriter.collapseTrivialGotos(code);
+      codes.add(code);
+      allocators.add(allocator);
+    }
+  }
+
+  @Benchmark
+  public void buildDexCode(Blackhole blackhole) {
+    for (int i = 0; i < codes.size(); i++) {
+      blackhole.consume(new DexBuilder(codes.get(i), allocators.get(i)).build());
+    }
+  }
+}
@@ -0,0 +1,64 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.ir.conversion;
+
+import com.android.tools.r8.benchmarks.SyntheticBenchmarkInputs;
+import com.android.tools.r8.graph.AppInfo;
+import com.android.tools.r8.graph.AppView;
+import com.android.tools.r8.graph.ProgramMethod;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Construction of IR from CF code with {@link IRBuilder}.
+ *
+ * <p>The CF code of all methods is parsed during setup, such that only IR construction is
+ * measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class IRBuilderBenchmark {
+
+  @Param({"200"})
+  public int classes;
+
+  @Param({"20"})
+  public int methodsPerClass;
+
+  private final List<ProgramMethod> methods = new ArrayList<>();
+  private AppView<AppInfo> appView;
+
+  @Setup
+  public void setup() throws IOException {
+    appView = new SyntheticBenchmarkInputs(classes, methodsPerClass).readApplication(methods);
+    for (ProgramMethod method : methods) {
+      method.getDefinition().getCode().asCfCode();
+    }
+  }
+
+  @Benchmark
+  public void buildIR(Blackhole blackhole) {
+    for (ProgramMethod method : methods) {
+      blackhole.consume(method.buildIR(appView));
+    }
+  }
+}
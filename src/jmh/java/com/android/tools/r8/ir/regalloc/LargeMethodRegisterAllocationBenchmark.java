@@ -0,0 +1,156 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.ir.regalloc;
+
+import com.android.tools.r8.benchmarks.SyntheticBenchmarkInputs;
+import com.android.tools.r8.graph.AppInfo;
+import com.android.tools.r8.graph.AppView;
+import com.android.tools.r8.graph.ProgramMethod;
+import com.android.tools.r8.ir.code.IRCode;
+import com.android.tools.r8.origin.Origin;
+import com.android.tools.r8.utils.AndroidApp;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Register allocation with {@link LinearScanRegisterAllocator} for a single large method.
+ *
+ * <p>The method defines the given number of int and long values that are all live until the end
+ * of the method, and passes them in groups to a method with a range invoke. With more than 256
+ * live values the allocator has to spill, which stresses the free register set and the active and
+ * inactive intervals.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class LargeMethodRegisterAllocationBenchmark {
+
+  private static final String CLASS_NAME = "com/example/synthetic/Large";
+  private static final String SINK_DESCRIPTOR = "(IJIJIJ)V";
+
+  @Param({"200", "1000"})
+  public int liveValues;
+
+  private ProgramMethod method;
+  private IRCode code;
+  private AppView<AppInfo> appView;
+
+  @Setup
+  public void setup() throws IOException {
+    List<ProgramMethod> methods = new ArrayList<>();
+    appView =
+        SyntheticBenchmarkInputs.readApplication(
+            AndroidApp.builder()
+                .addClassProgramData(generateClassFile(liveValues), Origin.unknown())
+                .build(),
+            methods);
+    for (ProgramMethod programMethod : methods) {
+      if (programMethod.getReference().name.toString().equals("large")) {
+        method = programMethod;
+      }
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void buildIR() {
+    code = SyntheticBenchmarkInputs.buildIRForRegisterAllocation(appView, method);
+  }
+
+  @Benchmark
+  public void allocateRegisters(Blackhole blackhole) {
+    LinearScanRegisterAllocator allocator = new LinearScanRegisterAllocator(appView, code);
+    allocator.allocateRegisters();
+    blackhole.consume(allocator.registersUsed());
+  }
+
+  // static long large(int a) {
+  //   int v0 = a * 0; long v1 = a * 1L; ...
+  //   sink(v0, v1, v2, v3, v4, v5); sink(v6, ...); ...
+  //   return v0 + v1 + ...;
+  // }
+  private static byte[] generateClassFile(int liveValues) {
+    // The values are defined and passed to the sink in groups of six.
+    int values = Math.max(6, liveValues - liveValues % 6);
+    ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+    writer.visit(
+        Opcodes.V1_8,
+        Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER,
+        CLASS_NAME,
+        null,
+        "java/lang/Object",
+        null);
+    MethodVisitor sink =
+        writer.visitMethod(Opcodes.ACC_STATIC, "sink", SINK_DESCRIPTOR, null, null);
+    sink.visitCode();
+    sink.visitInsn(Opcodes.RETURN);
+    sink.visitMaxs(0, 0);
+    sink.visitEnd();
+
+    MethodVisitor mv =
+        writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "large", "(I)J", null, null);
+    mv.visitCode();
+    int[] locals = new int[values];
+    int nextLocal = 1;
+    for (int i = 0; i < values; i++) {
+      locals[i] = nextLocal;
+      mv.visitVarInsn(Opcodes.ILOAD, 0);
+      mv.visitLdcInsn(i);
+      mv.visitInsn(Opcodes.IMUL);
+      if (isWide(i)) {
+        mv.visitInsn(Opcodes.I2L);
+        mv.visitVarInsn(Opcodes.LSTORE, nextLocal);
+        nextLocal += 2;
+      } else {
+        mv.visitVarInsn(Opcodes.ISTORE, nextLocal);
+        nextLocal += 1;
+      }
+    }
+    for (int i = 0; i < values; i += 6) {
+      for (int j = i; j < i + 6; j++) {
+        mv.visitVarInsn(isWide(j) ? Opcodes.LLOAD : Opcodes.ILOAD, locals[j]);
+      }
+      mv.visitMethodInsn(Opcodes.INVOKESTATIC, CLASS_NAME, "sink", SINK_DESCRIPTOR, false);
+    }
+    mv.visitInsn(Opcodes.LCONST_0);
+    for (int i = values - 1; i >= 0; i--) {
+      if (isWide(i)) {
+        mv.visitVarInsn(Opcodes.LLOAD, locals[i]);
+      } else {
+        mv.visitVarInsn(Opcodes.ILOAD, locals[i]);
+        mv.visitInsn(Opcodes.I2L);
+      }
+      mv.visitInsn(Opcodes.LADD);
+    }
+    mv.visitInsn(Opcodes.LRETURN);
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+    writer.visitEnd();
+    return writer.toByteArray();
+  }
+
+  private static boolean isWide(int valueIndex) {
+    return valueIndex % 2 == 1;
+  }
+}
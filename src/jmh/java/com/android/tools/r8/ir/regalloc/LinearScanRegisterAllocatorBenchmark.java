@@ -0,0 +1,74 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.ir.regalloc;
+
+import com.android.tools.r8.benchmarks.SyntheticBenchmarkInputs;
+import com.android.tools.r8.graph.AppInfo;
+import com.android.tools.r8.graph.AppView;
+import com.android.tools.r8.graph.ProgramMethod;
+import com.android.tools.r8.ir.code.IRCode;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Register allocation with {@link LinearScanRegisterAllocator}.
+ *
+ * <p>Register allocation rewrites the IR, so the IR for all methods is rebuilt before each
+ * invocation. This is outside the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class LinearScanRegisterAllocatorBenchmark {
+
+  @Param({"200"})
+  public int classes;
+
+  @Param({"20"})
+  public int methodsPerClass;
+
+  private final List<ProgramMethod> methods = new ArrayList<>();
+  private final List<IRCode> codes = new ArrayList<>();
+  private AppView<AppInfo> appView;
+
+  @Setup
+  public void setup() throws IOException {
+    appView = new SyntheticBenchmarkInputs(classes, methodsPerClass).readApplication(methods);
+  }
+
+  @Setup(Level.Invocation)
+  public void buildIR() {
+    codes.clear();
+    for (ProgramMethod method : methods) {
+      codes.add(SyntheticBenchmarkInputs.buildIRForRegisterAllocation(appView, method));
+    }
+  }
+
+  @Benchmark
+  public void allocateRegisters(Blackhole blackhole) {
+    for (IRCode code : codes) {
+      LinearScanRegisterAllocator allocator = new LinearScanRegisterAllocator(appView, code);
+      allocator.allocateRegisters();
+      blackhole.consume(allocator.registersUsed());
+    }
+  }
+}
@@ -0,0 +1,47 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.naming;
+
+import com.android.tools.r8.benchmarks.SyntheticBenchmarkInputs;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Parsing of a proguard map with {@link ProguardMapReader}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class ProguardMapReaderBenchmark {
+
+  @Param({"5000"})
+  public int classes;
+
+  @Param({"20"})
+  public int methodsPerClass;
+
+  private String proguardMap;
+
+  @Setup
+  public void setup() {
+    proguardMap = new SyntheticBenchmarkInputs(classes, methodsPerClass).generateProguardMap();
+  }
+
+  @Benchmark
+  public ClassNameMapper parseProguardMap() throws IOException {
+    return ClassNameMapper.mapperFromString(proguardMap);
+  }
+}
@@ -0,0 +1,214 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.shaking;
+
+import com.android.tools.r8.graph.DexItemFactory;
+import com.android.tools.r8.graph.DexType;
+import com.android.tools.r8.origin.Origin;
+import com.android.tools.r8.utils.DescriptorUtils;
+import com.android.tools.r8.utils.Reporter;
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Matching of class and member names against the class and member patterns of the rules of a
+ * configuration, as done when building the root set.
+ *
+ * <p>The rules are typical of the consumer rules shipped with Android libraries and of the default
+ * Android configuration. The class names are spread over the packages of an app and the libraries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class ProguardNameMatchingBenchmark {
+
+  private static final List<String> RULES =
+      ImmutableList.of(
+          "-keepclasseswithmembernames class * { native <methods>; }",
+          "-keepclassmembers enum * {",
+          "  public static **[] values();",
+          "  public static ** valueOf(java.lang.String);",
+          "}",
+          "-keepclassmembers class * implements android.os.Parcelable {",
+          "  public static final ** CREATOR;",
+          "}",
+          "-keepclassmembers class * implements java.io.Serializable {",
+          "  static final long serialVersionUID;",
+          "  private void writeObject(java.io.ObjectOutputStream);",
+          "  private void readObject(java.io.ObjectInputStream);",
+          "  java.lang.Object writeReplace();",
+          "  java.lang.Object readResolve();",
+          "}",
+          "-keepclassmembers class **.R$* { public static <fields>; }",
+          "-keepclassmembers class * extends android.app.Activity {",
+          "  public void *(android.view.View);",
+          "}",
+          "-keep class * extends androidx.room.RoomDatabase",
+          "-keep class androidx.lifecycle.** { *; }",
+          "-keep class * extends androidx.work.ListenableWorker {",
+          "  public <init>(android.content.Context, androidx.work.WorkerParameters);",
+          "}",
+          "-keep class com.google.gson.reflect.TypeToken { *; }",
+          "-keep class * extends com.google.gson.reflect.TypeToken",
+          "-keepclassmembers,allowobfuscation class * {",
+          "  @com.google.gson.annotations.SerializedName <fields>;",
+          "}",
+          "-keep class okhttp3.internal.publicsuffix.PublicSuffixDatabase",
+          "-keepclasseswithmembers class * { @retrofit2.http.* <methods>; }",
+          "-keep,allowobfuscation interface * extends retrofit2.Call",
+          "-keepclassmembers class kotlin.Metadata { public <methods>; }",
+          "-keepclassmembers class **$WhenMappings { <fields>; }",
+          "-keepclassmembers class kotlinx.coroutines.** { volatile <fields>; }",
+          "-keepnames class kotlinx.coroutines.internal.MainDispatcherFactory {}",
+          "-keepnames class kotlinx.coroutines.CoroutineExceptionHandler {}",
+          "-keep class com.example.app.model.** { <fields>; <init>(...); }",
+          "-keep class com.example.app.**.*Fragment { public <init>(); }",
+          "-keep class com.example.app.**.*ViewModel { <init>(...); }",
+          "-keep class com.example.app.api.*Service { *** get*(...); *** set*(...); }",
+          "-keepclassmembers class com.example.**.*$Companion { *; }",
+          "-assumenosideeffects class android.util.Log {",
+          "  public static boolean isLoggable(java.lang.String, int);",
+          "  public static int v(...);",
+          "  public static int d(...);",
+          "  public static int i(...);",
+          "}",
+          "-assumenosideeffects class kotlin.jvm.internal.Intrinsics {",
+          "  static void checkParameterIsNotNull(java.lang.Object, java.lang.String);",
+          "  static void checkNotNullParameter(java.lang.Object, java.lang.String);",
+          "  static void checkExpressionValueIsNotNull(java.lang.Object, java.lang.String);",
+          "}",
+          "-if class **.*Activity",
+          "-keep class <1>.<2>ViewBinding { public static <1>.<2>ViewBinding inflate(...); }");
+
+  private static final String[] PACKAGES = {
+    "com.example.app",
+    "com.example.app.ui.main",
+    "com.example.app.ui.settings",
+    "com.example.app.model",
+    "com.example.app.api",
+    "com.example.app.data.local",
+    "androidx.lifecycle",
+    "androidx.recyclerview.widget",
+    "androidx.room",
+    "com.google.gson.internal.bind",
+    "okhttp3.internal.http",
+    "retrofit2",
+    "kotlin.collections",
+    "kotlinx.coroutines.internal"
+  };
+
+  private static final String[] CLASS_NAMES = {
+    "MainActivity",
+    "SettingsFragment",
+    "UserViewModel",
+    "UserService",
+    "User",
+    "Adapter",
+    "Adapter$ViewHolder",
+    "Repository$Companion",
+    "R$string",
+    "Utils",
+    "Factory",
+    "Impl$WhenMappings"
+  };
+
+  private static final String[] MEMBER_NAMES = {
+    "<init>",
+    "onCreate",
+    "getUser",
+    "setName",
+    "values",
+    "valueOf",
+    "CREATOR",
+    "serialVersionUID",
+    "writeObject",
+    "access$000",
+    "isLoggable",
+    "d",
+    "checkNotNullParameter",
+    "inflate"
+  };
+
+  @Param({"20"})
+  public int classesPerName;
+
+  private final List<ProguardClassNameList> classNameLists = new ArrayList<>();
+  private final List<ProguardNameMatcher> memberNameMatchers = new ArrayList<>();
+  private final List<DexType> types = new ArrayList<>();
+  private final List<String> memberNames = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    DexItemFactory factory = new DexItemFactory();
+    for (ProguardConfigurationRule rule :
+        ProguardConfigurationParser.parse(
+            ImmutableList.of(
+                new ProguardConfigurationSourceStrings(RULES, Paths.get(""), Origin.unknown())),
+            factory,
+            new Reporter())) {
+      classNameLists.add(rule.getClassNames());
+      for (ProguardMemberRule memberRule : rule.getMemberRules()) {
+        if (memberRule.getName() != null) {
+          memberNameMatchers.add(memberRule.getName());
+        }
+      }
+    }
+    for (String packageName : PACKAGES) {
+      for (String className : CLASS_NAMES) {
+        for (int i = 0; i < classesPerName; i++) {
+          String typeName = packageName + "." + className + (i == 0 ? "" : i);
+          types.add(factory.createType(DescriptorUtils.javaTypeToDescriptor(typeName)));
+        }
+      }
+    }
+    for (String memberName : MEMBER_NAMES) {
+      for (int i = 0; i < classesPerName; i++) {
+        memberNames.add(memberName + (i == 0 ? "" : "$" + i));
+      }
+    }
+  }
+
+  @Benchmark
+  public int matchClassNames() {
+    int matches = 0;
+    for (DexType type : types) {
+      for (ProguardClassNameList classNames : classNameLists) {
+        if (classNames.matches(type)) {
+          matches++;
+        }
+      }
+    }
+    return matches;
+  }
+
+  @Benchmark
+  public int matchMemberNames() {
+    int matches = 0;
+    for (String memberName : memberNames) {
+      for (ProguardNameMatcher nameMatcher : memberNameMatchers) {
+        if (nameMatcher.matches(memberName)) {
+          matches++;
+        }
+      }
+    }
+    return matches;
+  }
+}
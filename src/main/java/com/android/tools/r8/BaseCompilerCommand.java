@@ -47,6 +47,7 @@ public abstract class BaseCompilerCommand extends BaseCommand {
   private final BiPredicate<String, Long> dexClassChecksumFilter;
   private final List<AssertionsConfiguration> assertionsConfiguration;
   private final List<Consumer<Inspector>> outputInspections;
+  private final TelemetryConsumer telemetryConsumer;
   private int threadCount;
 
   BaseCompilerCommand(boolean printHelp, boolean printVersion) {
@@ -62,6 +63,7 @@ public abstract class BaseCompilerCommand extends BaseCommand {
     dexClassChecksumFilter = (name, checksum) -> true;
     assertionsConfiguration = new ArrayList<>();
     outputInspections = null;
+    telemetryConsumer = null;
     threadCount = ThreadUtils.NOT_SPECIFIED;
   }
 
@@ -78,6 +80,7 @@ public abstract class BaseCompilerCommand extends BaseCommand {
       BiPredicate<String, Long> dexClassChecksumFilter,
       List<AssertionsConfiguration> assertionsConfiguration,
       List<Consumer<Inspector>> outputInspections,
+      TelemetryConsumer telemetryConsumer,
       int threadCount) {
     super(app);
     assert minApiLevel > 0;
@@ -93,6 +96,7 @@ public abstract class BaseCompilerCommand extends BaseCommand {
     this.dexClassChecksumFilter = dexClassChecksumFilter;
     this.assertionsConfiguration = assertionsConfiguration;
     this.outputInspections = outputInspections;
+    this.telemetryConsumer = telemetryConsumer;
     this.threadCount = threadCount;
   }
 
@@ -169,6 +173,11 @@ public abstract class BaseCompilerCommand extends BaseCommand {
     return Collections.unmodifiableList(outputInspections);
   }
 
+  /** Get the consumer receiving telemetry of the compilation phases, or null if not set. */
+  public TelemetryConsumer getTelemetryConsumer() {
+    return telemetryConsumer;
+  }
+
   /** Get the number of threads to use for the compilation. */
   public int getThreadCount() {
     return threadCount;
@@ -206,6 +215,7 @@ public abstract class BaseCompilerCommand extends BaseCommand {
     private BiPredicate<String, Long> dexClassChecksumFilter = (name, checksum) -> true;
     private List<AssertionsConfiguration> assertionsConfiguration = new ArrayList<>();
     private List<Consumer<Inspector>> outputInspections = new ArrayList<>();
+    private TelemetryConsumer telemetryConsumer = null;
 
     abstract CompilationMode defaultCompilationMode();
 
@@ -626,5 +636,23 @@ public abstract class BaseCompilerCommand extends BaseCommand {
     List<Consumer<Inspector>> getOutputInspections() {
       return outputInspections;
     }
+
+    /**
+     * Set a consumer for receiving telemetry of the compilation phases.
+     *
+     * <p>The consumer receives an event with timing, memory and item count information each time a
+     * phase of the compilation completes. See {@link ChromeTraceEventConsumer} for writing the
+     * events in the Chrome trace event format.
+     *
+     * @param telemetryConsumer Consumer receiving the phase events, or null to disable telemetry.
+     */
+    public B setTelemetryConsumer(TelemetryConsumer telemetryConsumer) {
+      this.telemetryConsumer = telemetryConsumer;
+      return self();
+    }
+
+    TelemetryConsumer getTelemetryConsumer() {
+      return telemetryConsumer;
+    }
   }
 }
@@ -0,0 +1,90 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * Telemetry consumer writing the phases of a compilation in the Chrome trace event format.
+ *
+ * <p>The trace is provided to the string consumer as a single JSON object when the compilation has
+ * finished. It can be loaded in chrome://tracing or https://ui.perfetto.dev.
+ */
+@Keep
+public class ChromeTraceEventConsumer implements TelemetryConsumer {
+
+  private final StringConsumer consumer;
+  private final List<PhaseEvent> events = new ArrayList<>();
+
+  /** @param consumer Consumer receiving the trace once the compilation has finished. */
+  public ChromeTraceEventConsumer(StringConsumer consumer) {
+    this.consumer = consumer;
+  }
+
+  @Override
+  public synchronized void acceptPhase(PhaseEvent event) {
+    events.add(event);
+  }
+
+  @Override
+  public synchronized void finished(DiagnosticsHandler handler) {
+    long startNanos = Long.MAX_VALUE;
+    for (PhaseEvent event : events) {
+      startNanos = Math.min(startNanos, event.getStartNanos());
+    }
+    JsonArray traceEvents = new JsonArray();
+    Map<Long, String> threadNames = new TreeMap<>();
+    for (PhaseEvent event : events) {
+      traceEvents.add(toTraceEvent(event, startNanos));
+      threadNames.putIfAbsent(event.getThreadId(), event.getThreadName());
+    }
+    threadNames.forEach((id, name) -> traceEvents.add(toThreadNameEvent(id, name)));
+    events.clear();
+    JsonObject trace = new JsonObject();
+    trace.add("traceEvents", traceEvents);
+    trace.addProperty("displayTimeUnit", "ms");
+    consumer.accept(trace.toString(), handler);
+    consumer.finished(handler);
+  }
+
+  private static JsonObject toThreadNameEvent(long threadId, String threadName) {
+    JsonObject args = new JsonObject();
+    args.addProperty("name", threadName);
+    JsonObject traceEvent = new JsonObject();
+    traceEvent.addProperty("name", "thread_name");
+    traceEvent.addProperty("ph", "M");
+    traceEvent.addProperty("pid", 1);
+    traceEvent.addProperty("tid", threadId);
+    traceEvent.add("args", args);
+    return traceEvent;
+  }
+
+  private static JsonObject toTraceEvent(PhaseEvent event, long startNanos) {
+    JsonObject args = new JsonObject();
+    if (event.getAllocatedBytes() >= 0) {
+      args.addProperty("allocatedBytes", event.getAllocatedBytes());
+    }
+    args.addProperty("liveHeapBytes", event.getLiveHeapBytes());
+    for (Entry<String, Long> entry : event.getCounts().entrySet()) {
+      args.addProperty(entry.getKey(), entry.getValue());
+    }
+    // Complete events have their timestamp and duration in microseconds.
+    JsonObject traceEvent = new JsonObject();
+    traceEvent.addProperty("name", event.getName());
+    traceEvent.addProperty("cat", "r8");
+    traceEvent.addProperty("ph", "X");
+    traceEvent.addProperty("ts", (event.getStartNanos() - startNanos) / 1000.0);
+    traceEvent.addProperty("dur", (event.getEndNanos() - event.getStartNanos()) / 1000.0);
+    traceEvent.addProperty("pid", 1);
+    traceEvent.addProperty("tid", event.getThreadId());
+    traceEvent.add("args", args);
+    return traceEvent;
+  }
+}
@@ -8,6 +8,7 @@ import static com.android.tools.r8.utils.ExceptionUtils.unwrapExecutionException
 
 import com.android.tools.r8.dex.ApplicationReader;
 import com.android.tools.r8.dex.ApplicationWriter;
+import com.android.tools.r8.dex.ClassDexingCache;
 import com.android.tools.r8.dex.Marker;
 import com.android.tools.r8.dex.Marker.Tool;
 import com.android.tools.r8.graph.AppInfo;
@@ -181,6 +182,7 @@ public final class D8 {
     try {
       // Disable global optimizations.
       options.disableGlobalOptimizations();
+      options.classDexingCache = ClassDexingCache.create(options);
 
       AppView<AppInfo> appView = readApp(inputApp, options, executor, timing);
       SyntheticItems.collectSyntheticInputs(appView);
@@ -269,7 +271,7 @@ public final class D8 {
       }
       if (options.isGeneratingClassFiles()) {
         // TODO(b/158159959): Move this out so it is shared for both CF and DEX pipelines.
-        SyntheticFinalization.finalize(appView);
+        SyntheticFinalization.finalize(appView, executor);
         new CfApplicationWriter(appView, marker, GraphLens.getIdentityLens(), namingLens, null)
             .write(options.getClassFileConsumer());
       } else {
@@ -313,7 +315,7 @@ public final class D8 {
         }
 
         // TODO(b/158159959): Move this out so it is shared for both CF and DEX pipelines.
-        SyntheticFinalization.finalize(appView);
+        SyntheticFinalization.finalize(appView, executor);
 
         new ApplicationWriter(
                 appView,
@@ -328,6 +330,7 @@ public final class D8 {
     } catch (ExecutionException e) {
       throw unwrapExecutionException(e);
     } finally {
+      timing.finish();
       options.signalFinishedToConsumers();
       // Dump timings.
       if (options.printTimes) {
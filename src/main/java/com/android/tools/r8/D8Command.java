@@ -84,6 +84,7 @@ public final class D8Command extends BaseCompilerCommand {
     private boolean enableMainDexListCheck = true;
     private boolean minimalMainDex = false;
     private boolean skipDump = false;
+    private Path classDexingCacheDirectory = null;
     private final List<ProguardConfigurationSource> mainDexRules = new ArrayList<>();
 
     private Builder() {
@@ -175,6 +176,20 @@ public final class D8Command extends BaseCompilerCommand {
       return self();
     }
 
+    /**
+     * Set a directory for a persistent cache of the DEX code of classes read from class files.
+     *
+     * <p>The DEX code of a class whose compilation only depends on the class itself is taken from
+     * the cache if it was compiled from the same class file with the same options before, and
+     * stored in the cache otherwise. The cache directory may be shared between compilations.
+     *
+     * @param directory Directory of the cache, or null to not use a cache.
+     */
+    public Builder setClassDexingCacheDirectory(Path directory) {
+      classDexingCacheDirectory = directory;
+      return self();
+    }
+
     /**
      * Allow to skip to dump into file and dump into directory instruction, this is primarily used
      * for chained compilation in L8 so there are no duplicated dumps.
@@ -310,11 +325,13 @@ public final class D8Command extends BaseCompilerCommand {
           libraryConfiguration,
           getAssertionsConfiguration(),
           getOutputInspections(),
+          getTelemetryConsumer(),
           synthesizedClassPrefix,
           skipDump,
           enableMainDexListCheck,
           minimalMainDex,
           mainDexKeepRules,
+          classDexingCacheDirectory,
           getThreadCount(),
           factory);
     }
@@ -331,6 +348,7 @@ public final class D8Command extends BaseCompilerCommand {
   private final boolean enableMainDexListCheck;
   private final boolean minimalMainDex;
   private final ImmutableList<ProguardConfigurationRule> mainDexKeepRules;
+  private final Path classDexingCacheDirectory;
   private final DexItemFactory factory;
 
   public static Builder builder() {
@@ -390,11 +408,13 @@ public final class D8Command extends BaseCompilerCommand {
       DesugaredLibraryConfiguration libraryConfiguration,
       List<AssertionsConfiguration> assertionsConfiguration,
       List<Consumer<Inspector>> outputInspections,
+      TelemetryConsumer telemetryConsumer,
       String synthesizedClassPrefix,
       boolean skipDump,
       boolean enableMainDexListCheck,
       boolean minimalMainDex,
       ImmutableList<ProguardConfigurationRule> mainDexKeepRules,
+      Path classDexingCacheDirectory,
       int threadCount,
       DexItemFactory factory) {
     super(
@@ -410,6 +430,7 @@ public final class D8Command extends BaseCompilerCommand {
         dexClassChecksumFilter,
         assertionsConfiguration,
         outputInspections,
+        telemetryConsumer,
         threadCount);
     this.intermediate = intermediate;
     this.desugarGraphConsumer = desugarGraphConsumer;
@@ -420,6 +441,7 @@ public final class D8Command extends BaseCompilerCommand {
     this.enableMainDexListCheck = enableMainDexListCheck;
     this.minimalMainDex = minimalMainDex;
     this.mainDexKeepRules = mainDexKeepRules;
+    this.classDexingCacheDirectory = classDexingCacheDirectory;
     this.factory = factory;
   }
 
@@ -434,6 +456,7 @@ public final class D8Command extends BaseCompilerCommand {
     enableMainDexListCheck = true;
     minimalMainDex = false;
     mainDexKeepRules = null;
+    classDexingCacheDirectory = null;
     factory = null;
   }
 
@@ -494,6 +517,8 @@ public final class D8Command extends BaseCompilerCommand {
             AssertionTransformation.DISABLE, getAssertionsConfiguration());
 
     internal.outputInspections = InspectorImpl.wrapInspections(getOutputInspections());
+    internal.telemetryConsumer = getTelemetryConsumer();
+    internal.classDexingCacheDirectory = classDexingCacheDirectory;
 
     if (!DETERMINISTIC_DEBUGGING) {
       assert internal.threadCount == ThreadUtils.NOT_SPECIFIED;
@@ -102,7 +102,7 @@ public class L8 {
             assert options.enableStringSwitchConversion;
             options.enableStringSwitchConversion = false;
 
-            desugar(app, options, executorService);
+            desugar(app, options, shrink || d8Command != null, executorService);
 
             options.cfToCfDesugar = false;
             options.enableSwitchRewriting = true;
@@ -120,7 +120,11 @@ public class L8 {
   }
 
   private static void desugar(
-      AndroidApp inputApp, InternalOptions options, ExecutorService executor) throws IOException {
+      AndroidApp inputApp,
+      InternalOptions options,
+      boolean hasDexCompilation,
+      ExecutorService executor)
+      throws IOException {
     Timing timing = Timing.create("L8 desugaring", options);
     assert options.cfToCfDesugar;
     try {
@@ -138,7 +142,7 @@ public class L8 {
 
       new IRConverter(appView, timing).convert(appView, executor);
 
-      SyntheticFinalization.finalize(appView);
+      SyntheticFinalization.finalize(appView, executor);
 
       NamingLens namingLens = PrefixRewritingNamingLens.createPrefixRewritingNamingLens(appView);
       new GenericSignatureRewriter(appView, namingLens).run(appView.appInfo().classes(), executor);
@@ -150,6 +154,11 @@ public class L8 {
     } catch (ExecutionException e) {
       throw unwrapExecutionException(e);
     } finally {
+      timing.finish();
+      if (hasDexCompilation) {
+        // The telemetry consumer is signalled by the D8 or R8 compilation that follows.
+        options.telemetryConsumer = null;
+      }
       options.signalFinishedToConsumers();
       // Dump timings.
       if (options.printTimes) {
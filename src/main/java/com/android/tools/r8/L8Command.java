@@ -94,6 +94,7 @@ public final class L8Command extends BaseCompilerCommand {
       DesugaredLibraryConfiguration libraryConfiguration,
       List<AssertionsConfiguration> assertionsConfiguration,
       List<Consumer<Inspector>> outputInspections,
+      TelemetryConsumer telemetryConsumer,
       int threadCount,
       DexItemFactory factory) {
     super(
@@ -109,6 +110,7 @@ public final class L8Command extends BaseCompilerCommand {
         dexClassChecksumFilter,
         assertionsConfiguration,
         outputInspections,
+        telemetryConsumer,
         threadCount);
     this.d8Command = d8Command;
     this.r8Command = r8Command;
@@ -198,6 +200,9 @@ public final class L8Command extends BaseCompilerCommand {
     }
     internal.dumpOptions = dumpOptions();
 
+    // The D8 or R8 compilation of the desugared library reports to the same telemetry consumer.
+    internal.telemetryConsumer = getTelemetryConsumer();
+
     return internal;
   }
 
@@ -306,6 +311,7 @@ public final class L8Command extends BaseCompilerCommand {
                 .setMode(getMode())
                 .setIncludeClassesChecksum(getIncludeClassesChecksum())
                 .setDexClassChecksumFilter(getDexClassChecksumFilter())
+                .setTelemetryConsumer(getTelemetryConsumer())
                 .setProgramConsumer(getProgramConsumer());
         for (ClassFileResourceProvider libraryResourceProvider :
             inputs.getLibraryResourceProviders()) {
@@ -334,6 +340,7 @@ public final class L8Command extends BaseCompilerCommand {
                 .setMode(getMode())
                 .setIncludeClassesChecksum(getIncludeClassesChecksum())
                 .setDexClassChecksumFilter(getDexClassChecksumFilter())
+                .setTelemetryConsumer(getTelemetryConsumer())
                 .setProgramConsumer(getProgramConsumer());
         for (ClassFileResourceProvider libraryResourceProvider :
             inputs.getLibraryResourceProviders()) {
@@ -361,6 +368,7 @@ public final class L8Command extends BaseCompilerCommand {
           libraryConfiguration,
           getAssertionsConfiguration(),
           getOutputInspections(),
+          getTelemetryConsumer(),
           getThreadCount(),
           factory);
     }
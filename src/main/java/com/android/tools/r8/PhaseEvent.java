@@ -0,0 +1,46 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8;
+
+import java.util.Map;
+
+/** Information about a completed phase of a compilation, see {@link TelemetryConsumer}. */
+@Keep
+public interface PhaseEvent {
+
+  /** Get the name of the phase, e.g., "Load classes" or "IR conversion". */
+  String getName();
+
+  /** Get the name of the phase containing this phase, or null if this is the outermost phase. */
+  String getParentName();
+
+  /** Get the start time of the phase in nanoseconds as reported by {@link System#nanoTime()}. */
+  long getStartNanos();
+
+  /** Get the end time of the phase in nanoseconds as reported by {@link System#nanoTime()}. */
+  long getEndNanos();
+
+  /** Get the name of the thread that ran the phase. */
+  String getThreadName();
+
+  /** Get the id of the thread that ran the phase. */
+  long getThreadId();
+
+  /**
+   * Get the number of bytes allocated by the thread that ran the phase during the phase.
+   *
+   * <p>Returns -1 if the runtime does not support measuring thread allocation. The allocations of
+   * other threads used by the phase are not included.
+   */
+  long getAllocatedBytes();
+
+  /** Get the number of bytes in use on the heap at the end of the phase. */
+  long getLiveHeapBytes();
+
+  /**
+   * Get the number of items processed by the phase, keyed by the kind of item, e.g., "classes",
+   * "methods" or "instructions". The map is empty if the phase did not record any counts.
+   */
+  Map<String, Long> getCounts();
+}
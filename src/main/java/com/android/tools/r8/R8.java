@@ -107,6 +107,7 @@ import com.android.tools.r8.utils.AndroidApiLevel;
 import com.android.tools.r8.utils.AndroidApp;
 import com.android.tools.r8.utils.CfgPrinter;
 import com.android.tools.r8.utils.CollectionUtils;
+import com.android.tools.r8.utils.ConcurrentLRUCache;
 import com.android.tools.r8.utils.ExceptionUtils;
 import com.android.tools.r8.utils.InternalOptions;
 import com.android.tools.r8.utils.LineNumberOptimizer;
@@ -229,7 +230,7 @@ public class R8 {
       markers.remove(marker);
       if (options.isGeneratingClassFiles()) {
         new CfApplicationWriter(appView, marker, graphLens, namingLens, proguardMapSupplier)
-            .write(options.getClassFileConsumer());
+            .write(options.getClassFileConsumer(), executorService);
       } else {
         new ApplicationWriter(
                 appView,
@@ -331,7 +332,7 @@ public class R8 {
                     options.itemFactory, AndroidApiLevel.getAndroidApiLevel(options.minApiLevel)));
           }
         }
-        SubtypingInfo subtypingInfo = new SubtypingInfo(appView);
+        SubtypingInfo subtypingInfo = SubtypingInfo.create(appView, executorService);
         appView.setRootSet(
             RootSet.builder(
                     appView,
@@ -385,7 +386,7 @@ public class R8 {
                   .addAdditionalPinnedItems(pruner.getMethodsToKeepForConfigurationDebugging())
                   .build());
           new AbstractMethodRemover(
-                  appViewWithLiveness, appViewWithLiveness.appInfo().computeSubtypingInfo())
+                  appViewWithLiveness, SubtypingInfo.create(appViewWithLiveness, executorService))
               .run();
 
           if (appView.options().protoShrinking().isEnumLiteProtoShrinkingEnabled()) {
@@ -421,7 +422,7 @@ public class R8 {
       appView.dexItemFactory().clearTypeElementsCache();
 
       if (options.getProguardConfiguration().isAccessModificationAllowed()) {
-        SubtypingInfo subtypingInfo = appViewWithLiveness.appInfo().computeSubtypingInfo();
+        SubtypingInfo subtypingInfo = SubtypingInfo.create(appViewWithLiveness, executorService);
         GraphLens publicizedLens =
             ClassAndMemberPublicizer.run(
                 executorService,
@@ -468,7 +469,7 @@ public class R8 {
         assert appView.verticallyMergedClasses() != null;
 
         if (options.enableArgumentRemoval) {
-          SubtypingInfo subtypingInfo = appViewWithLiveness.appInfo().computeSubtypingInfo();
+          SubtypingInfo subtypingInfo = SubtypingInfo.create(appViewWithLiveness, executorService);
           {
             timing.begin("UnusedArgumentRemoval");
             UnusedArgumentsGraphLens lens =
@@ -500,7 +501,7 @@ public class R8 {
           timing.begin("HorizontalClassMerger");
           HorizontalClassMerger merger = new HorizontalClassMerger(appViewWithLiveness);
           HorizontalClassMergerResult horizontalClassMergerResult =
-              merger.run(runtimeTypeCheckInfo, timing);
+              merger.run(runtimeTypeCheckInfo, executorService, timing);
           if (horizontalClassMergerResult != null) {
             // Must rewrite AppInfoWithLiveness before pruning the merged classes, to ensure that
             // allocations sites, fields accesses, etc. are correctly transferred to the target
@@ -545,6 +546,10 @@ public class R8 {
         DexApplication application =
             converter.optimize(appViewWithLiveness, executorService).asDirect();
         appView.setAppInfo(appView.appInfo().rebuildWithClassHierarchy(previous -> application));
+        ConcurrentLRUCache<?, ?> leastUpperBoundOfInterfacesCache =
+            appView.dexItemFactory().leastUpperBoundOfInterfacesCache;
+        timing.count("interface lub cache hits", leastUpperBoundOfInterfacesCache.getHitCount());
+        timing.count("interface lub cache misses", leastUpperBoundOfInterfacesCache.getMissCount());
       } finally {
         timing.end();
       }
@@ -588,7 +593,7 @@ public class R8 {
               EnqueuerFactory.createForFinalTreeShaking(
                   appView,
                   executorService,
-                  new SubtypingInfo(appView),
+                  SubtypingInfo.create(appView, executorService),
                   keptGraphConsumer,
                   prunedTypes);
           EnqueuerResult enqueuerResult =
@@ -718,9 +723,9 @@ public class R8 {
       }
 
       if (appView.appInfo().hasLiveness()) {
-        SyntheticFinalization.finalizeWithLiveness(appView.withLiveness());
+        SyntheticFinalization.finalizeWithLiveness(appView.withLiveness(), executorService);
       } else {
-        SyntheticFinalization.finalizeWithClassHierarchy(appView);
+        SyntheticFinalization.finalizeWithClassHierarchy(appView, executorService);
       }
 
       // Perform minification.
@@ -749,7 +754,8 @@ public class R8 {
       // used. We still run the line number optimizer to collect line numbers and inline frame
       // information for the mapping file.
       ClassNameMapper classNameMapper =
-          LineNumberOptimizer.run(appView, getDirectApp(appView), inputApp, namingLens);
+          LineNumberOptimizer.run(
+              appView, getDirectApp(appView), inputApp, namingLens, executorService);
       timing.end();
 
       // Overwrite SourceFile if specified. This step should be done after IR conversion.
@@ -814,6 +820,7 @@ public class R8 {
     } catch (ExecutionException e) {
       throw unwrapExecutionException(e);
     } finally {
+      timing.finish();
       options.signalFinishedToConsumers();
       // Dump timings.
       if (options.printTimes) {
@@ -830,7 +837,7 @@ public class R8 {
     }
     assert appView.graphLens().isIdentityLens();
     // Find classes which may have code executed before secondary dex files installation.
-    SubtypingInfo subtypingInfo = new SubtypingInfo(appView);
+    SubtypingInfo subtypingInfo = SubtypingInfo.create(appView, executorService);
     MainDexRootSet mainDexRootSet =
         MainDexRootSet.builder(appView, subtypingInfo, options.mainDexKeepRules)
             .build(executorService);
@@ -860,7 +867,10 @@ public class R8 {
 
     Enqueuer enqueuer =
         EnqueuerFactory.createForFinalMainDexTracing(
-            appView, executorService, new SubtypingInfo(appView), mainDexKeptGraphConsumer);
+            appView,
+            executorService,
+            SubtypingInfo.create(appView, executorService),
+            mainDexKeptGraphConsumer);
     // Find classes which may have code executed before secondary dex files installation.
     MainDexInfo mainDexInfo = enqueuer.traceMainDex(executorService, timing);
     appView.setAppInfo(appView.appInfo().rebuildWithMainDexInfo(mainDexInfo));
@@ -1008,7 +1018,7 @@ public class R8 {
     // If there is no kept-graph info, re-run the enqueueing to compute it.
     if (whyAreYouKeepingConsumer == null) {
       whyAreYouKeepingConsumer = new WhyAreYouKeepingConsumer(null);
-      SubtypingInfo subtypingInfo = new SubtypingInfo(appView);
+      SubtypingInfo subtypingInfo = SubtypingInfo.create(appView, executorService);
       if (forMainDex) {
         enqueuer =
             EnqueuerFactory.createForFinalMainDexTracing(
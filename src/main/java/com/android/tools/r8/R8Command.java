@@ -585,6 +585,7 @@ public final class R8Command extends BaseCompilerCommand {
               featureSplitConfiguration,
               getAssertionsConfiguration(),
               getOutputInspections(),
+              getTelemetryConsumer(),
               synthesizedClassPrefix,
               skipDump,
               getThreadCount());
@@ -750,6 +751,7 @@ public final class R8Command extends BaseCompilerCommand {
       FeatureSplitConfiguration featureSplitConfiguration,
       List<AssertionsConfiguration> assertionsConfiguration,
       List<Consumer<Inspector>> outputInspections,
+      TelemetryConsumer telemetryConsumer,
       String synthesizedClassPrefix,
       boolean skipDump,
       int threadCount) {
@@ -766,6 +768,7 @@ public final class R8Command extends BaseCompilerCommand {
         dexClassChecksumFilter,
         assertionsConfiguration,
         outputInspections,
+        telemetryConsumer,
         threadCount);
     assert proguardConfiguration != null;
     assert mainDexKeepRules != null;
@@ -921,6 +924,7 @@ public final class R8Command extends BaseCompilerCommand {
     internal.syntheticProguardRulesConsumer = syntheticProguardRulesConsumer;
 
     internal.outputInspections = InspectorImpl.wrapInspections(getOutputInspections());
+    internal.telemetryConsumer = getTelemetryConsumer();
 
     // Default is to remove all javac generated assertion code when generating dex.
     assert internal.assertionsConfiguration == null;
@@ -0,0 +1,37 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8;
+
+/**
+ * Consumer for receiving telemetry of the phases of a compilation.
+ *
+ * <p>See {@link ChromeTraceEventConsumer} for a consumer that writes the events in the Chrome
+ * trace event format.
+ */
+@KeepForSubclassing
+public interface TelemetryConsumer {
+
+  /**
+   * Callback indicating that a phase of the compilation has completed.
+   *
+   * <p>Nested phases complete before the phases that contain them. A phase that is entered
+   * multiple times, e.g., once per method, is reported once per completion.
+   *
+   * <p>Note: this callback may be called on multiple threads.
+   *
+   * @param event Information about the completed phase.
+   */
+  void acceptPhase(PhaseEvent event);
+
+  /**
+   * Callback indicating that no more phases will be reported for the compilation.
+   *
+   * <p>The consumer is expected not to throw, but instead report any errors via the diagnostics
+   * {@param handler}. If an error is reported via {@param handler} and no exceptions are thrown,
+   * then the compiler guaranties to exit with an error.
+   *
+   * @param handler Diagnostics handler for reporting.
+   */
+  default void finished(DiagnosticsHandler handler) {}
+}
@@ -167,6 +167,7 @@ public class ApplicationReader {
           builder.addDataResourceProvider(dataResourceProvider);
         }
       }
+      timing.count("classes", builder.getProgramClasses().size());
     } catch (ExecutionException e) {
       throw unwrapExecutionException(e);
     } catch (ResourceException e) {
@@ -337,7 +338,10 @@ public class ApplicationReader {
       List<DexParser<DexProgramClass>> dexParsers = new ArrayList<>(dexSources.size());
       int computedMinApiLevel = options.minApiLevel;
       for (ProgramResource input : dexSources) {
-        DexReader dexReader = new DexReader(input);
+        DexReader dexReader =
+            options.memoryMapDexInputs
+                ? DexReader.createMemoryMappedIfFile(input)
+                : new DexReader(input);
         if (options.passthroughDexCode) {
           computedMinApiLevel = validateOrComputeMinApiLevel(computedMinApiLevel, dexReader);
         }
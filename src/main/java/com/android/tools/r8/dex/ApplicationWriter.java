@@ -62,6 +62,7 @@ import it.unimi.dsi.fastutil.objects.Reference2LongMap;
 import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
@@ -235,7 +236,7 @@ public class ApplicationWriter {
     timing.begin("DexApplication.write");
     ProguardMapId proguardMapId = null;
     if (proguardMapSupplier != null && options.proguardMapConsumer != null) {
-      proguardMapId = proguardMapSupplier.writeProguardMap();
+      proguardMapId = proguardMapSupplier.writeProguardMap(executorService);
     }
 
     // If we do have a map then we're called from R8. In that case we have at least one marker.
@@ -286,6 +287,12 @@ public class ApplicationWriter {
       appView.appInfo().classes().forEach((clazz) -> clazz.addDependencies(sortAnnotations));
       timing.end();
 
+      if (options.classDexingCache != null) {
+        timing.begin("Store class dexing cache");
+        storeClassDexingCache(options.classDexingCache, executorService);
+        timing.end();
+      }
+
       TimingMerger merger =
           timing.beginMerger("Write files", ThreadUtils.getNumberOfThreads(executorService));
       Collection<Timing> timings =
@@ -314,6 +321,57 @@ public class ApplicationWriter {
     }
   }
 
+  private void storeClassDexingCache(ClassDexingCache cache, ExecutorService executorService)
+      throws ExecutionException {
+    ThreadUtils.processItems(
+        appView.appInfo().classes(),
+        (DexProgramClass clazz) -> {
+          if (cache.shouldStore(clazz)) {
+            byte[] dex = writeClassForCache(clazz);
+            if (dex != null) {
+              cache.store(clazz, dex);
+            }
+          }
+        },
+        executorService);
+  }
+
+  /**
+   * Writes a DEX file containing only the given class, or returns null if the code of the class
+   * cannot be read back independently of the other classes of the application.
+   */
+  private byte[] writeClassForCache(DexProgramClass clazz) {
+    // The writer clears the code of the written methods, so write using a separate mapping.
+    Map<DexEncodedMethod, DexCode> codeMapping = new IdentityHashMap<>();
+    for (DexEncodedMethod method : clazz.methods()) {
+      if (method.hasCode()) {
+        if (!method.getCode().isDexCode()) {
+          return null;
+        }
+        codeMapping.put(method, method.getCode().asDexCode());
+      }
+    }
+    VirtualFile virtualFile = new VirtualFile(0, appView, graphLens, initClassLens, namingLens);
+    virtualFile.addClass(clazz);
+    virtualFile.commitTransaction();
+    ObjectToOffsetMapping objectMapping =
+        virtualFile.computeMapping(appView, graphLens, namingLens, initClassLens, Timing.empty());
+    if (objectMapping.hasJumboStrings()
+        || !objectMapping.getCallSites().isEmpty()
+        || !objectMapping.getMethodHandles().isEmpty()) {
+      return null;
+    }
+    ByteBufferResult result =
+        writeDexFile(
+            objectMapping,
+            MethodToCodeObjectMapping.fromMapBacking(codeMapping),
+            new ByteBufferProvider() {});
+    return Arrays.copyOfRange(
+        result.buffer.array(),
+        result.buffer.arrayOffset(),
+        result.buffer.arrayOffset() + result.length);
+  }
+
   private void writeVirtualFile(VirtualFile virtualFile, Timing timing) {
     if (virtualFile.isEmpty()) {
       return;
@@ -350,6 +408,8 @@ public class ApplicationWriter {
     ByteDataView data =
         new ByteDataView(result.buffer.array(), result.buffer.arrayOffset(), result.length);
     timing.end();
+    timing.count("classes", virtualFile.classes().size());
+    timing.count("bytes", result.length);
     timing.begin("Pass bytes to consumer");
     if (consumer instanceof DexFilePerClassFileConsumer) {
       ((DexFilePerClassFileConsumer) consumer)
@@ -10,6 +10,7 @@ import com.android.tools.r8.origin.Origin;
 import com.android.tools.r8.utils.LebUtils;
 import com.android.tools.r8.utils.StreamUtils;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Base class for reading binary content.
@@ -28,6 +29,12 @@ public abstract class BinaryReader {
     buffer = CompatByteBuffer.wrap(bytes);
   }
 
+  protected BinaryReader(Origin origin, ByteBuffer bytes) {
+    assert origin != null;
+    this.origin = origin;
+    buffer = new CompatByteBuffer(bytes);
+  }
+
   public Origin getOrigin() {
     return origin;
   }
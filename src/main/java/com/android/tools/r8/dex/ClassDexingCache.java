@@ -0,0 +1,211 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.dex;
+
+import com.android.tools.r8.AssertionsConfiguration;
+import com.android.tools.r8.Version;
+import com.android.tools.r8.errors.CompilationError;
+import com.android.tools.r8.graph.AppView;
+import com.android.tools.r8.graph.ClassKind;
+import com.android.tools.r8.graph.DexEncodedMethod;
+import com.android.tools.r8.graph.DexMethod;
+import com.android.tools.r8.graph.DexProgramClass;
+import com.android.tools.r8.graph.DexType;
+import com.android.tools.r8.ir.desugar.DesugaredLibraryConfiguration;
+import com.android.tools.r8.ir.optimize.Inliner.ConstraintWithTarget;
+import com.android.tools.r8.origin.Origin;
+import com.android.tools.r8.origin.PathOrigin;
+import com.android.tools.r8.utils.AssertionConfigurationWithDefault;
+import com.android.tools.r8.utils.ExceptionDiagnostic;
+import com.android.tools.r8.utils.InternalOptions;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Persistent, content addressed cache of the DEX code that D8 produces for a program class.
+ *
+ * <p>An entry is keyed by the bytes of the class file together with the compiler version and the
+ * options that influence the code generation. The value is a DEX file containing only the class,
+ * written with the regular {@link FileWriter}. On a cache hit the code of the methods is read
+ * back with the {@link DexParser} and IR conversion of the class is skipped.
+ *
+ * <p>Only classes for which D8 conversion does not depend on other classes are cached, see
+ * IRConverter#canUseClassDexingCache. The cache is best effort: failures to read or write
+ * entries are reported as info and the class is compiled as usual.
+ */
+public class ClassDexingCache {
+
+  private static final String ENTRY_EXTENSION = ".dex";
+
+  private final Path directory;
+  private final InternalOptions options;
+  private final String configuration;
+
+  // Cache keys for the program classes read from class files.
+  private final Map<DexType, String> keys = new ConcurrentHashMap<>();
+
+  // Classes that missed the cache and should be stored once converted.
+  private final Set<DexType> classesToStore = Sets.newConcurrentHashSet();
+
+  private final AtomicInteger numberOfHits = new AtomicInteger();
+
+  private ClassDexingCache(Path directory, InternalOptions options) {
+    this.directory = directory;
+    this.options = options;
+    this.configuration = computeConfiguration(options);
+  }
+
+  public static ClassDexingCache create(InternalOptions options) {
+    if (options.classDexingCacheDirectory == null
+        || !options.isGeneratingDex()
+        || options.hasMethodsFilter()
+        || options.desugaredLibraryConfiguration != DesugaredLibraryConfiguration.empty()) {
+      return null;
+    }
+    return new ClassDexingCache(options.classDexingCacheDirectory, options);
+  }
+
+  private static String computeConfiguration(InternalOptions options) {
+    StringBuilder builder = new StringBuilder();
+    builder
+        .append("version=")
+        .append(Version.getVersionString())
+        .append(";min-api=")
+        .append(options.minApiLevel)
+        .append(";debug=")
+        .append(options.debug)
+        .append(";desugar=")
+        .append(options.desugarState)
+        .append(";assertions=");
+    AssertionConfigurationWithDefault assertions = options.assertionsConfiguration;
+    if (assertions != null) {
+      builder.append(assertions.defautlTransformation);
+      for (AssertionsConfiguration configuration : assertions.assertionsConfigurations) {
+        builder
+            .append(",")
+            .append(configuration.getScope())
+            .append(":")
+            .append(configuration.getValue())
+            .append(":")
+            .append(configuration.getTransformation());
+      }
+    }
+    return builder.toString();
+  }
+
+  /** Records the class file a program class was read from. May be called concurrently. */
+  public void recordClassFile(DexProgramClass clazz, byte[] bytes) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(configuration, StandardCharsets.UTF_8);
+    hasher.putBytes(bytes);
+    keys.put(clazz.getType(), hasher.hash().toString());
+  }
+
+  private Path getEntryPath(String key) {
+    return directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_EXTENSION);
+  }
+
+  /**
+   * Replaces the class file code of the methods of the class with the DEX code from the cache.
+   *
+   * <p>Returns false if the class is not in the cache, in which case the class is stored in the
+   * cache when the application is written.
+   */
+  public boolean loadConvertedCode(DexProgramClass clazz, AppView<?> appView) {
+    String key = keys.get(clazz.getType());
+    if (key == null) {
+      return false;
+    }
+    Path entry = getEntryPath(key);
+    if (!Files.exists(entry)) {
+      classesToStore.add(clazz.getType());
+      return false;
+    }
+    Map<DexMethod, DexEncodedMethod> cachedMethods = readEntry(entry, clazz.getType());
+    if (cachedMethods == null) {
+      classesToStore.add(clazz.getType());
+      return false;
+    }
+    List<DexEncodedMethod> methodsToUpdate = new ArrayList<>();
+    for (DexEncodedMethod method : clazz.methods()) {
+      if (method.hasCode() && method.getCode().isCfCode()) {
+        DexEncodedMethod cachedMethod = cachedMethods.get(method.getReference());
+        if (cachedMethod == null || !cachedMethod.hasCode()) {
+          classesToStore.add(clazz.getType());
+          return false;
+        }
+        methodsToUpdate.add(method);
+      }
+    }
+    for (DexEncodedMethod method : methodsToUpdate) {
+      method.setCode(cachedMethods.get(method.getReference()).getCode(), appView);
+      method.markProcessed(ConstraintWithTarget.NEVER);
+    }
+    numberOfHits.incrementAndGet();
+    return true;
+  }
+
+  private Map<DexMethod, DexEncodedMethod> readEntry(Path entry, DexType type) {
+    Origin origin = new PathOrigin(entry);
+    try {
+      DexParser<DexProgramClass> parser =
+          new DexParser<>(
+              new DexReader(origin, Files.readAllBytes(entry)), ClassKind.PROGRAM, options);
+      parser.populateIndexTables();
+      List<DexProgramClass> classes = new ArrayList<>(1);
+      parser.addClassDefsTo(classes::add);
+      if (classes.size() != 1 || classes.get(0).getType() != type) {
+        return null;
+      }
+      Map<DexMethod, DexEncodedMethod> methods = new IdentityHashMap<>();
+      classes.get(0).forEachMethod(method -> methods.put(method.getReference(), method));
+      return methods;
+    } catch (IOException | CompilationError e) {
+      options.reporter.info(new ExceptionDiagnostic(e, origin));
+      return null;
+    }
+  }
+
+  /** Returns the number of classes for which the converted code was taken from the cache. */
+  public int getNumberOfHits() {
+    return numberOfHits.get();
+  }
+
+  boolean shouldStore(DexProgramClass clazz) {
+    return classesToStore.contains(clazz.getType());
+  }
+
+  void store(DexProgramClass clazz, byte[] dex) {
+    String key = keys.get(clazz.getType());
+    assert key != null;
+    Path entry = getEntryPath(key);
+    try {
+      Files.createDirectories(entry.getParent());
+      // Write to a temporary file and move it in place, such that concurrent compilations using
+      // the same cache never observe a partially written entry.
+      Path temporary = Files.createTempFile(entry.getParent(), key, ".tmp");
+      try {
+        Files.write(temporary, dex);
+        Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    } catch (IOException e) {
+      options.reporter.info(new ExceptionDiagnostic(e, new PathOrigin(entry)));
+    }
+  }
+}
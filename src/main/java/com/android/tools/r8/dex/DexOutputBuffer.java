@@ -34,8 +34,12 @@ public class DexOutputBuffer {
   }
 
   public DexOutputBuffer(ByteBufferProvider byteBufferProvider) {
+    this(byteBufferProvider, DEFAULT_BUFFER_SIZE);
+  }
+
+  public DexOutputBuffer(ByteBufferProvider byteBufferProvider, int initialSize) {
     this.byteBufferProvider = byteBufferProvider;
-    byteBuffer = allocateByteBuffer(DEFAULT_BUFFER_SIZE);
+    byteBuffer = allocateByteBuffer(initialSize);
   }
 
   private void ensureSpaceFor(int bytes) {
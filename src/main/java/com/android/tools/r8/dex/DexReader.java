@@ -9,11 +9,16 @@ import com.android.tools.r8.ProgramResource;
 import com.android.tools.r8.ResourceException;
 import com.android.tools.r8.errors.CompilationError;
 import com.android.tools.r8.origin.Origin;
+import com.android.tools.r8.origin.PathOrigin;
 import com.android.tools.r8.utils.DexVersion;
 import com.android.tools.r8.utils.StringUtils;
 import java.io.IOException;
 import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
 import java.util.Optional;
 
 /**
@@ -38,6 +43,32 @@ public class DexReader extends BinaryReader {
     version = parseMagic(buffer);
   }
 
+  private DexReader(Origin origin, ByteBuffer bytes) {
+    super(origin, bytes);
+    version = parseMagic(buffer);
+  }
+
+  /**
+   * Returns a reader for the given resource. If the resource is a file, then the file is memory
+   * mapped instead of being read onto the heap.
+   *
+   * <p>The mapping is only released when the reader is garbage collected. Until then the file
+   * cannot be deleted or replaced on Windows.
+   */
+  public static DexReader createMemoryMappedIfFile(ProgramResource resource)
+      throws ResourceException, IOException {
+    if (!(resource instanceof ProgramResource.FileResource)) {
+      return new DexReader(resource);
+    }
+    // The origin of a file resource is the path of the file.
+    PathOrigin origin = (PathOrigin) resource.getOrigin();
+    try (FileChannel channel = FileChannel.open(origin.getPath(), StandardOpenOption.READ)) {
+      return new DexReader(origin, channel.map(MapMode.READ_ONLY, 0, channel.size()));
+    } catch (IOException e) {
+      throw new ResourceException(origin, e);
+    }
+  }
+
   // Parse the magic header and determine the dex file version.
   private DexVersion parseMagic(CompatByteBuffer buffer) {
     try {
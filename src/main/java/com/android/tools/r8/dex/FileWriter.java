@@ -105,7 +105,8 @@ public class FileWriter {
   private final InternalOptions options;
   private final GraphLens graphLens;
   private final NamingLens namingLens;
-  private final DexOutputBuffer dest;
+  private final ByteBufferProvider provider;
+  private DexOutputBuffer dest;
   private final MixedSectionOffsets mixedSectionOffsets;
   private final CodeToKeep desugaredLibraryCodeToKeep;
   private final Map<DexProgramClass, DexEncodedArray> staticFieldValues = new IdentityHashMap<>();
@@ -125,7 +126,7 @@ public class FileWriter {
     this.options = options;
     this.graphLens = mapping.getGraphLens();
     this.namingLens = namingLens;
-    this.dest = new DexOutputBuffer(provider);
+    this.provider = provider;
     this.mixedSectionOffsets = new MixedSectionOffsets(options, codeMapping);
     this.desugaredLibraryCodeToKeep = desugaredLibraryCodeToKeep;
   }
@@ -186,8 +187,12 @@ public class FileWriter {
     // Sort the codes first, as their order might impact size due to alignment constraints.
     List<ProgramDexCode> codes = sortDexCodesByClassName();
 
+    // Allocate the output buffer with the estimated size of the file up front.
+    int sizeOfCodeItems = sizeOfCodeItems(codes);
+    dest = new DexOutputBuffer(provider, estimateFileSize(layout, sizeOfCodeItems));
+
     // Output the debug_info_items first, as they have no dependencies.
-    dest.moveTo(layout.getCodesOffset() + sizeOfCodeItems(codes));
+    dest.moveTo(layout.getCodesOffset() + sizeOfCodeItems);
     if (mixedSectionOffsets.getDebugInfos().isEmpty()) {
       layout.setDebugInfosOffset(0);
     } else {
@@ -409,6 +414,46 @@ public class FileWriter {
     return size;
   }
 
+  /**
+   * Returns an estimate of the size of the file, such that the output buffer does not have to be
+   * grown and copied repeatedly while writing, and small files such as those of per-class output
+   * do not get a large default buffer. The size is exact for the index sections, the code items,
+   * the string data and the type lists. The other items are counted with their minimal encoding,
+   * so a quarter of the data section is added as headroom.
+   */
+  private int estimateFileSize(Layout layout, int sizeOfCodeItems) {
+    int size = sizeOfCodeItems;
+    for (DexDebugInfo info : mixedSectionOffsets.getDebugInfos()) {
+      // The debug info has two counts, and at least one byte per parameter and event.
+      size += 2 + info.parameters.length + info.events.length;
+    }
+    for (DexTypeList list : mixedSectionOffsets.getTypeLists()) {
+      size = alignSize(4, size) + Integer.BYTES + list.size() * Short.BYTES;
+    }
+    for (DexString string : mixedSectionOffsets.getStringData()) {
+      size += sizeAsUleb128(string.size) + string.content.length;
+    }
+    for (DexAnnotation annotation : mixedSectionOffsets.getAnnotations()) {
+      // The visibility, the type, the count, and at least two bytes per element.
+      size += 3 + 2 * annotation.annotation.elements.length;
+    }
+    for (DexProgramClass clazz : mixedSectionOffsets.getClassesWithData()) {
+      // The class data has four counts and at least two bytes per field and three per method.
+      int numberOfFields = clazz.staticFields().size() + clazz.instanceFields().size();
+      size += 4 + 2 * numberOfFields + 3 * clazz.getMethodCollection().size();
+    }
+    for (DexEncodedArray array : mixedSectionOffsets.getEncodedArrays()) {
+      size += 1 + array.values.length;
+    }
+    for (DexAnnotationSet set : mixedSectionOffsets.getAnnotationSets()) {
+      size = alignSize(4, size) + Integer.BYTES + set.annotations.length * Integer.BYTES;
+    }
+    size += mixedSectionOffsets.getAnnotationDirectories().size() * 4 * Integer.BYTES;
+    // The map has at most one item per section.
+    size += Integer.BYTES + 20 * Constants.TYPE_MAP_LIST_ITEM_SIZE;
+    return layout.dataSectionOffset + size + size / 4;
+  }
+
   private int sizeOfCodeItem(DexCode code) {
     int result = 16;
     int insnSize = 0;
@@ -248,7 +248,8 @@ public class AppView<T extends AppInfo> implements DexDefinitionSupplier, Librar
   }
 
   public GraphLens clearCodeRewritings() {
-    return graphLens = graphLens.withCodeRewritingsApplied(dexItemFactory());
+    setGraphLens(graphLens.withCodeRewritingsApplied(dexItemFactory()));
+    return graphLens;
   }
 
   public AppServices appServices() {
@@ -412,6 +413,11 @@ public class AppView<T extends AppInfo> implements DexDefinitionSupplier, Librar
   /** @return true if the graph lens changed, otherwise false. */
   public boolean setGraphLens(GraphLens graphLens) {
     if (graphLens != this.graphLens) {
+      // Only the current lens caches its lookups, such that a long lens chain does not keep a copy
+      // of the mappings for each lens in the chain.
+      if (this.graphLens.isNonIdentityLens()) {
+        this.graphLens.asNonIdentityLens().clearLookupCaches();
+      }
       this.graphLens = graphLens;
       return true;
     }
@@ -680,6 +686,9 @@ public class AppView<T extends AppInfo> implements DexDefinitionSupplier, Librar
                 appView.dexItemFactory(), appliedLens)
             : GraphLens.getIdentityLens();
 
+    // The lookups of the lenses above the first unapplied lens are cached. Since these lookups go
+    // through the alternative parent lens, the caches are cleared before and after the rewriting.
+    clearLookupCachesAbove(lens, firstUnappliedLens);
     firstUnappliedLens.withAlternativeParentLens(
         newMemberRebindingLens,
         () -> {
@@ -696,6 +705,16 @@ public class AppView<T extends AppInfo> implements DexDefinitionSupplier, Librar
             appView.setMainDexRootSet(appView.getMainDexRootSet().rewrittenWithLens(lens));
           }
         });
+    clearLookupCachesAbove(lens, firstUnappliedLens);
+  }
+
+  private static void clearLookupCachesAbove(
+      NonIdentityGraphLens lens, NonIdentityGraphLens stopLens) {
+    for (NonIdentityGraphLens current = lens;
+        current != stopLens;
+        current = current.getPrevious().asNonIdentityLens()) {
+      current.clearLookupCaches();
+    }
   }
 
   public void setAlreadyLibraryDesugared(Set<DexType> alreadyLibraryDesugared) {
@@ -57,6 +57,10 @@ public abstract class Code extends CachedHashValueDexItem {
     return false;
   }
 
+  public boolean isLazyCfCode() {
+    return false;
+  }
+
   public boolean isHorizontalClassMergingCode() {
     return false;
   }
@@ -21,6 +21,7 @@ import com.android.tools.r8.graph.DexDebugEvent.SetPrologueEnd;
 import com.android.tools.r8.graph.DexMethodHandle.MethodHandleType;
 import com.android.tools.r8.ir.analysis.type.ArrayTypeElement;
 import com.android.tools.r8.ir.analysis.type.ClassTypeElement;
+import com.android.tools.r8.ir.analysis.type.ClassTypeElement.LeastUpperBoundOfInterfacesKey;
 import com.android.tools.r8.ir.analysis.type.InterfaceCollection;
 import com.android.tools.r8.ir.analysis.type.Nullability;
 import com.android.tools.r8.ir.analysis.type.ReferenceTypeElement;
@@ -29,9 +30,9 @@ import com.android.tools.r8.ir.code.Position;
 import com.android.tools.r8.ir.code.Value;
 import com.android.tools.r8.kotlin.Kotlin;
 import com.android.tools.r8.utils.ArrayUtils;
+import com.android.tools.r8.utils.ConcurrentLRUCache;
 import com.android.tools.r8.utils.DescriptorUtils;
 import com.android.tools.r8.utils.IterableUtils;
-import com.android.tools.r8.utils.LRUCacheTable;
 import com.google.common.base.Strings;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
@@ -41,11 +42,8 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import it.unimi.dsi.fastutil.ints.Int2ReferenceArrayMap;
-import it.unimi.dsi.fastutil.ints.Int2ReferenceMap;
-import it.unimi.dsi.fastutil.ints.Int2ReferenceOpenHashMap;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -68,7 +66,7 @@ public class DexItemFactory {
   public static final String recordDescriptorString = "Ljava/lang/Record;";
 
   /** Set of types that may be synthesized during compilation. */
-  private final Set<DexType> possibleCompilerSynthesizedTypes = Sets.newIdentityHashSet();
+  private final Set<DexType> possibleCompilerSynthesizedTypes = Sets.newConcurrentHashSet();
 
   private final Map<DexString, DexString> strings = new ConcurrentHashMap<>();
   private final Map<DexString, DexType> types = new ConcurrentHashMap<>();
@@ -79,23 +77,23 @@ public class DexItemFactory {
       new ConcurrentHashMap<>();
 
   // DexDebugEvent Canonicalization.
-  private final Int2ReferenceMap<AdvanceLine> advanceLines = new Int2ReferenceOpenHashMap<>();
-  private final Int2ReferenceMap<AdvancePC> advancePCs = new Int2ReferenceOpenHashMap<>();
-  private final Int2ReferenceMap<Default> defaults = new Int2ReferenceOpenHashMap<>();
-  private final Int2ReferenceMap<EndLocal> endLocals = new Int2ReferenceOpenHashMap<>();
-  private final Int2ReferenceMap<RestartLocal> restartLocals = new Int2ReferenceOpenHashMap<>();
+  private final Map<Integer, AdvanceLine> advanceLines = new ConcurrentHashMap<>();
+  private final Map<Integer, AdvancePC> advancePCs = new ConcurrentHashMap<>();
+  private final Map<Integer, Default> defaults = new ConcurrentHashMap<>();
+  private final Map<Integer, EndLocal> endLocals = new ConcurrentHashMap<>();
+  private final Map<Integer, RestartLocal> restartLocals = new ConcurrentHashMap<>();
   private final SetEpilogueBegin setEpilogueBegin = new SetEpilogueBegin();
   private final SetPrologueEnd setPrologueEnd = new SetPrologueEnd();
-  private final Map<DexString, SetFile> setFiles = new HashMap<>();
-  private final Map<SetInlineFrame, SetInlineFrame> setInlineFrames = new HashMap<>();
+  private final Map<DexString, SetFile> setFiles = new ConcurrentHashMap<>();
+  private final Map<SetInlineFrame, SetInlineFrame> setInlineFrames = new ConcurrentHashMap<>();
 
   // ReferenceTypeElement canonicalization.
   private final ConcurrentHashMap<DexType, ReferenceTypeElement> referenceTypes =
       new ConcurrentHashMap<>();
   private final ConcurrentHashMap<DexType, InterfaceCollection> classTypeInterfaces =
       new ConcurrentHashMap<>();
-  public final LRUCacheTable<InterfaceCollection, InterfaceCollection, InterfaceCollection>
-      leastUpperBoundOfInterfacesTable = LRUCacheTable.create(8, 8);
+  public final ConcurrentLRUCache<LeastUpperBoundOfInterfacesKey, InterfaceCollection>
+      leastUpperBoundOfInterfacesCache = new ConcurrentLRUCache<>(4096);
 
   boolean sorted = false;
 
@@ -2170,19 +2168,19 @@ public class DexItemFactory {
     return markers;
   }
 
-  // Non-synchronized internal create.
   private DexType internalCreateType(DexString descriptor) {
     assert !sorted;
     assert descriptor != null;
     DexType result = types.get(descriptor);
     if (result == null) {
-      result = new DexType(descriptor);
-      assert result.isArrayType()
-          || result.isClassType()
-          || result.isPrimitiveType()
-          || result.isVoidType();
-      assert !isInternalSentinel(result);
-      types.put(descriptor, result);
+      DexType type = new DexType(descriptor);
+      assert type.isArrayType() || type.isClassType() || type.isPrimitiveType() || type.isVoidType();
+      assert !isInternalSentinel(type);
+      // Another thread may have created the type concurrently, in which case that type is used.
+      result = types.putIfAbsent(descriptor, type);
+      if (result == null) {
+        result = type;
+      }
     }
     return result;
   }
@@ -2203,9 +2201,9 @@ public class DexItemFactory {
     return type;
   }
 
-  // Safe synchronized external create. May be used for statically known types in synthetic code.
+  // Safe external create. May be used for statically known types in synthetic code.
   // See the generated BackportedMethods.java for reference.
-  public synchronized DexType createSynthesizedType(String descriptor) {
+  public DexType createSynthesizedType(String descriptor) {
     DexType type = internalCreateType(createString(descriptor));
     addPossiblySynthesizedType(type);
     return type;
@@ -2234,8 +2232,8 @@ public class DexItemFactory {
     possibleCompilerSynthesizedTypes.forEach(fn);
   }
 
-  // Safe synchronized external create. Should never be used to create a statically known type!
-  public synchronized DexType createType(DexString descriptor) {
+  // Safe external create. Should never be used to create a statically known type!
+  public DexType createType(DexString descriptor) {
     return internalCreateType(descriptor);
   }
 
@@ -2414,34 +2412,30 @@ public class DexItemFactory {
     return createMethod(holder, createProto(voidType), classConstructorMethodName);
   }
 
+  // Looks up the event before creating it, since computeIfAbsent locks even if the key is present.
+  private static <K, V> V getOrCreate(Map<K, V> map, K key, Function<K, V> fn) {
+    V value = map.get(key);
+    return value != null ? value : map.computeIfAbsent(key, fn);
+  }
+
   public AdvanceLine createAdvanceLine(int delta) {
-    synchronized (advanceLines) {
-      return advanceLines.computeIfAbsent(delta, AdvanceLine::new);
-    }
+    return getOrCreate(advanceLines, delta, AdvanceLine::new);
   }
 
   public AdvancePC createAdvancePC(int delta) {
-    synchronized (advancePCs) {
-      return advancePCs.computeIfAbsent(delta, AdvancePC::new);
-    }
+    return getOrCreate(advancePCs, delta, AdvancePC::new);
   }
 
   public Default createDefault(int value) {
-    synchronized (defaults) {
-      return defaults.computeIfAbsent(value, Default::new);
-    }
+    return getOrCreate(defaults, value, Default::new);
   }
 
   public EndLocal createEndLocal(int registerNum) {
-    synchronized (endLocals) {
-      return endLocals.computeIfAbsent(registerNum, EndLocal::new);
-    }
+    return getOrCreate(endLocals, registerNum, EndLocal::new);
   }
 
   public RestartLocal createRestartLocal(int registerNum) {
-    synchronized (restartLocals) {
-      return restartLocals.computeIfAbsent(registerNum, RestartLocal::new);
-    }
+    return getOrCreate(restartLocals, registerNum, RestartLocal::new);
   }
 
   public SetEpilogueBegin createSetEpilogueBegin() {
@@ -2453,16 +2447,13 @@ public class DexItemFactory {
   }
 
   public SetFile createSetFile(DexString fileName) {
-    synchronized (setFiles) {
-      return setFiles.computeIfAbsent(fileName, SetFile::new);
-    }
+    return getOrCreate(setFiles, fileName, SetFile::new);
   }
 
   // TODO(tamaskenez) b/69024229 Measure if canonicalization is worth it.
   public SetInlineFrame createSetInlineFrame(DexMethod callee, Position caller) {
-    synchronized (setInlineFrames) {
-      return setInlineFrames.computeIfAbsent(new SetInlineFrame(callee, caller), p -> p);
-    }
+    SetInlineFrame frame = new SetInlineFrame(callee, caller);
+    return getOrCreate(setInlineFrames, frame, Function.identity());
   }
 
   public boolean isConstructor(DexMethod method) {
@@ -2476,13 +2467,13 @@ public class DexItemFactory {
   public void clearTypeElementsCache() {
     referenceTypes.clear();
     classTypeInterfaces.clear();
-    leastUpperBoundOfInterfacesTable.clear();
+    leastUpperBoundOfInterfacesCache.clear();
   }
 
   public boolean verifyNoCachedTypeElements() {
     assert referenceTypes.isEmpty();
     assert classTypeInterfaces.isEmpty();
-    assert leastUpperBoundOfInterfacesTable.isEmpty();
+    assert leastUpperBoundOfInterfacesCache.isEmpty();
     return true;
   }
 
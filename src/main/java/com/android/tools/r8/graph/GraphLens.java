@@ -615,7 +615,13 @@ public abstract class GraphLens {
     private final DexItemFactory dexItemFactory;
     private GraphLens previousLens;
 
+    // Caches for the context free lookups of types and fields, which otherwise traverse the entire
+    // lens chain. Only the lens that is queried caches the result, and not the previous lenses in
+    // the chain. The caches must be cleared if the previous lens is replaced, and they are cleared
+    // when the lens is no longer the current lens of the AppView.
     private final Map<DexType, DexType> arrayTypeCache = new ConcurrentHashMap<>();
+    private final Map<DexType, DexType> classTypeCache = new ConcurrentHashMap<>();
+    private final Map<DexField, FieldLookupResult> fieldCache = new ConcurrentHashMap<>();
 
     public NonIdentityGraphLens(AppView<?> appView) {
       this(appView.dexItemFactory(), appView.graphLens());
@@ -650,8 +656,21 @@ public abstract class GraphLens {
     public final void withAlternativeParentLens(GraphLens lens, Action action) {
       GraphLens oldParent = getPrevious();
       previousLens = lens;
+      clearLookupCaches();
       action.execute();
       previousLens = oldParent;
+      clearLookupCaches();
+    }
+
+    /**
+     * Clears the cached lookups of this lens. This is needed when a lens further down the chain is
+     * replaced by {@link #withAlternativeParentLens}, and when another lens is installed in the
+     * {@link AppView}.
+     */
+    final void clearLookupCaches() {
+      arrayTypeCache.clear();
+      classTypeCache.clear();
+      fieldCache.clear();
     }
 
     @Override
@@ -695,7 +714,30 @@ public abstract class GraphLens {
     @Override
     public final DexType lookupClassType(DexType type) {
       assert type.isClassType() : "Expected class type, but was `" + type.toSourceString() + "`";
-      return internalDescribeLookupClassType(getPrevious().lookupClassType(type));
+      DexType result = classTypeCache.get(type);
+      if (result == null) {
+        result = internalLookupClassType(type);
+        classTypeCache.put(type, result);
+      }
+      return result;
+    }
+
+    private DexType internalLookupClassType(DexType type) {
+      DexType previous =
+          previousLens.isNonIdentityLens()
+              ? previousLens.asNonIdentityLens().internalLookupClassType(type)
+              : previousLens.lookupClassType(type);
+      return internalDescribeLookupClassType(previous);
+    }
+
+    @Override
+    public final FieldLookupResult lookupFieldResult(DexField field) {
+      FieldLookupResult result = fieldCache.get(field);
+      if (result == null) {
+        result = super.lookupFieldResult(field);
+        fieldCache.put(field, result);
+      }
+      return result;
     }
 
     @Override
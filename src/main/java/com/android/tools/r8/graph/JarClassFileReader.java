@@ -491,6 +491,9 @@ public class JarClassFileReader<T extends DexClass> {
         if (deprecated) {
           programClass.setDeprecated();
         }
+        if (application.options.classDexingCache != null) {
+          application.options.classDexingCache.recordClassFile(programClass, context.classCache);
+        }
       }
       classConsumer.accept(clazz);
     }
@@ -118,6 +118,11 @@ public class LazyCfCode extends Code {
     return true;
   }
 
+  @Override
+  public boolean isLazyCfCode() {
+    return true;
+  }
+
   @Override
   public LazyCfCode asLazyCfCode() {
     return this;
@@ -151,6 +156,10 @@ public class LazyCfCode extends Code {
     return code;
   }
 
+  public boolean isParsed() {
+    return code != null;
+  }
+
   public static class DebugParsingOptions {
     public final boolean lineInfo;
     public final boolean localInfo;
@@ -3,21 +3,27 @@
 // BSD-style license that can be found in the LICENSE file.
 package com.android.tools.r8.graph;
 
+import com.android.tools.r8.utils.ThreadUtils;
 import com.android.tools.r8.utils.structural.StructuralItem;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -47,20 +53,52 @@ public class SubtypingInfo {
 
   private SubtypingInfo(Collection<DexClass> classes, DexDefinitionSupplier definitions) {
     factory = definitions.dexItemFactory();
+    getTypeInfo(factory.objectType).tagAsSubtypeRoot();
     // Recompute subtype map if we have modified the graph.
-    populateSubtypeMap(classes, definitions::definitionFor, factory);
+    Function<DexType, DexClass> definitionFor = definitions::contextIndependentDefinitionFor;
+    List<Set<DexType>> supertypes = new ArrayList<>(classes.size());
+    for (DexClass clazz : classes) {
+      supertypes.add(populateAllSuperTypes(clazz, definitionFor));
+    }
+    populateSubtypeMap(classes, supertypes, definitionFor, factory);
+  }
+
+  private SubtypingInfo(
+      Collection<DexClass> classes,
+      DexDefinitionSupplier definitions,
+      ExecutorService executorService)
+      throws ExecutionException {
+    factory = definitions.dexItemFactory();
+    getTypeInfo(factory.objectType).tagAsSubtypeRoot();
+    Function<DexType, DexClass> definitionFor = definitions::contextIndependentDefinitionFor;
+    Collection<Set<DexType>> supertypes =
+        ThreadUtils.processItemsWithResults(
+            classes, clazz -> populateAllSuperTypes(clazz, definitionFor), executorService);
+    populateSubtypeMap(classes, supertypes, definitionFor, factory);
+  }
+
+  /**
+   * Computes the subtyping information, where the supertypes of each class are computed in
+   * parallel. The result is the same as the result of {@link #SubtypingInfo(AppView)}.
+   */
+  public static SubtypingInfo create(
+      AppView<? extends AppInfoWithClassHierarchy> appView, ExecutorService executorService)
+      throws ExecutionException {
+    return create(appView.appInfo(), executorService);
+  }
+
+  public static SubtypingInfo create(
+      AppInfoWithClassHierarchy appInfo, ExecutorService executorService)
+      throws ExecutionException {
+    return new SubtypingInfo(appInfo.app().asDirect().allClasses(), appInfo, executorService);
   }
 
   private void populateSuperType(
-      Map<DexType, Set<DexType>> map,
-      DexType superType,
-      DexClass baseClass,
-      Function<DexType, DexClass> definitions) {
+      Set<DexType> supertypes, DexType superType, Function<DexType, DexClass> definitions) {
     if (superType != null) {
-      Set<DexType> set = map.computeIfAbsent(superType, ignore -> new HashSet<>());
-      if (set.add(baseClass.type)) {
+      if (supertypes.add(superType)) {
         // Only continue recursion if type has been added to set.
-        populateAllSuperTypes(map, superType, baseClass, definitions);
+        populateAllSuperTypes(supertypes, superType, definitions);
       }
     }
   }
@@ -74,15 +112,21 @@ public class SubtypingInfo {
     return typeInfo.computeIfAbsent(type, TypeInfo::new);
   }
 
+  // Returns all supertypes of the given class and records the direct subtypes of each supertype.
+  // This may run concurrently for different classes.
+  private Set<DexType> populateAllSuperTypes(
+      DexClass clazz, Function<DexType, DexClass> definitions) {
+    Set<DexType> supertypes = Sets.newIdentityHashSet();
+    populateAllSuperTypes(supertypes, clazz.type, definitions);
+    return supertypes;
+  }
+
   private void populateAllSuperTypes(
-      Map<DexType, Set<DexType>> map,
-      DexType holder,
-      DexClass baseClass,
-      Function<DexType, DexClass> definitions) {
+      Set<DexType> supertypes, DexType holder, Function<DexType, DexClass> definitions) {
     DexClass holderClass = definitions.apply(holder);
     // Skip if no corresponding class is found.
     if (holderClass != null) {
-      populateSuperType(map, holderClass.superType, baseClass, definitions);
+      populateSuperType(supertypes, holderClass.superType, definitions);
       if (holderClass.superType != null) {
         getTypeInfo(holderClass.superType).addDirectSubtype(getTypeInfo(holder));
       } else {
@@ -90,7 +134,7 @@ public class SubtypingInfo {
         assert dexItemFactory().objectType == holder;
       }
       for (DexType inter : holderClass.interfaces.values) {
-        populateSuperType(map, inter, baseClass, definitions);
+        populateSuperType(supertypes, inter, definitions);
         getTypeInfo(inter).addInterfaceSubtype(holder);
       }
       if (holderClass.isInterface()) {
@@ -106,12 +150,18 @@ public class SubtypingInfo {
 
   private void populateSubtypeMap(
       Collection<DexClass> classes,
+      Collection<Set<DexType>> supertypes,
       Function<DexType, DexClass> definitions,
       DexItemFactory dexItemFactory) {
-    getTypeInfo(dexItemFactory.objectType).tagAsSubtypeRoot();
+    assert classes.size() == supertypes.size();
+    // Add the classes to the subtype sets in the order of the classes, such that the iteration
+    // order of the subtype sets does not depend on the order in which the classes were processed.
     Map<DexType, Set<DexType>> map = new IdentityHashMap<>();
+    Iterator<Set<DexType>> supertypesIterator = supertypes.iterator();
     for (DexClass clazz : classes) {
-      populateAllSuperTypes(map, clazz.type, clazz, definitions);
+      for (DexType supertype : supertypesIterator.next()) {
+        map.computeIfAbsent(supertype, ignore -> new HashSet<>()).add(clazz.type);
+      }
     }
     for (Map.Entry<DexType, Set<DexType>> entry : map.entrySet()) {
       subtypeMap.put(entry.getKey(), ImmutableSet.copyOf(entry.getValue()));
@@ -261,7 +311,9 @@ public class SubtypingInfo {
       }
     }
 
-    private void setLevel(int level) {
+    // Synchronized since the level of a type can be set by different threads that each visit the
+    // type as a supertype of a different class.
+    private synchronized void setLevel(int level) {
       if (level == hierarchyLevel) {
         return;
       }
@@ -0,0 +1,151 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.horizontalclassmerging;
+
+import com.android.tools.r8.graph.DexProgramClass;
+import com.android.tools.r8.utils.IterableUtils;
+import com.android.tools.r8.utils.ThreadUtils;
+import com.android.tools.r8.utils.Timing;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A policy executor that yields the same class groups as the {@link PolicyExecutor}, but evaluates
+ * the policies concurrently.
+ *
+ * <p>Each run of consecutive single class policies is evaluated for all classes in parallel, by
+ * computing for each class the first policy that rejects it. The groups are then pruned policy by
+ * policy in the same way as in the {@link PolicyExecutor}. Multi class policies are applied to all
+ * groups in parallel, and the resulting groups are collected in the order of the input groups.
+ *
+ * <p>This requires that the policies can be evaluated concurrently for different classes and
+ * groups.
+ */
+public class ConcurrentPolicyExecutor {
+
+  private static final int NO_REJECTING_POLICY = -1;
+
+  private List<MergeGroup> applySingleClassPolicies(
+      List<SingleClassPolicy> policies,
+      List<MergeGroup> groups,
+      ExecutorService executorService,
+      Timing timing)
+      throws ExecutionException {
+    List<DexProgramClass> classes = new ArrayList<>();
+    for (MergeGroup group : groups) {
+      classes.addAll(group.getClasses());
+    }
+
+    timing.begin("Evaluate single class policies");
+    Collection<Integer> rejectingPolicies =
+        ThreadUtils.processItemsWithResults(
+            classes, clazz -> getFirstRejectingPolicy(policies, clazz), executorService);
+    Reference2IntMap<DexProgramClass> rejectingPolicyForClass =
+        new Reference2IntOpenHashMap<>(classes.size());
+    Iterator<Integer> rejectingPolicyIterator = rejectingPolicies.iterator();
+    for (DexProgramClass clazz : classes) {
+      rejectingPolicyForClass.put(clazz, rejectingPolicyIterator.next().intValue());
+    }
+    timing.end();
+
+    for (int i = 0; i < policies.size() && !groups.isEmpty(); i++) {
+      SingleClassPolicy policy = policies.get(i);
+      int policyIndex = i;
+      timing.begin(policy.getName());
+      groups.removeIf(
+          group -> {
+            int previousNumberOfClasses = group.size();
+            group.removeIf(clazz -> rejectingPolicyForClass.getInt(clazz) == policyIndex);
+            policy.numberOfRemovedClasses += previousNumberOfClasses - group.size();
+            return group.size() < 2;
+          });
+      timing.end();
+    }
+    return groups;
+  }
+
+  private static int getFirstRejectingPolicy(
+      List<SingleClassPolicy> policies, DexProgramClass clazz) {
+    for (int i = 0; i < policies.size(); i++) {
+      if (!policies.get(i).canMerge(clazz)) {
+        return i;
+      }
+    }
+    return NO_REJECTING_POLICY;
+  }
+
+  private List<MergeGroup> applyMultiClassPolicy(
+      MultiClassPolicy policy, List<MergeGroup> groups, ExecutorService executorService)
+      throws ExecutionException {
+    Collection<Collection<MergeGroup>> policyGroupsForGroups =
+        ThreadUtils.processItemsWithResults(groups, policy::apply, executorService);
+    // Add all the new groups together in the order of the groups they were created from.
+    List<MergeGroup> newGroups = new ArrayList<>();
+    Iterator<MergeGroup> groupIterator = groups.iterator();
+    for (Collection<MergeGroup> policyGroups : policyGroupsForGroups) {
+      MergeGroup group = groupIterator.next();
+      policyGroups.forEach(newGroup -> newGroup.applyMetadataFrom(group));
+      policy.numberOfRemovedClasses +=
+          group.size() - IterableUtils.sumInt(policyGroups, MergeGroup::size);
+      newGroups.addAll(policyGroups);
+    }
+    return newGroups;
+  }
+
+  /**
+   * Given an initial collection of class groups which can potentially be merged, run all of the
+   * given policies on the class groups yielding a new collection of class groups.
+   */
+  public Collection<MergeGroup> run(
+      Collection<MergeGroup> inputGroups,
+      List<Policy> policies,
+      ExecutorService executorService,
+      Timing timing)
+      throws ExecutionException {
+    List<MergeGroup> groups = new ArrayList<>(inputGroups);
+    int policyIndex = 0;
+    while (policyIndex < policies.size()) {
+      Policy policy = policies.get(policyIndex);
+      if (policy.shouldSkipPolicy()) {
+        policyIndex++;
+        continue;
+      }
+
+      if (policy instanceof SingleClassPolicy) {
+        List<SingleClassPolicy> singleClassPolicies = new ArrayList<>();
+        while (policyIndex < policies.size()
+            && policies.get(policyIndex) instanceof SingleClassPolicy) {
+          Policy singleClassPolicy = policies.get(policyIndex++);
+          if (!singleClassPolicy.shouldSkipPolicy()) {
+            singleClassPolicies.add((SingleClassPolicy) singleClassPolicy);
+          }
+        }
+        groups = applySingleClassPolicies(singleClassPolicies, groups, executorService, timing);
+        singleClassPolicies.forEach(Policy::clear);
+      } else {
+        assert policy instanceof MultiClassPolicy;
+        timing.begin(policy.getName());
+        groups = applyMultiClassPolicy((MultiClassPolicy) policy, groups, executorService);
+        timing.end();
+        policy.clear();
+        policyIndex++;
+      }
+
+      if (groups.isEmpty()) {
+        break;
+      }
+
+      // Any policy should not return any trivial groups.
+      assert groups.stream().allMatch(group -> group.size() >= 2);
+    }
+    return groups;
+  }
+}
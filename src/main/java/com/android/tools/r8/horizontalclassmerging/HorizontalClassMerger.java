@@ -46,6 +46,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
 public class HorizontalClassMerger {
 
@@ -56,13 +58,18 @@ public class HorizontalClassMerger {
     assert appView.options().enableInlining;
   }
 
-  public HorizontalClassMergerResult run(RuntimeTypeCheckInfo runtimeTypeCheckInfo, Timing timing) {
+  public HorizontalClassMergerResult run(
+      RuntimeTypeCheckInfo runtimeTypeCheckInfo, ExecutorService executorService, Timing timing)
+      throws ExecutionException {
     MergeGroup initialGroup = new MergeGroup(appView.appInfo().classesWithDeterministicOrder());
 
     // Run the policies on all program classes to produce a final grouping.
     List<Policy> policies = getPolicies(runtimeTypeCheckInfo);
     Collection<MergeGroup> groups =
-        new PolicyExecutor().run(Collections.singletonList(initialGroup), policies, timing);
+        appView.options().horizontalClassMergerOptions().isConcurrentPolicyExecutionEnabled()
+            ? new ConcurrentPolicyExecutor()
+                .run(Collections.singletonList(initialGroup), policies, executorService, timing)
+            : new PolicyExecutor().run(Collections.singletonList(initialGroup), policies, timing);
 
     // If there are no groups, then end horizontal class merging.
     if (groups.isEmpty()) {
@@ -109,7 +116,7 @@ public class HorizontalClassMerger {
     return builder.build();
   }
 
-  private List<Policy> getPolicies(RuntimeTypeCheckInfo runtimeTypeCheckInfo) {
+  List<Policy> getPolicies(RuntimeTypeCheckInfo runtimeTypeCheckInfo) {
     List<SingleClassPolicy> singleClassPolicies =
         ImmutableList.of(
             new NotMatchedByNoHorizontalClassMerging(appView),
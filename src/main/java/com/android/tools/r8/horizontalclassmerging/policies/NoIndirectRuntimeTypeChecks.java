@@ -12,15 +12,15 @@ import com.android.tools.r8.graph.DexTypeList;
 import com.android.tools.r8.horizontalclassmerging.MultiClassSameReferencePolicy;
 import com.android.tools.r8.shaking.AppInfoWithLiveness;
 import com.android.tools.r8.shaking.RuntimeTypeCheckInfo;
-import it.unimi.dsi.fastutil.objects.Reference2BooleanMap;
-import it.unimi.dsi.fastutil.objects.Reference2BooleanOpenHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class NoIndirectRuntimeTypeChecks extends MultiClassSameReferencePolicy<DexTypeList> {
 
   private final AppView<AppInfoWithLiveness> appView;
   private final RuntimeTypeCheckInfo runtimeTypeCheckInfo;
 
-  private final Reference2BooleanMap<DexType> cache = new Reference2BooleanOpenHashMap<>();
+  private final Map<DexType, Boolean> cache = new ConcurrentHashMap<>();
 
   public NoIndirectRuntimeTypeChecks(
       AppView<AppInfoWithLiveness> appView, RuntimeTypeCheckInfo runtimeTypeCheckInfo) {
@@ -40,8 +40,9 @@ public class NoIndirectRuntimeTypeChecks extends MultiClassSameReferencePolicy<D
   }
 
   private boolean computeInterfaceHasDirectOrIndirectRuntimeTypeCheck(DexType type) {
-    if (cache.containsKey(type)) {
-      return cache.getBoolean(type);
+    Boolean cachedResult = cache.get(type);
+    if (cachedResult != null) {
+      return cachedResult;
     }
     DexClass clazz = appView.definitionFor(type);
     if (clazz == null || !clazz.isInterface()) {
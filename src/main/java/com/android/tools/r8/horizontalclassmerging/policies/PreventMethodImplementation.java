@@ -18,9 +18,9 @@ import com.android.tools.r8.horizontalclassmerging.SubtypingForrestForClasses;
 import com.android.tools.r8.shaking.AppInfoWithLiveness;
 import com.android.tools.r8.utils.collections.DexMethodSignatureSet;
 import java.util.Collection;
-import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Prevent merging of classes where subclasses contain interface with default methods and the merged
@@ -65,16 +65,22 @@ public class PreventMethodImplementation extends MultiClassPolicy {
   }
 
   private abstract static class SignaturesCache<C extends DexClass> {
-    private final Map<DexClass, DexMethodSignatureSet> memoizedSignatures = new IdentityHashMap<>();
+    private final Map<DexClass, DexMethodSignatureSet> memoizedSignatures =
+        new ConcurrentHashMap<>();
 
     public DexMethodSignatureSet getOrComputeSignatures(C clazz) {
-      return memoizedSignatures.computeIfAbsent(
-          clazz,
-          ignore -> {
-            DexMethodSignatureSet signatures = DexMethodSignatureSet.createLinked();
-            process(clazz, signatures);
-            return signatures;
-          });
+      // The signatures are computed recursively, which rules out ConcurrentHashMap#computeIfAbsent.
+      // Concurrent computations for the same class yield equal sets, so the first one is kept.
+      DexMethodSignatureSet signatures = memoizedSignatures.get(clazz);
+      if (signatures == null) {
+        signatures = DexMethodSignatureSet.createLinked();
+        process(clazz, signatures);
+        DexMethodSignatureSet existing = memoizedSignatures.putIfAbsent(clazz, signatures);
+        if (existing != null) {
+          return existing;
+        }
+      }
+      return signatures;
     }
 
     abstract void process(C clazz, DexMethodSignatureSet signatures);
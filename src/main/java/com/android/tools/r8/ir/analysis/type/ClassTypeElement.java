@@ -382,12 +382,9 @@ public class ClassTypeElement extends ReferenceTypeElement {
     if (s1.isEmpty() || s2.isEmpty()) {
       return InterfaceCollection.empty();
     }
-    InterfaceCollection cached =
-        appView.dexItemFactory().leastUpperBoundOfInterfacesTable.get(s1, s2);
-    if (cached != null) {
-      return cached;
-    }
-    cached = appView.dexItemFactory().leastUpperBoundOfInterfacesTable.get(s2, s1);
+    // The least upper bound is symmetric, so the cache key does not depend on the order.
+    LeastUpperBoundOfInterfacesKey key = new LeastUpperBoundOfInterfacesKey(s1, s2);
+    InterfaceCollection cached = appView.dexItemFactory().leastUpperBoundOfInterfacesCache.get(key);
     if (cached != null) {
       return cached;
     }
@@ -443,13 +440,44 @@ public class ClassTypeElement extends ReferenceTypeElement {
     InterfaceCollection lub = lubBuilder.build();
     // Cache the computation result only if the given two sets of interfaces are different.
     if (!s1.equals(s2)) {
-      synchronized (appView.dexItemFactory().leastUpperBoundOfInterfacesTable) {
-        appView.dexItemFactory().leastUpperBoundOfInterfacesTable.put(s1, s2, lub);
-      }
+      appView.dexItemFactory().leastUpperBoundOfInterfacesCache.put(key, lub);
     }
     return lub;
   }
 
+  public static class LeastUpperBoundOfInterfacesKey {
+
+    private final InterfaceCollection first;
+    private final InterfaceCollection second;
+    private final int hashCode;
+
+    private LeastUpperBoundOfInterfacesKey(InterfaceCollection first, InterfaceCollection second) {
+      this.first = first;
+      this.second = second;
+      // Computing the hash code of an interface collection iterates the interfaces.
+      this.hashCode = first.hashCode() + second.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof LeastUpperBoundOfInterfacesKey)) {
+        return false;
+      }
+      LeastUpperBoundOfInterfacesKey other = (LeastUpperBoundOfInterfacesKey) o;
+      return hashCode == other.hashCode
+          && ((first.equals(other.first) && second.equals(other.second))
+              || (first.equals(other.second) && second.equals(other.first)));
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -38,7 +38,6 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -152,7 +151,7 @@ public class BasicBlock {
   // Catch handler information about which successors are catch handlers and what their guards are.
   private CatchHandlers<Integer> catchHandlers = CatchHandlers.EMPTY_INDICES;
 
-  private LinkedList<Instruction> instructions = new LinkedList<>();
+  private final InstructionList instructions = new InstructionList();
   private int number = -1;
   private List<Phi> phis = new ArrayList<>();
 
@@ -626,7 +625,7 @@ public class BasicBlock {
     return nextInstructionNumber;
   }
 
-  public LinkedList<Instruction> getInstructions() {
+  public InstructionList getInstructions() {
     return instructions;
   }
 
@@ -1361,29 +1360,21 @@ public class BasicBlock {
     instructions.add(branch);
   }
 
-  public void setInstructions(LinkedList<Instruction> instructions) {
-    this.instructions = instructions;
-  }
-
   /**
    * Remove a number of instructions. The instructions to remove are given as indexes in the
    * instruction stream.
    */
   public void removeInstructions(List<Integer> toRemove) {
-    if (!toRemove.isEmpty()) {
-      LinkedList<Instruction> newInstructions = new LinkedList<>();
-      int nextIndex = 0;
-      for (Integer index : toRemove) {
-        assert index >= nextIndex;  // Indexes in toRemove must be sorted ascending.
-        newInstructions.addAll(instructions.subList(nextIndex, index));
-        instructions.get(index).clearBlock();
-        nextIndex = index + 1;
-      }
-      if (nextIndex < instructions.size()) {
-        newInstructions.addAll(instructions.subList(nextIndex, instructions.size()));
-      }
-      assert instructions.size() == newInstructions.size() + toRemove.size();
-      setInstructions(newInstructions);
+    ListIterator<Instruction> iterator = instructions.listIterator();
+    int nextIndex = 0;
+    for (int index : toRemove) {
+      assert index >= nextIndex;  // Indexes in toRemove must be sorted ascending.
+      for (; nextIndex < index; nextIndex++) {
+        iterator.next();
+      }
+      iterator.next().clearBlock();
+      iterator.remove();
+      nextIndex++;
     }
   }
 
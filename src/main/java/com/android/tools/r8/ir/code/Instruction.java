@@ -48,6 +48,9 @@ public abstract class Instruction implements InstructionOrPhi, TypeAndLocalInfoS
   protected Value outValue = null;
   protected final List<Value> inValues = new ArrayList<>();
   private BasicBlock block = null;
+  // Links of the InstructionList of the block.
+  Instruction previousInList = null;
+  Instruction nextInList = null;
   private int number = -1;
   private Set<Value> debugValues = null;
   private Position position = null;
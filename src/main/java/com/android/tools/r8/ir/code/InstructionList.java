@@ -0,0 +1,269 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.ir.code;
+
+import java.util.AbstractSequentialList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Doubly linked list of the instructions of a basic block.
+ *
+ * <p>The links are stored in the instructions themselves, so the list does not allocate a node
+ * per instruction. As a consequence an instruction can be in at most one list at a time, and it
+ * must be removed from its list before it is added to another list.
+ */
+public class InstructionList extends AbstractSequentialList<Instruction> {
+
+  private Instruction first = null;
+  private Instruction last = null;
+  private int size = 0;
+
+  public InstructionList() {}
+
+  public InstructionList(Collection<? extends Instruction> instructions) {
+    addAll(instructions);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public Instruction getFirst() {
+    if (first == null) {
+      throw new NoSuchElementException();
+    }
+    return first;
+  }
+
+  public Instruction getLast() {
+    if (last == null) {
+      throw new NoSuchElementException();
+    }
+    return last;
+  }
+
+  public void addFirst(Instruction instruction) {
+    linkBefore(instruction, first);
+  }
+
+  public void addLast(Instruction instruction) {
+    linkBefore(instruction, null);
+  }
+
+  @Override
+  public boolean add(Instruction instruction) {
+    linkBefore(instruction, null);
+    return true;
+  }
+
+  public Instruction removeFirst() {
+    return unlink(getFirst());
+  }
+
+  public Instruction removeLast() {
+    return unlink(getLast());
+  }
+
+  @Override
+  public Instruction get(int index) {
+    return instructionAt(index);
+  }
+
+  @Override
+  public void clear() {
+    Instruction instruction = first;
+    while (instruction != null) {
+      Instruction next = instruction.nextInList;
+      instruction.previousInList = null;
+      instruction.nextInList = null;
+      instruction = next;
+    }
+    first = null;
+    last = null;
+    size = 0;
+    modCount++;
+  }
+
+  @Override
+  public ListIterator<Instruction> listIterator(int index) {
+    if (index < 0 || index > size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return new LinkedInstructionIterator(index);
+  }
+
+  private Instruction instructionAt(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    Instruction instruction;
+    if (index < (size >> 1)) {
+      instruction = first;
+      for (int i = 0; i < index; i++) {
+        instruction = instruction.nextInList;
+      }
+    } else {
+      instruction = last;
+      for (int i = size - 1; i > index; i--) {
+        instruction = instruction.previousInList;
+      }
+    }
+    return instruction;
+  }
+
+  // Inserts the instruction before the successor, or at the end if the successor is null.
+  private void linkBefore(Instruction instruction, Instruction successor) {
+    assert instruction.previousInList == null && instruction.nextInList == null;
+    assert instruction != first;
+    Instruction predecessor = successor == null ? last : successor.previousInList;
+    instruction.previousInList = predecessor;
+    instruction.nextInList = successor;
+    if (predecessor == null) {
+      first = instruction;
+    } else {
+      predecessor.nextInList = instruction;
+    }
+    if (successor == null) {
+      last = instruction;
+    } else {
+      successor.previousInList = instruction;
+    }
+    size++;
+    modCount++;
+  }
+
+  private Instruction unlink(Instruction instruction) {
+    Instruction predecessor = instruction.previousInList;
+    Instruction successor = instruction.nextInList;
+    if (predecessor == null) {
+      first = successor;
+    } else {
+      predecessor.nextInList = successor;
+    }
+    if (successor == null) {
+      last = predecessor;
+    } else {
+      successor.previousInList = predecessor;
+    }
+    instruction.previousInList = null;
+    instruction.nextInList = null;
+    size--;
+    modCount++;
+    return instruction;
+  }
+
+  private class LinkedInstructionIterator implements ListIterator<Instruction> {
+
+    private Instruction next;
+    private Instruction lastReturned = null;
+    private int nextIndex;
+    private int expectedModCount = modCount;
+
+    LinkedInstructionIterator(int index) {
+      next = index == size ? null : instructionAt(index);
+      nextIndex = index;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextIndex < size;
+    }
+
+    @Override
+    public Instruction next() {
+      checkForComodification();
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      lastReturned = next;
+      next = next.nextInList;
+      nextIndex++;
+      return lastReturned;
+    }
+
+    @Override
+    public boolean hasPrevious() {
+      return nextIndex > 0;
+    }
+
+    @Override
+    public Instruction previous() {
+      checkForComodification();
+      if (!hasPrevious()) {
+        throw new NoSuchElementException();
+      }
+      next = next == null ? last : next.previousInList;
+      lastReturned = next;
+      nextIndex--;
+      return lastReturned;
+    }
+
+    @Override
+    public int nextIndex() {
+      return nextIndex;
+    }
+
+    @Override
+    public int previousIndex() {
+      return nextIndex - 1;
+    }
+
+    @Override
+    public void remove() {
+      checkForComodification();
+      if (lastReturned == null) {
+        throw new IllegalStateException();
+      }
+      if (next == lastReturned) {
+        next = lastReturned.nextInList;
+      } else {
+        nextIndex--;
+      }
+      unlink(lastReturned);
+      lastReturned = null;
+      expectedModCount = modCount;
+    }
+
+    @Override
+    public void set(Instruction instruction) {
+      checkForComodification();
+      if (lastReturned == null) {
+        throw new IllegalStateException();
+      }
+      Instruction successor = lastReturned.nextInList;
+      unlink(lastReturned);
+      linkBefore(instruction, successor);
+      if (next == lastReturned) {
+        next = instruction;
+      }
+      lastReturned = instruction;
+      expectedModCount = modCount;
+    }
+
+    @Override
+    public void add(Instruction instruction) {
+      checkForComodification();
+      lastReturned = null;
+      linkBefore(instruction, next);
+      nextIndex++;
+      expectedModCount = modCount;
+    }
+
+    private void checkForComodification() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+    }
+  }
+}
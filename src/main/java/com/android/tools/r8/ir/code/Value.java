@@ -39,9 +39,9 @@ import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import it.unimi.dsi.fastutil.ints.IntList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -160,13 +160,21 @@ public class Value implements Comparable<Value> {
 
   public static final int UNDEFINED_NUMBER = -1;
 
+  private static final Instruction[] NO_USERS = new Instruction[0];
+  private static final Phi[] NO_PHI_USERS = new Phi[0];
+
   public static final Value UNDEFINED = new Value(UNDEFINED_NUMBER, TypeElement.getBottom(), null);
 
   protected final int number;
   public Instruction definition = null;
-  private LinkedList<Instruction> users = new LinkedList<>();
+  // The users are stored in arrays that are only grown when needed, as opposed to a list with a
+  // node per user. A user occurs once for each use of the value. The arrays are null when the
+  // users info has been cleared.
+  private Instruction[] users = NO_USERS;
+  private int numberOfUserEntries = 0;
   private Set<Instruction> uniqueUsers = null;
-  private LinkedList<Phi> phiUsers = new LinkedList<>();
+  private Phi[] phiUsers = NO_PHI_USERS;
+  private int numberOfPhiUserEntries = 0;
   private Set<Phi> uniquePhiUsers = null;
   private Value nextConsecutive = null;
   private Value previousConsecutive = null;
@@ -343,7 +351,7 @@ public class Value implements Comparable<Value> {
     if (uniqueUsers != null) {
       return uniqueUsers;
     }
-    return uniqueUsers = ImmutableSet.copyOf(users);
+    return uniqueUsers = copyOfUsers(users, numberOfUserEntries);
   }
 
   public boolean hasSingleUniqueUser() {
@@ -351,8 +359,8 @@ public class Value implements Comparable<Value> {
   }
 
   public Instruction singleUniqueUser() {
-    assert ImmutableSet.copyOf(users).size() == 1;
-    return users.getFirst();
+    assert copyOfUsers(users, numberOfUserEntries).size() == 1;
+    return users[0];
   }
 
   public Set<Instruction> aliasedUsers() {
@@ -384,15 +392,15 @@ public class Value implements Comparable<Value> {
   }
 
   public Phi firstPhiUser() {
-    assert !phiUsers.isEmpty();
-    return phiUsers.getFirst();
+    assert numberOfPhiUserEntries > 0;
+    return phiUsers[0];
   }
 
   public Set<Phi> uniquePhiUsers() {
     if (uniquePhiUsers != null) {
       return uniquePhiUsers;
     }
-    return uniquePhiUsers = ImmutableSet.copyOf(phiUsers);
+    return uniquePhiUsers = copyOfUsers(phiUsers, numberOfPhiUserEntries);
   }
 
   public Set<Instruction> debugUsers() {
@@ -412,11 +420,11 @@ public class Value implements Comparable<Value> {
   }
 
   public boolean hasPhiUsers() {
-    return !phiUsers.isEmpty();
+    return numberOfPhiUserEntries > 0;
   }
 
   public boolean hasUsers() {
-    return !users.isEmpty();
+    return numberOfUserEntries > 0;
   }
 
   public boolean hasUserThatMatches(Predicate<Instruction> predicate) {
@@ -429,7 +437,7 @@ public class Value implements Comparable<Value> {
   }
 
   public int numberOfUsers() {
-    int size = users.size();
+    int size = numberOfUserEntries;
     if (size <= 1) {
       return size;
     }
@@ -437,7 +445,7 @@ public class Value implements Comparable<Value> {
   }
 
   public int numberOfPhiUsers() {
-    int size = phiUsers.size();
+    int size = numberOfPhiUserEntries;
     if (size <= 1) {
       return size;
     }
@@ -457,7 +465,7 @@ public class Value implements Comparable<Value> {
   }
 
   public boolean isUsed() {
-    return !users.isEmpty() || !phiUsers.isEmpty() || numberOfDebugUsers() > 0;
+    return numberOfUserEntries > 0 || numberOfPhiUserEntries > 0 || numberOfDebugUsers() > 0;
   }
 
   public boolean isAlwaysNull(AppView<?> appView) {
@@ -484,22 +492,26 @@ public class Value implements Comparable<Value> {
   }
 
   public void addUser(Instruction user) {
-    users.add(user);
+    if (numberOfUserEntries == users.length) {
+      users = Arrays.copyOf(users, grow(numberOfUserEntries));
+    }
+    users[numberOfUserEntries++] = user;
     uniqueUsers = null;
   }
 
   public void removeUser(Instruction user) {
-    users.remove(user);
+    numberOfUserEntries = removeUser(users, numberOfUserEntries, user, false);
     uniqueUsers = null;
   }
 
   private void fullyRemoveUser(Instruction user) {
-    users.removeIf(u -> u == user);
+    numberOfUserEntries = removeUser(users, numberOfUserEntries, user, true);
     uniqueUsers = null;
   }
 
   public void clearUsers() {
-    users.clear();
+    Arrays.fill(users, 0, numberOfUserEntries, null);
+    numberOfUserEntries = 0;
     uniqueUsers = null;
     clearPhiUsers();
     if (debugData != null) {
@@ -508,25 +520,64 @@ public class Value implements Comparable<Value> {
   }
 
   public void clearPhiUsers() {
-    phiUsers.clear();
+    Arrays.fill(phiUsers, 0, numberOfPhiUserEntries, null);
+    numberOfPhiUserEntries = 0;
     uniquePhiUsers = null;
   }
 
   public void addPhiUser(Phi user) {
-    phiUsers.add(user);
+    if (numberOfPhiUserEntries == phiUsers.length) {
+      phiUsers = Arrays.copyOf(phiUsers, grow(numberOfPhiUserEntries));
+    }
+    phiUsers[numberOfPhiUserEntries++] = user;
     uniquePhiUsers = null;
   }
 
   public void removePhiUser(Phi user) {
-    phiUsers.remove(user);
+    numberOfPhiUserEntries = removeUser(phiUsers, numberOfPhiUserEntries, user, false);
     uniquePhiUsers = null;
   }
 
   private void fullyRemovePhiUser(Phi user) {
-    phiUsers.removeIf(u -> u == user);
+    numberOfPhiUserEntries = removeUser(phiUsers, numberOfPhiUserEntries, user, true);
     uniquePhiUsers = null;
   }
 
+  private static int grow(int size) {
+    return size == 0 ? 1 : size * 2;
+  }
+
+  // Removes the first or all occurrences of the user while maintaining the order of the remaining
+  // users, and returns the new number of entries.
+  private static int removeUser(Object[] users, int size, Object user, boolean all) {
+    int newSize = 0;
+    for (int i = 0; i < size; i++) {
+      Object current = users[i];
+      if (current == user) {
+        if (!all) {
+          System.arraycopy(users, i + 1, users, i, size - i - 1);
+          users[size - 1] = null;
+          return size - 1;
+        }
+      } else {
+        users[newSize++] = current;
+      }
+    }
+    Arrays.fill(users, newSize, size, null);
+    return newSize;
+  }
+
+  private static <T> Set<T> copyOfUsers(T[] users, int size) {
+    switch (size) {
+      case 0:
+        return ImmutableSet.of();
+      case 1:
+        return ImmutableSet.of(users[0]);
+      default:
+        return ImmutableSet.copyOf(Arrays.asList(users).subList(0, size));
+    }
+  }
+
   public boolean isUninitializedLocal() {
     return definition != null && definition.isDebugLocalUninitialized();
   }
@@ -549,8 +600,10 @@ public class Value implements Comparable<Value> {
 
   public void clearUsersInfo() {
     users = null;
+    numberOfUserEntries = 0;
     uniqueUsers = null;
     phiUsers = null;
+    numberOfPhiUserEntries = 0;
     uniquePhiUsers = null;
     if (debugData != null) {
       debugData.users = null;
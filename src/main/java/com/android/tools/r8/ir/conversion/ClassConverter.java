@@ -4,6 +4,7 @@
 
 package com.android.tools.r8.ir.conversion;
 
+import com.android.tools.r8.dex.ClassDexingCache;
 import com.android.tools.r8.graph.AppView;
 import com.android.tools.r8.graph.DexEncodedMethod;
 import com.android.tools.r8.graph.DexProgramClass;
@@ -116,6 +117,13 @@ public abstract class ClassConverter {
 
   void convertMethods(
       DexProgramClass clazz, D8CfInstructionDesugaringEventConsumer desugaringEventConsumer) {
+    ClassDexingCache classDexingCache = appView.options().classDexingCache;
+    if (classDexingCache != null
+        && converter.canUseClassDexingCache(clazz)
+        && classDexingCache.loadConvertedCode(clazz, appView)) {
+      converter.convertMethodsWithCachedCode(clazz);
+      return;
+    }
     converter.convertMethods(clazz, desugaringEventConsumer, methodProcessor);
   }
 
@@ -8,6 +8,7 @@ import static com.android.tools.r8.ir.desugar.InterfaceMethodRewriter.Flavor.Inc
 import static com.android.tools.r8.ir.desugar.lambda.D8LambdaDesugaring.rewriteEnclosingLambdaMethodAttributes;
 
 import com.android.tools.r8.contexts.CompilationContext.MethodProcessingContext;
+import com.android.tools.r8.dex.ClassDexingCache;
 import com.android.tools.r8.errors.CompilationError;
 import com.android.tools.r8.errors.Unreachable;
 import com.android.tools.r8.graph.AppInfo;
@@ -120,7 +121,7 @@ import java.util.stream.Collectors;
 
 public class IRConverter {
 
-  private static final int PEEPHOLE_OPTIMIZATION_PASSES = 2;
+  static final int PEEPHOLE_OPTIMIZATION_PASSES = 2;
 
   public final AppView<?> appView;
 
@@ -419,6 +420,14 @@ public class IRConverter {
         executor, OptimizationFeedbackIgnore.getInstance());
     DexApplication application = appView.appInfo().app();
     timing.begin("IR conversion");
+    if (timing.isTelemetryEnabled()) {
+      timing.count("classes", application.classes().size());
+      long methods = 0;
+      for (DexProgramClass clazz : application.classes()) {
+        methods += clazz.getMethodCollection().size();
+      }
+      timing.count("methods", methods);
+    }
 
     convertClasses(executor);
 
@@ -523,6 +532,32 @@ public class IRConverter {
     }
   }
 
+  /**
+   * Performs the per-class and per-method steps of {@link #convertMethods} for a class whose DEX
+   * code has been taken from the {@link ClassDexingCache}, without building IR for its methods.
+   */
+  void convertMethodsWithCachedCode(DexProgramClass clazz) {
+    boolean isReachabilitySensitive = clazz.hasReachabilitySensitiveAnnotation(options.itemFactory);
+    clazz.forEachProgramMethod(
+        method -> {
+          DexEncodedMethod definition = method.getDefinition();
+          definition.getMutableOptimizationInfo().setReachabilitySensitive(isReachabilitySensitive);
+          if (definition.hasClassFileVersion()) {
+            definition.downgradeClassFileVersion(
+                options.classFileVersionAfterDesugaring(definition.getClassFileVersion()));
+          }
+          if (definition.getCode() == null) {
+            return;
+          }
+          checkPrefixMerging(method);
+          updateHighestSortingStrings(definition);
+        });
+    if (clazz.hasClassFileVersion()) {
+      clazz.downgradeInitialClassFileVersion(
+          appView.options().classFileVersionAfterDesugaring(clazz.getInitialClassFileVersion()));
+    }
+  }
+
   void convertMethod(
       ProgramMethod method,
       CfInstructionDesugaringEventConsumer desugaringEventConsumer,
@@ -547,11 +582,12 @@ public class IRConverter {
         || !(options.passthroughDexCode && definition.getCode().isDexCode())) {
       // We do not process in call graph order, so anything could be a leaf.
       rewriteCode(
-          method,
-          desugaringEventConsumer,
-          simpleOptimizationFeedback,
-          methodProcessor,
-          methodProcessingContext);
+              method,
+              desugaringEventConsumer,
+              simpleOptimizationFeedback,
+              methodProcessor,
+              methodProcessingContext)
+          .end();
     } else {
       assert definition.getCode().isDexCode();
     }
@@ -570,6 +606,10 @@ public class IRConverter {
     if (!options.cfToCfDesugar) {
       return true;
     }
+    return needsDesugaring(method);
+  }
+
+  private boolean needsDesugaring(ProgramMethod method) {
     if (instructionDesugaring.needsDesugaring(method)) {
       return true;
     }
@@ -589,6 +629,26 @@ public class IRConverter {
     return useRegistry.needsDesugaring();
   }
 
+  /**
+   * Returns true if the D8 conversion of the methods of the given class only depends on the class
+   * itself, such that the result can be taken from the {@link ClassDexingCache}.
+   */
+  boolean canUseClassDexingCache(DexProgramClass clazz) {
+    if (!clazz.originatesFromClassResource()
+        || clazz.isInterface()
+        || clazz.isInANest()
+        || classDesugaring.needsDesugaring(clazz)) {
+      return false;
+    }
+    for (ProgramMethod method : clazz.programMethods()) {
+      DexEncodedMethod definition = method.getDefinition();
+      if (definition.hasCode() && definition.getCode().isCfCode() && needsDesugaring(method)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private void checkPrefixMerging(ProgramMethod method) {
     if (!appView.options().enableNeverMergePrefixes) {
       return;
@@ -1158,6 +1218,9 @@ public class IRConverter {
     assert holder != null;
 
     Timing timing = Timing.create(method.qualifiedName(), options);
+    if (timing.isTelemetryEnabled()) {
+      timing.count("instructions", code.streamInstructions().count());
+    }
 
     if (Log.ENABLED) {
       Log.debug(getClass(), "Initial (SSA) flow graph for %s:\n%s", method.toSourceString(), code);
@@ -17,9 +17,14 @@ import com.android.tools.r8.utils.Timing;
 import com.android.tools.r8.utils.Timing.TimingMerger;
 import com.android.tools.r8.utils.collections.ProgramMethodSet;
 import com.android.tools.r8.utils.collections.SortedProgramMethodSet;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Deque;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -133,7 +138,7 @@ class PrimaryMethodProcessor extends MethodProcessorWithWave {
         waveStartAction.notifyWaveStart(wave);
         Collection<Timing> timings =
             ThreadUtils.processItemsWithResults(
-                wave,
+                getMethodsInProcessingOrder(wave),
                 method -> {
                   Timing time =
                       consumer.apply(
@@ -149,4 +154,28 @@ class PrimaryMethodProcessor extends MethodProcessorWithWave {
     }
     merger.end();
   }
+
+  /**
+   * Returns the methods of the wave with the largest methods first.
+   *
+   * <p>The methods of a wave are processed concurrently, and the next wave cannot start before all
+   * methods of the current wave have been processed. Starting the largest methods first reduces the
+   * risk that a few large methods are processed alone at the end of the wave. The order does not
+   * affect the result, since the methods of a wave are processed concurrently in any case.
+   */
+  private static List<ProgramMethod> getMethodsInProcessingOrder(SortedProgramMethodSet wave) {
+    List<ProgramMethod> methods = new ArrayList<>(wave.size());
+    Reference2IntMap<ProgramMethod> sizes = new Reference2IntOpenHashMap<>(wave.size());
+    for (ProgramMethod method : wave) {
+      methods.add(method);
+      sizes.put(
+          method,
+          method.getDefinition().hasCode()
+              ? method.getDefinition().getCode().estimatedSizeForInlining()
+              : 0);
+    }
+    // The sort is stable, so methods of the same size remain in the order of the wave.
+    methods.sort(Comparator.comparingInt(method -> -sizes.getInt(method)));
+    return methods;
+  }
 }
@@ -57,19 +57,24 @@ public class PeepholeHelper {
   public static void moveInstructionsUpToCurrentPosition(
       InstructionListIterator it, List<Instruction> instructions) {
     assert !instructions.isEmpty();
+    // An instruction can only be in one instruction list, so the instructions are removed from
+    // their current position before they are inserted before the instruction following the cursor.
+    Instruction next = it.peekNext();
+    assert next != instructions.get(0);
+    Instruction current = it.nextUntil(i -> i == instructions.get(0));
+    for (int i = 0; i < instructions.size(); i++) {
+      if (i > 0) {
+        current = it.next();
+      }
+      assert current == instructions.get(i);
+      it.removeOrReplaceByDebugLocalRead();
+    }
+    it.previousUntil(i -> i == next);
     for (Instruction instruction : instructions) {
       for (Value inValue : instruction.inValues()) {
         inValue.addUser(instruction);
       }
       it.add(instruction);
     }
-    Instruction current = it.nextUntil(i -> i == instructions.get(0));
-    for (int i = 0; i < instructions.size(); i++) {
-      assert current == instructions.get(i);
-      it.removeOrReplaceByDebugLocalRead();
-      current = it.next();
-    }
-    it.previousUntil(i -> i == instructions.get(instructions.size() - 1));
-    it.next();
   }
 }
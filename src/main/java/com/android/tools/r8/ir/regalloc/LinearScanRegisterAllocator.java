@@ -56,6 +56,7 @@ import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.objects.Reference2IntArrayMap;
 import it.unimi.dsi.fastutil.objects.Reference2IntMap;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -66,7 +67,6 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 
@@ -142,16 +142,16 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
   // The current register allocation mode.
   private ArgumentReuseMode mode = ArgumentReuseMode.ALLOW_ARGUMENT_REUSE_U4BIT;
   // The set of registers that are free for allocation.
-  private TreeSet<Integer> freeRegisters = new TreeSet<>();
+  private BitSet freeRegisters = new BitSet();
   // The max register number used.
   private int maxRegisterNumber = -1;
 
   // List of all top-level live intervals for all SSA values.
   private List<LiveIntervals> liveIntervals = new ArrayList<>();
   // List of active intervals.
-  private List<LiveIntervals> active = new LinkedList<>();
+  private List<LiveIntervals> active = new ArrayList<>();
   // List of intervals where the current instruction falls into one of their live range holes.
-  protected List<LiveIntervals> inactive = new LinkedList<>();
+  protected List<LiveIntervals> inactive = new ArrayList<>();
   // List of intervals that no register has been allocated to sorted by first live range.
   protected PriorityQueue<LiveIntervals> unhandled = new PriorityQueue<>();
 
@@ -931,12 +931,12 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
       }
 
       int start = unhandledInterval.getStart();
-      // Check for active intervals that expired or became inactive.
-      Iterator<LiveIntervals> activeIterator = active.iterator();
-      while (activeIterator.hasNext()) {
-        LiveIntervals activeIntervals = activeIterator.next();
+      // Check for active intervals that expired or became inactive. The remaining intervals are
+      // compacted in place to avoid shifting the list for each removal.
+      int remainingActive = 0;
+      for (int i = 0; i < active.size(); i++) {
+        LiveIntervals activeIntervals = active.get(i);
         if (start >= activeIntervals.getEnd()) {
-          activeIterator.remove();
           freeOccupiedRegistersForIntervals(activeIntervals);
           if (start == activeIntervals.getEnd()) {
             expiredHere.add(activeIntervals.getRegister());
@@ -945,19 +945,20 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
             }
           }
         } else if (!activeIntervals.overlapsPosition(start)) {
-          activeIterator.remove();
           assert activeIntervals.getRegister() != NO_REGISTER;
           inactive.add(activeIntervals);
           freeOccupiedRegistersForIntervals(activeIntervals);
+        } else {
+          active.set(remainingActive++, activeIntervals);
         }
       }
+      truncate(active, remainingActive);
 
       // Check for inactive intervals that expired or became reactivated.
-      Iterator<LiveIntervals> inactiveIterator = inactive.iterator();
-      while (inactiveIterator.hasNext()) {
-        LiveIntervals inactiveIntervals = inactiveIterator.next();
+      int remainingInactive = 0;
+      for (int i = 0; i < inactive.size(); i++) {
+        LiveIntervals inactiveIntervals = inactive.get(i);
         if (start >= inactiveIntervals.getEnd()) {
-          inactiveIterator.remove();
           if (start == inactiveIntervals.getEnd()) {
             expiredHere.add(inactiveIntervals.getRegister());
             if (inactiveIntervals.getType().isWide()) {
@@ -965,12 +966,14 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
             }
           }
         } else if (inactiveIntervals.overlapsPosition(start)) {
-          inactiveIterator.remove();
           assert inactiveIntervals.getRegister() != NO_REGISTER;
           active.add(inactiveIntervals);
           takeFreeRegistersForIntervals(inactiveIntervals);
+        } else {
+          inactive.set(remainingInactive++, inactiveIntervals);
         }
       }
+      truncate(inactive, remainingInactive);
 
       // Perform the actual allocation.
       if (unhandledInterval.isLinked() && !unhandledInterval.isArgumentInterval()) {
@@ -984,17 +987,21 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
     return true;
   }
 
-  private boolean invariantsHold(ArgumentReuseMode mode) {
-    TreeSet<Integer> computedFreeRegisters = new TreeSet<>();
-    for (int register = 0; register <= maxRegisterNumber; ++register) {
-      computedFreeRegisters.add(register);
+  private static void truncate(List<LiveIntervals> intervals, int size) {
+    if (size < intervals.size()) {
+      intervals.subList(size, intervals.size()).clear();
     }
+  }
+
+  private boolean invariantsHold(ArgumentReuseMode mode) {
+    BitSet computedFreeRegisters = new BitSet();
+    computedFreeRegisters.set(0, maxRegisterNumber + 1);
     for (LiveIntervals activeIntervals : active) {
       assert registersForIntervalsAreTaken(activeIntervals);
       activeIntervals.forEachRegister(
           register -> {
-            assert computedFreeRegisters.contains(register);
-            computedFreeRegisters.remove(register);
+            assert computedFreeRegisters.get(register);
+            computedFreeRegisters.clear(register);
           });
     }
     if (mode == ArgumentReuseMode.ALLOW_ARGUMENT_REUSE_U8BIT
@@ -1010,8 +1017,8 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
                 .getSplitParent()
                 .forEachRegister(
                     register -> {
-                      assert computedFreeRegisters.contains(register);
-                      computedFreeRegisters.remove(register);
+                      assert computedFreeRegisters.get(register);
+                      computedFreeRegisters.clear(register);
                     });
           }
         }
@@ -1020,8 +1027,8 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
     if (hasDedicatedMoveExceptionRegister()) {
       // Relax the check, since it is not currently guaranteed that the move exception register is
       // occupied if-and-only-if there is an active live interval with the register.
-      freeRegisters.remove(getMoveExceptionRegister());
-      computedFreeRegisters.remove(getMoveExceptionRegister());
+      freeRegisters.clear(getMoveExceptionRegister());
+      computedFreeRegisters.clear(getMoveExceptionRegister());
     }
     assert freeRegisters.equals(computedFreeRegisters);
     return true;
@@ -1037,7 +1044,7 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
         boolean isMoveExceptionRegister =
             hasDedicatedMoveExceptionRegister() && register == getMoveExceptionRegister();
         if (!isMoveExceptionRegister) {
-          assert freeRegisters.contains(register);
+          assert freeRegisters.get(register);
         }
       }
     }
@@ -1114,9 +1121,9 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
         LiveIntervals destIntervals = dest.getLiveIntervals();
         if (destIntervals.getRegister() == NO_REGISTER) {
           // Save the current register allocation state so we can restore it at the end.
-          TreeSet<Integer> savedFreeRegisters = new TreeSet<>(freeRegisters);
+          BitSet savedFreeRegisters = (BitSet) freeRegisters.clone();
           int savedMaxRegisterNumber = maxRegisterNumber;
-          List<LiveIntervals> savedInactive = new LinkedList<>(inactive);
+          List<LiveIntervals> savedInactive = new ArrayList<>(inactive);
 
           // Add all the active intervals to the inactive set. When allocating linked intervals we
           // check all inactive intervals and exclude the registers for overlapping inactive
@@ -1156,9 +1163,7 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
           // Restore the register allocation state.
           freeRegisters = savedFreeRegisters;
           // In case maxRegisterNumber has changed, update freeRegisters.
-          for (int i = savedMaxRegisterNumber + 1; i <= maxRegisterNumber; i++) {
-            freeRegisters.add(i);
-          }
+          freeRegisters.set(savedMaxRegisterNumber + 1, maxRegisterNumber + 1);
 
           inactive = savedInactive;
           // Move all the argument intervals to the inactive set.
@@ -1203,7 +1208,7 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
     // Exclude move exception register if the first interval overlaps a move exception interval.
     // It is not necessary to check the remaining consecutive intervals, since we always use
     // register 0 (after remapping) for the argument register.
-    if (overlapsMoveExceptionInterval(start) && freeRegisters.remove(getMoveExceptionRegister())) {
+    if (overlapsMoveExceptionInterval(start) && takeFreeRegister(getMoveExceptionRegister())) {
       excludedRegisters.add(getMoveExceptionRegister());
     }
     // Select registers.
@@ -1233,7 +1238,9 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
     takeFreeRegistersForIntervals(unhandledInterval);
     active.add(unhandledInterval);
     // Include the registers for inactive ranges that we had to exclude for this allocation.
-    freeRegisters.addAll(excludedRegisters);
+    for (IntIterator iterator = excludedRegisters.iterator(); iterator.hasNext(); ) {
+      freeRegisters.set(iterator.nextInt());
+    }
   }
 
   // Returns true if intervals has an unhandled split, which overlaps with chain or any of its
@@ -1275,11 +1282,15 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
       return intervals.getSplitParent().getRegister();
     }
 
-    TreeSet<Integer> previousFreeRegisters = new TreeSet<>(freeRegisters);
+    BitSet previousFreeRegisters = (BitSet) freeRegisters.clone();
     int previousMaxRegisterNumber = maxRegisterNumber;
-    freeRegisters.removeAll(expiredHere);
+    for (int i = 0; i < expiredHere.size(); i++) {
+      freeRegisters.clear(expiredHere.getInt(i));
+    }
     if (excludedRegisters != null) {
-      freeRegisters.removeAll(excludedRegisters);
+      for (int i = 0; i < excludedRegisters.size(); i++) {
+        freeRegisters.clear(excludedRegisters.getInt(i));
+      }
     }
 
     // Check if we can use a register that was previously used as a register for intervals.
@@ -1311,9 +1322,7 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
     freeRegisters = previousFreeRegisters;
     // If getFreeConsecutiveRegisters had to increment |maxRegisterNumber|, we need to update
     // freeRegisters.
-    for (int i = previousMaxRegisterNumber + 1; i <= maxRegisterNumber; ++i) {
-      freeRegisters.add(i);
-    }
+    freeRegisters.set(previousMaxRegisterNumber + 1, maxRegisterNumber + 1);
     assert registersAreFree(register, intervals.getType().isWide());
     return register;
   }
@@ -1340,14 +1349,14 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
       do {
         if (argumentLiveIntervals.anySplitOverlaps(intervals)) {
           // Remove so that next invocation of getFreeConsecutiveRegisters does not consider this.
-          freeRegisters.remove(register);
+          freeRegisters.clear(register);
           // We have just established that there is an overlap between the live range of the
           // current argument and the live range we need to find a register for. Therefore, if
           // the argument is wide, and the current register corresponds to the low register of the
           // argument, we know that the subsequent register will not work either.
           if (register == argumentLiveIntervals.getRegister()
               && argumentLiveIntervals.getType().isWide()) {
-            freeRegisters.remove(register + 1);
+            freeRegisters.clear(register + 1);
           }
           return false;
         }
@@ -1368,10 +1377,10 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
     }
     if (overlapsInactiveIntervals != null) {
       // Remove so that next invocation of getFreeConsecutiveRegisters does not consider this.
-      freeRegisters.remove(register);
+      freeRegisters.clear(register);
       if (register == overlapsInactiveIntervals.getRegister()
           && overlapsInactiveIntervals.getType().isWide()) {
-        freeRegisters.remove(register + 1);
+        freeRegisters.clear(register + 1);
       }
       return false;
     }
@@ -1384,7 +1393,7 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
             && overlapsMoveExceptionInterval(intervals);
     if (overlapsMoveExceptionInterval) {
       // Remove so that next invocation of getFreeConsecutiveRegisters does not consider this.
-      freeRegisters.remove(register);
+      freeRegisters.clear(register);
       return false;
     }
 
@@ -2967,9 +2976,7 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
 
   private void increaseCapacity(int newMaxRegisterNumber, boolean takeRegisters) {
     if (!takeRegisters) {
-      for (int register = maxRegisterNumber + 1; register <= newMaxRegisterNumber; ++register) {
-        freeRegisters.add(register);
-      }
+      freeRegisters.set(maxRegisterNumber + 1, newMaxRegisterNumber + 1);
     }
     maxRegisterNumber = newMaxRegisterNumber;
   }
@@ -2980,33 +2987,14 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
 
   private int getFreeConsecutiveRegisters(int numberOfRegisters, boolean prioritizeSmallRegisters) {
     int oldMaxRegisterNumber = maxRegisterNumber;
-    TreeSet<Integer> freeRegistersWithDesiredOrdering = this.freeRegisters;
-    if (prioritizeSmallRegisters) {
-      freeRegistersWithDesiredOrdering =
-          new TreeSet<>(
-              (Integer x, Integer y) -> {
-                boolean xIsArgument = x < numberOfArgumentRegisters;
-                boolean yIsArgument = y < numberOfArgumentRegisters;
-                // If x is an argument and y is not, then prioritize y.
-                if (xIsArgument && !yIsArgument) {
-                  return 1;
-                }
-                // If x is not an argument and y is, then prioritize x.
-                if (!xIsArgument && yIsArgument) {
-                  return -1;
-                }
-                // Otherwise use their normal ordering.
-                return x - y;
-              });
-      freeRegistersWithDesiredOrdering.addAll(this.freeRegisters);
-    }
-
-    Iterator<Integer> freeRegistersIterator = freeRegistersWithDesiredOrdering.iterator();
-    int first = getNextFreeRegister(freeRegistersIterator);
+    // If small registers are prioritized, then the argument registers are considered last.
+    FreeRegistersIterator freeRegistersIterator =
+        new FreeRegistersIterator(prioritizeSmallRegisters);
+    int first = freeRegistersIterator.nextInt();
     int current = first;
     while (current - first + 1 != numberOfRegisters) {
       for (int i = 0; i < numberOfRegisters - 1; i++) {
-        int next = getNextFreeRegister(freeRegistersIterator);
+        int next = freeRegistersIterator.nextInt();
         // We cannot allow that some are argument registers and some or not, because they will no
         // longer be consecutive if we later decide to increment maxRegisterNumber.
         if (next != current + 1 || next == numberOfArgumentRegisters) {
@@ -3017,10 +3005,8 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
         current++;
       }
     }
-    for (int register = oldMaxRegisterNumber + 1; register <= maxRegisterNumber; ++register) {
-      boolean wasAdded = freeRegisters.add(register);
-      assert wasAdded;
-    }
+    assert freeRegisters.nextSetBit(oldMaxRegisterNumber + 1) < 0;
+    freeRegisters.set(oldMaxRegisterNumber + 1, maxRegisterNumber + 1);
     // Either all the consecutive registers are from the argument registers, or all are from the
     // non-argument registers.
     assert (first < numberOfArgumentRegisters
@@ -3031,11 +3017,11 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
   }
 
   private boolean registersAreFreeAndConsecutive(int register, boolean registerIsWide) {
-    if (!freeRegisters.contains(register)) {
+    if (!freeRegisters.get(register)) {
       return false;
     }
     if (registerIsWide) {
-      if (!freeRegisters.contains(register + 1)) {
+      if (!freeRegisters.get(register + 1)) {
         return false;
       }
       if (register == numberOfArgumentRegisters - 1) {
@@ -3046,11 +3032,41 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
     return true;
   }
 
-  private int getNextFreeRegister(Iterator<Integer> freeRegistersIterator) {
-    if (freeRegistersIterator.hasNext()) {
-      return freeRegistersIterator.next();
+  // Iterates the free registers in ascending order, optionally with the argument registers after
+  // the other registers. When there are no more free registers, the iterator continues with new
+  // registers above maxRegisterNumber.
+  private class FreeRegistersIterator {
+
+    private final boolean argumentRegistersLast;
+    private boolean visitingArgumentRegisters;
+    private int next;
+
+    FreeRegistersIterator(boolean argumentRegistersLast) {
+      this.argumentRegistersLast = argumentRegistersLast;
+      this.visitingArgumentRegisters = !argumentRegistersLast;
+      this.next = freeRegisters.nextSetBit(argumentRegistersLast ? numberOfArgumentRegisters : 0);
+    }
+
+    int nextInt() {
+      if (next < 0 && !visitingArgumentRegisters) {
+        visitingArgumentRegisters = true;
+        next = nextFreeArgumentRegister(0);
+      }
+      if (next < 0) {
+        return ++maxRegisterNumber;
+      }
+      int register = next;
+      next =
+          argumentRegistersLast && visitingArgumentRegisters
+              ? nextFreeArgumentRegister(register + 1)
+              : freeRegisters.nextSetBit(register + 1);
+      return register;
+    }
+
+    private int nextFreeArgumentRegister(int fromRegister) {
+      int register = freeRegisters.nextSetBit(fromRegister);
+      return register < numberOfArgumentRegisters ? register : -1;
     }
-    return ++maxRegisterNumber;
   }
 
   private void excludeRegistersForInterval(LiveIntervals intervals, IntSet excluded) {
@@ -3058,7 +3074,7 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
     assert register != NO_REGISTER;
 
     for (int i = 0; i < intervals.requiredRegisters(); i++) {
-      if (freeRegisters.remove(register + i)) {
+      if (takeFreeRegister(register + i)) {
         excluded.add(register + i);
       }
     }
@@ -3075,9 +3091,9 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
     assert registersForIntervalsAreTaken(intervals);
     int register = intervals.getRegister();
     assert register + intervals.requiredRegisters() - 1 <= maxRegisterNumber;
-    freeRegisters.add(register);
+    freeRegisters.set(register);
     if (intervals.getType().isWide()) {
-      freeRegisters.add(register + 1);
+      freeRegisters.set(register + 1);
     }
 
     if (intervals.isArgumentInterval() && intervals != intervals.getSplitParent()) {
@@ -3090,12 +3106,21 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
 
   private void takeFreeRegisters(int register, boolean isWide) {
     assert registersAreFree(register, isWide);
-    freeRegisters.remove(register);
+    freeRegisters.clear(register);
     if (isWide) {
-      freeRegisters.remove(register + 1);
+      freeRegisters.clear(register + 1);
     }
   }
 
+  // Removes the register from the set of free registers and returns true if it was free.
+  private boolean takeFreeRegister(int register) {
+    if (freeRegisters.get(register)) {
+      freeRegisters.clear(register);
+      return true;
+    }
+    return false;
+  }
+
   private void takeFreeRegistersForIntervals(LiveIntervals intervals) {
     takeFreeRegisters(intervals.getRegister(), intervals.getType().isWide());
 
@@ -3108,7 +3133,7 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
   }
 
   private boolean registerIsFree(int register) {
-    return freeRegisters.contains(register)
+    return freeRegisters.get(register)
         || (hasDedicatedMoveExceptionRegister() && register == getMoveExceptionRegister());
   }
 
@@ -3119,7 +3144,7 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
   }
 
   private boolean registersAreTaken(int register, boolean isWide) {
-    return !freeRegisters.contains(register) && (!isWide || !freeRegisters.contains(register + 1));
+    return !freeRegisters.get(register) && (!isWide || !freeRegisters.get(register + 1));
   }
 
   private boolean registersForIntervalsAreTaken(LiveIntervals intervals) {
@@ -3128,7 +3153,7 @@ public class LinearScanRegisterAllocator implements RegisterAllocator {
   }
 
   private boolean atLeastOneOfRegistersAreTaken(int register, boolean isWide) {
-    return !freeRegisters.contains(register) || (isWide && !freeRegisters.contains(register + 1));
+    return !freeRegisters.get(register) || (isWide && !freeRegisters.get(register + 1));
   }
 
   private boolean noLinkedValues() {
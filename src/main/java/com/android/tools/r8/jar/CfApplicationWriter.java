@@ -53,6 +53,8 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.Optional;
 import java.util.SortedSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Predicate;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassReader;
@@ -110,16 +112,29 @@ public class CfApplicationWriter {
   public void write(ClassFileConsumer consumer) {
     application.timing.begin("CfApplicationWriter.write");
     try {
+      if (proguardMapSupplier != null && options.proguardMapConsumer != null) {
+        marker.setPgMapId(proguardMapSupplier.writeProguardMap().get());
+      }
       writeApplication(consumer);
     } finally {
       application.timing.end();
     }
   }
 
-  private void writeApplication(ClassFileConsumer consumer) {
-    if (proguardMapSupplier != null && options.proguardMapConsumer != null) {
-      marker.setPgMapId(proguardMapSupplier.writeProguardMap().get());
+  public void write(ClassFileConsumer consumer, ExecutorService executorService)
+      throws ExecutionException {
+    application.timing.begin("CfApplicationWriter.write");
+    try {
+      if (proguardMapSupplier != null && options.proguardMapConsumer != null) {
+        marker.setPgMapId(proguardMapSupplier.writeProguardMap(executorService).get());
+      }
+      writeApplication(consumer);
+    } finally {
+      application.timing.end();
     }
+  }
+
+  private void writeApplication(ClassFileConsumer consumer) {
     Optional<String> markerString =
         marker.isRelocator() ? Optional.empty() : Optional.of(marker.toString());
     LensCodeRewriterUtils rewriter = new LensCodeRewriterUtils(appView);
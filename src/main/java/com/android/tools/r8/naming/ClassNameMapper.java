@@ -35,7 +35,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 
-public class ClassNameMapper implements ProguardMap {
+public class ClassNameMapper implements ProguardMap, ClassNamingProvider {
 
   public enum MissingFileAction {
     MISSING_FILE_IS_EMPTY_MAP,
@@ -58,6 +58,12 @@ public class ClassNameMapper implements ProguardMap {
       return classNamingBuilder;
     }
 
+    /** Adds a class naming created with {@link ClassNamingForNameMapper#builder}. */
+    public Builder addClassNamingBuilder(ClassNamingForNameMapper.Builder classNamingBuilder) {
+      mapBuilder.put(classNamingBuilder.getRenamedName(), classNamingBuilder);
+      return this;
+    }
+
     @Override
     public ClassNameMapper build() {
       return new ClassNameMapper(mapBuilder.build());
@@ -110,7 +116,7 @@ public class ClassNameMapper implements ProguardMap {
     return mapperFromBufferedReader(reader, diagnosticsHandler, false);
   }
 
-  private static ClassNameMapper mapperFromBufferedReader(
+  public static ClassNameMapper mapperFromBufferedReader(
       BufferedReader reader, DiagnosticsHandler diagnosticsHandler, boolean allowEmptyMappedRanges)
       throws IOException {
     try (ProguardMapReader proguardReader =
@@ -202,6 +208,7 @@ public class ClassNameMapper implements ProguardMap {
     return classNameMappings.get(decoded);
   }
 
+  @Override
   public ClassNamingForNameMapper getClassNaming(String obfuscatedName) {
     return classNameMappings.get(obfuscatedName);
   }
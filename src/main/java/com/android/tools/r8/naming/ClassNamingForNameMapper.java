@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 /**
@@ -48,6 +49,10 @@ public class ClassNamingForNameMapper implements ClassNaming {
       this.renamedName = renamedName;
     }
 
+    String getRenamedName() {
+      return renamedName;
+    }
+
     @Override
     public ClassNaming.Builder addMemberEntry(MemberNaming entry) {
       if (entry.isMethodNaming()) {
@@ -230,7 +235,7 @@ public class ClassNamingForNameMapper implements ClassNaming {
     }
   }
 
-  static Builder builder(String renamedName, String originalName) {
+  public static Builder builder(String renamedName, String originalName) {
     return new Builder(renamedName, originalName);
   }
 
@@ -438,10 +443,10 @@ public class ClassNamingForNameMapper implements ClassNaming {
    */
   public static class MappedRange {
 
-    private static int nextSequenceNumber = 0;
+    private static final AtomicInteger nextSequenceNumber = new AtomicInteger();
 
-    private synchronized int getNextSequenceNumber() {
-      return nextSequenceNumber++;
+    private static int getNextSequenceNumber() {
+      return nextSequenceNumber.getAndIncrement();
     }
 
     public final Range minifiedRange; // Can be null, if so then originalRange must also be null.
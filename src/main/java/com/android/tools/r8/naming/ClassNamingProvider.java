@@ -0,0 +1,11 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.naming;
+
+/** Provides the class naming of a class in a mapping file from its obfuscated name. */
+public interface ClassNamingProvider {
+
+  /** Returns the class naming for the given obfuscated name, or null if there is none. */
+  ClassNamingForNameMapper getClassNaming(String obfuscatedName);
+}
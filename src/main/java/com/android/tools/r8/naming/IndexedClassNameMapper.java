@@ -0,0 +1,290 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.naming;
+
+import com.android.tools.r8.DiagnosticsHandler;
+import com.android.tools.r8.errors.CompilationError;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link ClassNamingProvider} backed by a binary, pre-indexed mapping file that is memory mapped.
+ *
+ * <p>The index is written from a {@link ClassNameMapper} by {@link #write} and has the layout:
+ *
+ * <pre>
+ *   int magic, int version,
+ *   int class count, int string count,
+ *   int string table offset, int class table offset, int section data offset,
+ *   string table: int[string count + 1] offsets into the string data, UTF-8 string data,
+ *   class table: (int obfuscated name, int original name, int section start, int section end)*,
+ *   section data: the UTF-8 text mapping of each class.
+ * </pre>
+ *
+ * <p>Class names are interned in the string table and the class table is sorted by the UTF-8 bytes
+ * of the obfuscated name, such that a class is found by a binary search directly on the mapped
+ * bytes. Loading an index therefore only maps the file and reads the header. The members of a
+ * class are parsed from its section by {@link ProguardMapReader} the first time the class is looked
+ * up, which keeps the format exact for all mapping information the text format supports.
+ *
+ * <p>Lookups may be performed concurrently.
+ */
+public class IndexedClassNameMapper implements ClassNamingProvider {
+
+  private static final int MAGIC = 0x52384d49; // 'R8MI'
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 7 * Integer.BYTES;
+  private static final int CLASS_ENTRY_SIZE = 4 * Integer.BYTES;
+
+  private final ByteBuffer contents;
+  private final int classCount;
+  private final int stringTableOffset;
+  private final int stringDataOffset;
+  private final int classTableOffset;
+  private final int sectionDataOffset;
+  private final DiagnosticsHandler diagnosticsHandler;
+  private final boolean allowEmptyMappedRanges;
+
+  private final ConcurrentHashMap<String, ClassNamingForNameMapper> classNamings =
+      new ConcurrentHashMap<>();
+
+  private IndexedClassNameMapper(
+      ByteBuffer contents, DiagnosticsHandler diagnosticsHandler, boolean allowEmptyMappedRanges) {
+    if (contents.limit() < HEADER_SIZE
+        || contents.getInt(0) != MAGIC
+        || contents.getInt(Integer.BYTES) != VERSION) {
+      throw new CompilationError("Invalid or unsupported mapping index");
+    }
+    this.contents = contents;
+    this.classCount = contents.getInt(2 * Integer.BYTES);
+    int stringCount = contents.getInt(3 * Integer.BYTES);
+    this.stringTableOffset = contents.getInt(4 * Integer.BYTES);
+    this.stringDataOffset = stringTableOffset + (stringCount + 1) * Integer.BYTES;
+    this.classTableOffset = contents.getInt(5 * Integer.BYTES);
+    this.sectionDataOffset = contents.getInt(6 * Integer.BYTES);
+    this.diagnosticsHandler = diagnosticsHandler;
+    this.allowEmptyMappedRanges = allowEmptyMappedRanges;
+  }
+
+  public static IndexedClassNameMapper mapperFromFile(
+      Path path, DiagnosticsHandler diagnosticsHandler, boolean allowEmptyMappedRanges)
+      throws IOException {
+    ByteBuffer contents;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      contents = channel.map(MapMode.READ_ONLY, 0, channel.size());
+    }
+    return new IndexedClassNameMapper(contents, diagnosticsHandler, allowEmptyMappedRanges);
+  }
+
+  public static void write(ClassNameMapper mapper, Path path) throws IOException {
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+      write(mapper, out);
+    }
+  }
+
+  public static void write(ClassNameMapper mapper, OutputStream out) throws IOException {
+    List<byte[]> strings = new ArrayList<>();
+    Map<String, Integer> stringIds = new HashMap<>();
+    List<ClassEntry> entries = new ArrayList<>(mapper.getClassNameMappings().size());
+    for (ClassNamingForNameMapper naming : mapper.getClassNameMappings().values()) {
+      entries.add(
+          new ClassEntry(
+              naming.renamedName.getBytes(StandardCharsets.UTF_8),
+              internString(naming.renamedName, strings, stringIds),
+              internString(naming.originalName, strings, stringIds),
+              naming.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+    entries.sort((x, y) -> compareUnsigned(x.obfuscatedName, y.obfuscatedName));
+
+    int stringDataSize = 0;
+    for (byte[] string : strings) {
+      stringDataSize += string.length;
+    }
+    long stringTableOffset = HEADER_SIZE;
+    long classTableOffset =
+        stringTableOffset + (strings.size() + 1L) * Integer.BYTES + stringDataSize;
+    long sectionDataOffset = classTableOffset + (long) entries.size() * CLASS_ENTRY_SIZE;
+    long size = sectionDataOffset;
+    for (ClassEntry entry : entries) {
+      size += entry.section.length;
+    }
+    if (size > Integer.MAX_VALUE) {
+      throw new CompilationError("Mapping is too large to be indexed");
+    }
+
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeInt(entries.size());
+    data.writeInt(strings.size());
+    data.writeInt((int) stringTableOffset);
+    data.writeInt((int) classTableOffset);
+    data.writeInt((int) sectionDataOffset);
+    int stringOffset = 0;
+    for (byte[] string : strings) {
+      data.writeInt(stringOffset);
+      stringOffset += string.length;
+    }
+    data.writeInt(stringOffset);
+    for (byte[] string : strings) {
+      data.write(string);
+    }
+    int sectionOffset = 0;
+    for (ClassEntry entry : entries) {
+      data.writeInt(entry.obfuscatedNameId);
+      data.writeInt(entry.originalNameId);
+      data.writeInt(sectionOffset);
+      sectionOffset += entry.section.length;
+      data.writeInt(sectionOffset);
+    }
+    for (ClassEntry entry : entries) {
+      data.write(entry.section);
+    }
+    data.flush();
+  }
+
+  private static int internString(String string, List<byte[]> strings, Map<String, Integer> ids) {
+    return ids.computeIfAbsent(
+        string,
+        ignore -> {
+          strings.add(string.getBytes(StandardCharsets.UTF_8));
+          return strings.size() - 1;
+        });
+  }
+
+  private static int compareUnsigned(byte[] x, byte[] y) {
+    int length = Math.min(x.length, y.length);
+    for (int i = 0; i < length; i++) {
+      int diff = (x[i] & 0xFF) - (y[i] & 0xFF);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return x.length - y.length;
+  }
+
+  public int size() {
+    return classCount;
+  }
+
+  public boolean hasMapping(String obfuscatedName) {
+    return findClassEntry(obfuscatedName) >= 0;
+  }
+
+  /** Returns the original name of the class without parsing its members, or null if unmapped. */
+  public String getOriginalName(String obfuscatedName) {
+    int entry = findClassEntry(obfuscatedName);
+    return entry >= 0 ? getString(contents.getInt(entryOffset(entry) + Integer.BYTES)) : null;
+  }
+
+  /**
+   * Returns the text mapping of all classes, which is the concatenation of the sections of the
+   * classes in the order of the class table.
+   */
+  public String getMappingString() {
+    return decode(sectionDataOffset, contents.limit());
+  }
+
+  @Override
+  public ClassNamingForNameMapper getClassNaming(String obfuscatedName) {
+    int entry = findClassEntry(obfuscatedName);
+    if (entry < 0) {
+      return null;
+    }
+    return classNamings.computeIfAbsent(
+        obfuscatedName, ignore -> parseClassNaming(obfuscatedName, entry));
+  }
+
+  private ClassNamingForNameMapper parseClassNaming(String obfuscatedName, int entry) {
+    int offset = entryOffset(entry);
+    int start = sectionDataOffset + contents.getInt(offset + 2 * Integer.BYTES);
+    int end = sectionDataOffset + contents.getInt(offset + 3 * Integer.BYTES);
+    try {
+      return ClassNameMapper.mapperFromString(
+              decode(start, end), diagnosticsHandler, allowEmptyMappedRanges)
+          .getClassNaming(obfuscatedName);
+    } catch (IOException e) {
+      throw new CompilationError("Could not parse the mapping of '" + obfuscatedName + "'", e);
+    }
+  }
+
+  private int entryOffset(int entry) {
+    return classTableOffset + entry * CLASS_ENTRY_SIZE;
+  }
+
+  private int findClassEntry(String obfuscatedName) {
+    byte[] name = obfuscatedName.getBytes(StandardCharsets.UTF_8);
+    int low = 0;
+    int high = classCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int comparison = compareString(contents.getInt(entryOffset(mid)), name);
+      if (comparison < 0) {
+        low = mid + 1;
+      } else if (comparison > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  // Compares the interned string with the given id to the UTF-8 bytes without decoding it.
+  private int compareString(int id, byte[] other) {
+    int start = stringDataOffset + contents.getInt(stringTableOffset + id * Integer.BYTES);
+    int end = stringDataOffset + contents.getInt(stringTableOffset + (id + 1) * Integer.BYTES);
+    int length = Math.min(end - start, other.length);
+    for (int i = 0; i < length; i++) {
+      int diff = (contents.get(start + i) & 0xFF) - (other[i] & 0xFF);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return (end - start) - other.length;
+  }
+
+  private String getString(int id) {
+    return decode(
+        stringDataOffset + contents.getInt(stringTableOffset + id * Integer.BYTES),
+        stringDataOffset + contents.getInt(stringTableOffset + (id + 1) * Integer.BYTES));
+  }
+
+  private String decode(int start, int end) {
+    ByteBuffer slice = contents.duplicate();
+    slice.limit(end);
+    slice.position(start);
+    return StandardCharsets.UTF_8.decode(slice).toString();
+  }
+
+  private static class ClassEntry {
+
+    private final byte[] obfuscatedName;
+    private final int obfuscatedNameId;
+    private final int originalNameId;
+    private final byte[] section;
+
+    private ClassEntry(
+        byte[] obfuscatedName, int obfuscatedNameId, int originalNameId, byte[] section) {
+      this.obfuscatedName = obfuscatedName;
+      this.obfuscatedNameId = obfuscatedNameId;
+      this.originalNameId = originalNameId;
+      this.section = section;
+    }
+  }
+}
@@ -0,0 +1,156 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.naming;
+
+import com.android.tools.r8.DiagnosticsHandler;
+import com.android.tools.r8.errors.CompilationError;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link ClassNamingProvider} for a mapping file that is memory mapped instead of read onto the
+ * heap.
+ *
+ * <p>Creating the mapper only scans the file for the lines that start a class mapping and records
+ * the byte offset of each class section by its obfuscated name. The members of a class are parsed
+ * by {@link ProguardMapReader} the first time the class is looked up, such that retracing a stack
+ * trace only parses the classes that occur in it.
+ *
+ * <p>Lookups may be performed concurrently.
+ */
+public class LazyClassNameMapper implements ClassNamingProvider {
+
+  private static final int NO_SECTION = -1;
+
+  private final ByteBuffer contents;
+  private final Object2IntMap<String> sectionIndices;
+  // The start offset of each class section followed by the end offset of the last section.
+  private final int[] sectionOffsets;
+  private final DiagnosticsHandler diagnosticsHandler;
+  private final boolean allowEmptyMappedRanges;
+
+  private final ConcurrentHashMap<String, ClassNamingForNameMapper> classNamings =
+      new ConcurrentHashMap<>();
+
+  private LazyClassNameMapper(
+      ByteBuffer contents,
+      Object2IntMap<String> sectionIndices,
+      int[] sectionOffsets,
+      DiagnosticsHandler diagnosticsHandler,
+      boolean allowEmptyMappedRanges) {
+    this.contents = contents;
+    this.sectionIndices = sectionIndices;
+    this.sectionOffsets = sectionOffsets;
+    this.diagnosticsHandler = diagnosticsHandler;
+    this.allowEmptyMappedRanges = allowEmptyMappedRanges;
+  }
+
+  public static LazyClassNameMapper mapperFromFile(
+      Path path, DiagnosticsHandler diagnosticsHandler, boolean allowEmptyMappedRanges)
+      throws IOException {
+    ByteBuffer contents;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Mapping file is too large to be mapped: " + path);
+      }
+      contents = channel.map(MapMode.READ_ONLY, 0, channel.size());
+    }
+    return create(contents, diagnosticsHandler, allowEmptyMappedRanges);
+  }
+
+  static LazyClassNameMapper create(
+      ByteBuffer contents, DiagnosticsHandler diagnosticsHandler, boolean allowEmptyMappedRanges) {
+    Object2IntMap<String> sectionIndices = new Object2IntOpenHashMap<>();
+    sectionIndices.defaultReturnValue(NO_SECTION);
+    IntArrayList sectionOffsets = new IntArrayList();
+    int limit = contents.limit();
+    int lineStart = hasByteOrderMark(contents) ? 3 : 0;
+    while (lineStart < limit) {
+      int lineEnd = lineStart;
+      while (lineEnd < limit && contents.get(lineEnd) != '\n' && contents.get(lineEnd) != '\r') {
+        lineEnd++;
+      }
+      if (lineEnd > lineStart && isClassMappingStart(contents.get(lineStart))) {
+        String renamedName = parseRenamedClassName(contents, lineStart, lineEnd);
+        if (sectionIndices.put(renamedName, sectionOffsets.size()) != NO_SECTION) {
+          throw new CompilationError("Duplicate class mapping for '" + renamedName + "'");
+        }
+        sectionOffsets.add(lineStart);
+      }
+      lineStart = lineEnd + 1;
+    }
+    sectionOffsets.add(limit);
+    return new LazyClassNameMapper(
+        contents,
+        sectionIndices,
+        sectionOffsets.toIntArray(),
+        diagnosticsHandler,
+        allowEmptyMappedRanges);
+  }
+
+  private static boolean hasByteOrderMark(ByteBuffer contents) {
+    return contents.limit() >= 3
+        && (contents.get(0) & 0xFF) == 0xEF
+        && (contents.get(1) & 0xFF) == 0xBB
+        && (contents.get(2) & 0xFF) == 0xBF;
+  }
+
+  // Member mappings are indented and comments may occur inside the section of a class, thus any
+  // other non-empty line starts the mapping of a new class.
+  private static boolean isClassMappingStart(byte firstByte) {
+    return firstByte != ' ' && firstByte != '\t' && firstByte != '#';
+  }
+
+  // Extracts 'renamed' from a line of the form 'original -> renamed:'.
+  private static String parseRenamedClassName(ByteBuffer contents, int lineStart, int lineEnd) {
+    String line = decode(contents, lineStart, lineEnd);
+    int arrowIndex = line.lastIndexOf("->");
+    int colonIndex = line.lastIndexOf(':');
+    if (arrowIndex < 0 || colonIndex < arrowIndex) {
+      throw new CompilationError("Invalid class mapping '" + line + "'");
+    }
+    return line.substring(arrowIndex + 2, colonIndex).trim();
+  }
+
+  private static String decode(ByteBuffer contents, int start, int end) {
+    ByteBuffer section = contents.duplicate();
+    section.limit(end);
+    section.position(start);
+    return StandardCharsets.UTF_8.decode(section).toString();
+  }
+
+  public boolean hasMapping(String obfuscatedName) {
+    return sectionIndices.containsKey(obfuscatedName);
+  }
+
+  @Override
+  public ClassNamingForNameMapper getClassNaming(String obfuscatedName) {
+    int sectionIndex = sectionIndices.getInt(obfuscatedName);
+    if (sectionIndex == NO_SECTION) {
+      return null;
+    }
+    return classNamings.computeIfAbsent(
+        obfuscatedName, ignore -> parseClassNaming(obfuscatedName, sectionIndex));
+  }
+
+  private ClassNamingForNameMapper parseClassNaming(String obfuscatedName, int sectionIndex) {
+    String section =
+        decode(contents, sectionOffsets[sectionIndex], sectionOffsets[sectionIndex + 1]);
+    try {
+      return ClassNameMapper.mapperFromString(section, diagnosticsHandler, allowEmptyMappedRanges)
+          .getClassNaming(obfuscatedName);
+    } catch (IOException e) {
+      throw new CompilationError("Could not parse the mapping of '" + obfuscatedName + "'", e);
+    }
+  }
+}
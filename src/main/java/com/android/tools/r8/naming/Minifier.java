@@ -25,13 +25,17 @@ import com.android.tools.r8.naming.MethodNameMinifier.MethodRenaming;
 import com.android.tools.r8.shaking.AppInfoWithLiveness;
 import com.android.tools.r8.utils.SymbolGenerationUtils;
 import com.android.tools.r8.utils.SymbolGenerationUtils.MixedCasing;
+import com.android.tools.r8.utils.ThreadUtils;
 import com.android.tools.r8.utils.Timing;
+import com.android.tools.r8.utils.Timing.TimingMerger;
+import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 
@@ -45,40 +49,61 @@ public class Minifier {
 
   public NamingLens run(ExecutorService executorService, Timing timing) throws ExecutionException {
     assert appView.options().isMinifying();
-    SubtypingInfo subtypingInfo = appView.appInfo().computeSubtypingInfo();
+    SubtypingInfo subtypingInfo = SubtypingInfo.create(appView, executorService);
     timing.begin("ComputeInterfaces");
     List<DexClass> interfaces = computeReachableInterfacesWithDeterministicOrder();
     timing.end();
-    timing.begin("MinifyClasses");
-    ClassNameMinifier classNameMinifier =
-        new ClassNameMinifier(
-            appView,
-            new MinificationClassNamingStrategy(appView),
-            // Use deterministic class order to make sure renaming is deterministic.
-            appView.appInfo().classesWithDeterministicOrder());
-    ClassRenaming classRenaming = classNameMinifier.computeRenaming(timing);
-    timing.end();
+
+    // The class, method and field renamings are computed independently of each other. When
+    // parallel minification is enabled, the method and field renamings are computed on the executor
+    // while the class renaming is computed on the current thread. Each renaming is deterministic,
+    // so the resulting renaming is the same as when computed serially.
+    MemberNamingStrategy minifyMembers = new MinifierMemberNamingStrategy(appView);
+    ClassRenaming classRenaming;
+    MethodRenaming methodRenaming;
+    FieldRenaming fieldRenaming;
+    if (appView.options().enableParallelMinification) {
+      Timing methodTiming = Timing.create("MinifyMethods", appView.options());
+      Future<MethodRenaming> methodRenamingFuture =
+          ThreadUtils.processAsynchronously(
+              () ->
+                  computeMethodRenaming(subtypingInfo, minifyMembers, interfaces, methodTiming),
+              executorService);
+      Timing fieldTiming = Timing.create("MinifyFields", appView.options());
+      Future<FieldRenaming> fieldRenamingFuture =
+          ThreadUtils.processAsynchronously(
+              () -> computeFieldRenaming(subtypingInfo, minifyMembers, interfaces, fieldTiming),
+              executorService);
+      timing.begin("MinifyClasses");
+      classRenaming = computeClassRenaming(timing);
+      timing.end();
+      TimingMerger merger =
+          timing.beginMerger("MinifyMembers", ThreadUtils.getNumberOfThreads(executorService));
+      ThreadUtils.awaitFutures(ImmutableList.of(methodRenamingFuture, fieldRenamingFuture));
+      methodRenaming = getCompletedResult(methodRenamingFuture);
+      fieldRenaming = getCompletedResult(fieldRenamingFuture);
+      methodTiming.end();
+      fieldTiming.end();
+      merger.add(ImmutableList.of(methodTiming, fieldTiming));
+      merger.end();
+    } else {
+      timing.begin("MinifyClasses");
+      classRenaming = computeClassRenaming(timing);
+      timing.end();
+      timing.begin("MinifyMethods");
+      methodRenaming = computeMethodRenaming(subtypingInfo, minifyMembers, interfaces, timing);
+      timing.end();
+      timing.begin("MinifyFields");
+      fieldRenaming = computeFieldRenaming(subtypingInfo, minifyMembers, interfaces, timing);
+      timing.end();
+    }
 
     assert new MinifiedRenaming(
             appView, classRenaming, MethodRenaming.empty(), FieldRenaming.empty())
         .verifyNoCollisions(appView.appInfo().classes(), appView.dexItemFactory());
-
-    MemberNamingStrategy minifyMembers = new MinifierMemberNamingStrategy(appView);
-    timing.begin("MinifyMethods");
-    MethodRenaming methodRenaming =
-        new MethodNameMinifier(appView, subtypingInfo, minifyMembers)
-            .computeRenaming(interfaces, timing);
-    timing.end();
-
     assert new MinifiedRenaming(appView, classRenaming, methodRenaming, FieldRenaming.empty())
         .verifyNoCollisions(appView.appInfo().classes(), appView.dexItemFactory());
 
-    timing.begin("MinifyFields");
-    FieldRenaming fieldRenaming =
-        new FieldNameMinifier(appView, subtypingInfo, minifyMembers)
-            .computeRenaming(interfaces, timing);
-    timing.end();
-
     NamingLens lens = new MinifiedRenaming(appView, classRenaming, methodRenaming, fieldRenaming);
     assert lens.verifyNoCollisions(appView.appInfo().classes(), appView.dexItemFactory());
 
@@ -89,6 +114,43 @@ public class Minifier {
     return lens;
   }
 
+  private ClassRenaming computeClassRenaming(Timing timing) {
+    ClassNameMinifier classNameMinifier =
+        new ClassNameMinifier(
+            appView,
+            new MinificationClassNamingStrategy(appView),
+            // Use deterministic class order to make sure renaming is deterministic.
+            appView.appInfo().classesWithDeterministicOrder());
+    return classNameMinifier.computeRenaming(timing);
+  }
+
+  private MethodRenaming computeMethodRenaming(
+      SubtypingInfo subtypingInfo,
+      MemberNamingStrategy strategy,
+      List<DexClass> interfaces,
+      Timing timing) {
+    return new MethodNameMinifier(appView, subtypingInfo, strategy)
+        .computeRenaming(interfaces, timing);
+  }
+
+  private FieldRenaming computeFieldRenaming(
+      SubtypingInfo subtypingInfo,
+      MemberNamingStrategy strategy,
+      List<DexClass> interfaces,
+      Timing timing) {
+    return new FieldNameMinifier(appView, subtypingInfo, strategy)
+        .computeRenaming(interfaces, timing);
+  }
+
+  private static <T> T getCompletedResult(Future<T> future) throws ExecutionException {
+    assert future.isDone();
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      throw new RuntimeException("Interrupted while waiting for future.", e);
+    }
+  }
+
   private List<DexClass> computeReachableInterfacesWithDeterministicOrder() {
     List<DexClass> interfaces = new ArrayList<>();
     appView.appInfo().forEachReachableInterface(interfaces::add);
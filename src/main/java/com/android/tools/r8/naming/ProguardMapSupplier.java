@@ -12,10 +12,18 @@ import com.android.tools.r8.utils.ChainableStringConsumer;
 import com.android.tools.r8.utils.ExceptionUtils;
 import com.android.tools.r8.utils.InternalOptions;
 import com.android.tools.r8.utils.Reporter;
+import com.android.tools.r8.utils.ThreadUtils;
 import com.android.tools.r8.utils.VersionProperties;
+import com.google.common.collect.Lists;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
 public class ProguardMapSupplier {
 
@@ -28,6 +36,10 @@ public class ProguardMapSupplier {
 
   public static int PG_MAP_ID_LENGTH = 7;
 
+  // Number of classes for which the mapping is rendered concurrently before it is passed on to the
+  // consumer. Bounds the amount of the mapping that is held in memory at any point.
+  private static final int CLASSES_PER_BATCH = 1024;
+
   // Truncated murmur hash of the non-whitespace codepoints of the Proguard map (excluding the
   // marker).
   public static class ProguardMapId extends Box<String> {
@@ -68,6 +80,46 @@ public class ProguardMapSupplier {
     return id;
   }
 
+  /**
+   * Writes the Proguard map by rendering the mapping of the classes concurrently in batches.
+   *
+   * <p>The mapping of the classes is passed to the consumer in the same order as {@link
+   * #writeProguardMap()}, such that the output is identical.
+   */
+  public ProguardMapId writeProguardMap(ExecutorService executorService)
+      throws ExecutionException {
+    assert classNameMapper.verifyIsSorted();
+    List<List<ClassNamingForNameMapper>> batches =
+        Lists.partition(
+            new ArrayList<>(classNameMapper.getClassNameMappings().values()), CLASSES_PER_BATCH);
+    // The id is part of the marker that precedes the body, so the mapping is rendered twice.
+    ProguardMapIdBuilder idBuilder = new ProguardMapIdBuilder();
+    for (List<ClassNamingForNameMapper> batch : batches) {
+      Collection<byte[]> hashInputs =
+          ThreadUtils.processItemsWithResults(
+              batch,
+              naming -> ProguardMapIdBuilder.computeHashInput(render(naming)),
+              executorService);
+      hashInputs.forEach(idBuilder::accept);
+    }
+    ProguardMapId id = idBuilder.build();
+    writeMarker(id);
+    for (List<ClassNamingForNameMapper> batch : batches) {
+      Collection<String> mappings =
+          ThreadUtils.processItemsWithResults(
+              batch, ProguardMapSupplier::render, executorService);
+      mappings.forEach(mapping -> consumer.accept(mapping, reporter));
+    }
+    ExceptionUtils.withFinishedResourceHandler(reporter, consumer);
+    return id;
+  }
+
+  private static String render(ClassNamingForNameMapper naming) {
+    StringBuilder builder = new StringBuilder();
+    naming.write(ChainableStringConsumer.wrap(builder::append));
+    return builder.toString();
+  }
+
   private ProguardMapId computeProguardMapId() {
     ProguardMapIdBuilder builder = new ProguardMapIdBuilder();
     classNameMapper.write(builder);
@@ -119,6 +171,28 @@ public class ProguardMapSupplier {
       return this;
     }
 
+    // Returns the bytes that accept(string) adds to the hash, which allows computing them
+    // concurrently. The hasher consumes the integers in little endian byte order.
+    static byte[] computeHashInput(String string) {
+      byte[] bytes = new byte[string.length() * Integer.BYTES];
+      int length = 0;
+      for (int i = 0; i < string.length(); i++) {
+        char c = string.charAt(i);
+        if (!Character.isWhitespace(c)) {
+          bytes[length++] = (byte) c;
+          bytes[length++] = (byte) (c >>> 8);
+          bytes[length++] = 0;
+          bytes[length++] = 0;
+        }
+      }
+      return Arrays.copyOf(bytes, length);
+    }
+
+    ProguardMapIdBuilder accept(byte[] hashInput) {
+      hasher.putBytes(hashInput);
+      return this;
+    }
+
     public ProguardMapId build() {
       return new ProguardMapId(hasher.hash().toString().substring(0, PG_MAP_ID_LENGTH));
     }
@@ -0,0 +1,30 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.retrace;
+
+import com.android.tools.r8.DiagnosticsHandler;
+import com.android.tools.r8.Keep;
+import com.android.tools.r8.naming.IndexedClassNameMapper;
+import com.android.tools.r8.retrace.internal.RetracerImpl;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Utility for writing a mapping file to a binary, pre-indexed format.
+ *
+ * <p>The index can be loaded by creating a retracer with {@link
+ * ProguardMapProducer#fromIndexPath(Path)}. Loading an index only memory maps the file, and the
+ * mapping of a class is only parsed when the class is retraced.
+ */
+@Keep
+public class ProguardMapIndex {
+
+  public static void write(
+      ProguardMapProducer proguardMapProducer, Path output, DiagnosticsHandler diagnosticsHandler)
+      throws IOException {
+    IndexedClassNameMapper.write(
+        RetracerImpl.parseClassNameMapper(proguardMapProducer, diagnosticsHandler), output);
+  }
+}
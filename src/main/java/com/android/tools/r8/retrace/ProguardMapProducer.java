@@ -5,9 +5,12 @@
 package com.android.tools.r8.retrace;
 
 import com.android.tools.r8.Keep;
-import java.io.BufferedReader;
+import com.android.tools.r8.retrace.internal.FileProguardMapProducer;
+import com.android.tools.r8.retrace.internal.IndexedProguardMapProducer;
+import com.android.tools.r8.retrace.internal.ReaderProguardMapProducer;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.file.Path;
 
 /** Interface for producing a string format of a mapping file. */
 @Keep
@@ -15,16 +18,23 @@ public interface ProguardMapProducer {
 
   String get() throws IOException;
 
+  /** Create a producer that streams the mapping from the reader when it is parsed. */
   static ProguardMapProducer fromReader(Reader reader) {
-    return () -> {
-      try (BufferedReader br = new BufferedReader(reader)) {
-        StringBuilder sb = new StringBuilder();
-        String line;
-        while ((line = br.readLine()) != null) {
-          sb.append(line).append('\n');
-        }
-        return sb.toString();
-      }
-    };
+    return new ReaderProguardMapProducer(reader);
+  }
+
+  /**
+   * Create a producer for a mapping file on disk.
+   *
+   * <p>The file is memory mapped and only the mappings of the classes that are looked up are
+   * parsed. Errors in the mapping of a class are therefore reported when the class is looked up.
+   */
+  static ProguardMapProducer fromPath(Path path) {
+    return new FileProguardMapProducer(path);
+  }
+
+  /** Create a producer for a binary mapping index written by {@link ProguardMapIndex#write}. */
+  static ProguardMapProducer fromIndexPath(Path path) {
+    return new IndexedProguardMapProducer(path);
   }
 }
@@ -9,10 +9,14 @@ import static com.android.tools.r8.retrace.internal.RetraceUtils.firstNonWhiteSp
 import com.android.tools.r8.DiagnosticsHandler;
 import com.android.tools.r8.Keep;
 import com.android.tools.r8.retrace.internal.StackTraceElementStringProxy;
+import com.android.tools.r8.utils.ThreadUtils;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 
 /**
@@ -59,6 +63,25 @@ public class StringRetrace extends Retrace<String, StackTraceElementStringProxy>
     return retracedStrings;
   }
 
+  /**
+   * Retraces a batch of stack traces on the given executor and returns the retraced stack traces in
+   * the order of the input.
+   *
+   * <p>All stack traces are retraced with the same retracer, such that the mapping of a class is
+   * only looked up once for the entire batch. The diagnostics handler may be called concurrently.
+   *
+   * @param stackTraces the incoming stack traces
+   * @param executorService the executor to retrace the stack traces on
+   * @return the retraced stack traces
+   */
+  public List<List<String>> retrace(
+      Collection<List<String>> stackTraces, ExecutorService executorService)
+      throws ExecutionException {
+    return new ArrayList<>(
+        ThreadUtils.processItemsWithResults(
+            stackTraces, (List<String> stackTrace) -> retrace(stackTrace), executorService));
+  }
+
   /**
    * Retraces a single stack trace line and returns the potential list of original frames
    *
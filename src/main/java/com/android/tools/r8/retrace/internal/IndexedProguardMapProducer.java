@@ -0,0 +1,36 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.retrace.internal;
+
+import com.android.tools.r8.DiagnosticsHandler;
+import com.android.tools.r8.naming.IndexedClassNameMapper;
+import com.android.tools.r8.retrace.ProguardMapProducer;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A producer for a binary mapping index written by {@code ProguardMapIndex.write}.
+ *
+ * <p>A retracer looks up the classes in the index directly. The text mapping is only produced from
+ * the class sections of the index when the producer is used where a text mapping is expected.
+ */
+public class IndexedProguardMapProducer implements ProguardMapProducer {
+
+  private final Path path;
+
+  public IndexedProguardMapProducer(Path path) {
+    this.path = path;
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  @Override
+  public String get() throws IOException {
+    return IndexedClassNameMapper.mapperFromFile(path, new DiagnosticsHandler() {}, true)
+        .getMappingString();
+  }
+}
@@ -0,0 +1,41 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.retrace.internal;
+
+import com.android.tools.r8.retrace.ProguardMapProducer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A producer for a mapping file given by a reader. The retracer parses the mapping directly from
+ * the reader instead of calling {@link #get()}, such that the content is never held as one string.
+ */
+public class ReaderProguardMapProducer implements ProguardMapProducer {
+
+  private final Reader reader;
+
+  public ReaderProguardMapProducer(Reader reader) {
+    this.reader = reader;
+  }
+
+  public BufferedReader getBufferedReader() {
+    return reader instanceof BufferedReader
+        ? (BufferedReader) reader
+        : new BufferedReader(reader);
+  }
+
+  @Override
+  public String get() throws IOException {
+    try (BufferedReader br = getBufferedReader()) {
+      StringBuilder sb = new StringBuilder();
+      String line;
+      while ((line = br.readLine()) != null) {
+        sb.append(line).append('\n');
+      }
+      return sb.toString();
+    }
+  }
+}
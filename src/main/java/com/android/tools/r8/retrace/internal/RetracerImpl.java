@@ -6,6 +6,10 @@ package com.android.tools.r8.retrace.internal;
 
 import com.android.tools.r8.DiagnosticsHandler;
 import com.android.tools.r8.naming.ClassNameMapper;
+import com.android.tools.r8.naming.ClassNamingForNameMapper;
+import com.android.tools.r8.naming.ClassNamingProvider;
+import com.android.tools.r8.naming.IndexedClassNameMapper;
+import com.android.tools.r8.naming.LazyClassNameMapper;
 import com.android.tools.r8.references.ClassReference;
 import com.android.tools.r8.references.FieldReference;
 import com.android.tools.r8.references.MethodReference;
@@ -13,32 +17,63 @@ import com.android.tools.r8.references.TypeReference;
 import com.android.tools.r8.retrace.InvalidMappingFileException;
 import com.android.tools.r8.retrace.ProguardMapProducer;
 import com.android.tools.r8.retrace.Retracer;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /** A default implementation for the retrace api using the ClassNameMapper defined in R8. */
 public class RetracerImpl implements Retracer {
 
-  private final ClassNameMapper classNameMapper;
+  private final ClassNamingProvider classNamingProvider;
 
-  private RetracerImpl(ClassNameMapper classNameMapper) {
-    this.classNameMapper = classNameMapper;
-    assert classNameMapper != null;
+  // Cache of the results for classes that have a mapping, which is shared by all threads that
+  // retrace with this retracer.
+  private final Map<ClassReference, RetraceClassResultImpl> mappedClassResults =
+      new ConcurrentHashMap<>();
+
+  private RetracerImpl(ClassNamingProvider classNamingProvider) {
+    this.classNamingProvider = classNamingProvider;
+    assert classNamingProvider != null;
   }
 
   public static RetracerImpl create(
       ProguardMapProducer proguardMapProducer, DiagnosticsHandler diagnosticsHandler) {
-    if (proguardMapProducer instanceof DirectClassNameMapperProguardMapProducer) {
-      return new RetracerImpl(
-          ((DirectClassNameMapperProguardMapProducer) proguardMapProducer).getClassNameMapper());
-    }
     try {
-      ClassNameMapper classNameMapper =
-          ClassNameMapper.mapperFromString(proguardMapProducer.get(), diagnosticsHandler, true);
-      return new RetracerImpl(classNameMapper);
+      if (proguardMapProducer instanceof FileProguardMapProducer) {
+        return new RetracerImpl(
+            LazyClassNameMapper.mapperFromFile(
+                ((FileProguardMapProducer) proguardMapProducer).getPath(),
+                diagnosticsHandler,
+                true));
+      }
+      if (proguardMapProducer instanceof IndexedProguardMapProducer) {
+        return new RetracerImpl(
+            IndexedClassNameMapper.mapperFromFile(
+                ((IndexedProguardMapProducer) proguardMapProducer).getPath(),
+                diagnosticsHandler,
+                true));
+      }
+      return new RetracerImpl(parseClassNameMapper(proguardMapProducer, diagnosticsHandler));
     } catch (Throwable throwable) {
       throw new InvalidMappingFileException(throwable);
     }
   }
 
+  public static ClassNameMapper parseClassNameMapper(
+      ProguardMapProducer proguardMapProducer, DiagnosticsHandler diagnosticsHandler)
+      throws IOException {
+    if (proguardMapProducer instanceof DirectClassNameMapperProguardMapProducer) {
+      return ((DirectClassNameMapperProguardMapProducer) proguardMapProducer).getClassNameMapper();
+    }
+    if (proguardMapProducer instanceof ReaderProguardMapProducer) {
+      return ClassNameMapper.mapperFromBufferedReader(
+          ((ReaderProguardMapProducer) proguardMapProducer).getBufferedReader(),
+          diagnosticsHandler,
+          true);
+    }
+    return ClassNameMapper.mapperFromString(proguardMapProducer.get(), diagnosticsHandler, true);
+  }
+
   @Override
   public RetraceMethodResultImpl retraceMethod(MethodReference methodReference) {
     return retraceClass(methodReference.getHolderClass())
@@ -59,8 +94,20 @@ public class RetracerImpl implements Retracer {
 
   @Override
   public RetraceClassResultImpl retraceClass(ClassReference classReference) {
-    return RetraceClassResultImpl.create(
-        classReference, classNameMapper.getClassNaming(classReference.getTypeName()), this);
+    RetraceClassResultImpl result = mappedClassResults.get(classReference);
+    if (result != null) {
+      return result;
+    }
+    ClassNamingForNameMapper classNaming =
+        classNamingProvider.getClassNaming(classReference.getTypeName());
+    result = RetraceClassResultImpl.create(classReference, classNaming, this);
+    if (classNaming != null) {
+      RetraceClassResultImpl existing = mappedClassResults.putIfAbsent(classReference, result);
+      if (existing != null) {
+        return existing;
+      }
+    }
+    return result;
   }
 
   @Override
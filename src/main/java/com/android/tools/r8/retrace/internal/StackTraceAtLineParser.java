@@ -0,0 +1,178 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.retrace.internal;
+
+import com.android.tools.r8.retrace.internal.StackTraceElementStringProxy.ClassNameType;
+import com.android.tools.r8.retrace.internal.StackTraceElementStringProxy.StackTraceElementStringProxyBuilder;
+
+/**
+ * Parser for the common stack trace line form 'at a.b.c(SourceFile:12)' that avoids matching the
+ * default regular expression of {@link StackTraceRegularExpressionParser}.
+ *
+ * <p>The parser only accepts lines for which it can guarantee that the result is identical to the
+ * result of matching the default regular expression. That is, the line is the word 'at', preceded
+ * and followed by white space, an ASCII class and method name, and a parenthesized source file and
+ * line number at the end of the line. For all other lines {@link #tryParse} returns null, and the
+ * regular expression must be used.
+ */
+final class StackTraceAtLineParser {
+
+  private static final String INIT = "<init>";
+  private static final String CLINIT = "<clinit>";
+  // The class name handler of the regular expression parser does not register this name.
+  private static final String SUPPRESSED = "Suppressed";
+
+  static StackTraceElementStringProxy tryParse(String line) {
+    int end = line.length();
+    while (end > 0 && isWhitespace(line.charAt(end - 1))) {
+      end--;
+    }
+    if (end == 0 || line.charAt(end - 1) != ')') {
+      return null;
+    }
+    int parensEnd = end - 1;
+    int atIndex = skipWhitespace(line, 0, parensEnd);
+    if (!line.startsWith("at", atIndex)) {
+      return null;
+    }
+    int classStartIndex = skipWhitespace(line, atIndex + 2, parensEnd);
+    if (classStartIndex == atIndex + 2) {
+      return null;
+    }
+    int nameEndIndex = classStartIndex;
+    while (nameEndIndex < parensEnd && isNameChar(line.charAt(nameEndIndex))) {
+      nameEndIndex++;
+    }
+    int parensStart = skipWhitespace(line, nameEndIndex, parensEnd);
+    if (parensStart >= parensEnd || line.charAt(parensStart) != '(') {
+      return null;
+    }
+    int methodSeparator = line.lastIndexOf('.', nameEndIndex - 1);
+    if (methodSeparator <= classStartIndex
+        || !isClassName(line, classStartIndex, methodSeparator)
+        || !isMethodName(line, methodSeparator + 1, nameEndIndex)
+        || isRegion(line, classStartIndex, methodSeparator, SUPPRESSED)) {
+      return null;
+    }
+    StackTraceElementStringProxyBuilder builder =
+        StackTraceElementStringProxy.builder(line)
+            .registerClassName(classStartIndex, methodSeparator, ClassNameType.TYPENAME)
+            .registerMethodName(methodSeparator + 1, nameEndIndex);
+    // The source file group always participates in the match, but it may be empty. The source file
+    // is greedy, so the entire content of the parenthesis is the source file if possible.
+    // Otherwise the content must end with a colon followed by the line number.
+    int sourceFileStart = parensStart + 1;
+    if (sourceFileStart == parensEnd || isSourceFile(line, sourceFileStart, parensEnd)) {
+      return builder.registerSourceFile(sourceFileStart, parensEnd).build();
+    }
+    int lineNumberSeparator = line.lastIndexOf(':', parensEnd - 1);
+    if (lineNumberSeparator < sourceFileStart) {
+      return null;
+    }
+    for (int i = lineNumberSeparator + 1; i < parensEnd; i++) {
+      if (!isDigit(line.charAt(i))) {
+        return null;
+      }
+    }
+    if (lineNumberSeparator > sourceFileStart
+        && !isSourceFile(line, sourceFileStart, lineNumberSeparator)) {
+      return null;
+    }
+    return builder
+        .registerSourceFile(sourceFileStart, lineNumberSeparator)
+        .registerLineNumber(lineNumberSeparator + 1, parensEnd)
+        .build();
+  }
+
+  // Matches the characters of '\s' in java.util.regex.
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  private static boolean isDigit(char c) {
+    return '0' <= c && c <= '9';
+  }
+
+  private static boolean isIdentifierStart(char c) {
+    return ('a' <= c && c <= 'z') || ('A' <= c && c <= 'Z') || c == '$' || c == '_';
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return isIdentifierStart(c) || isDigit(c);
+  }
+
+  private static boolean isNameChar(char c) {
+    return isIdentifierPart(c) || c == '.' || c == '<' || c == '>';
+  }
+
+  private static int skipWhitespace(String line, int index, int end) {
+    while (index < end && isWhitespace(line.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  // Matches '(identifier\.)*identifier'.
+  private static boolean isClassName(String line, int start, int end) {
+    boolean expectIdentifierStart = true;
+    for (int i = start; i < end; i++) {
+      char c = line.charAt(i);
+      if (expectIdentifierStart) {
+        if (!isIdentifierStart(c)) {
+          return false;
+        }
+        expectIdentifierStart = false;
+      } else if (c == '.') {
+        expectIdentifierStart = true;
+      } else if (!isIdentifierPart(c)) {
+        return false;
+      }
+    }
+    return !expectIdentifierStart;
+  }
+
+  // Matches 'identifier|<init>|<clinit>'.
+  private static boolean isMethodName(String line, int start, int end) {
+    if (start == end) {
+      return false;
+    }
+    if (line.charAt(start) == '<') {
+      return isRegion(line, start, end, INIT) || isRegion(line, start, end, CLINIT);
+    }
+    if (!isIdentifierStart(line.charAt(start))) {
+      return false;
+    }
+    for (int i = start + 1; i < end; i++) {
+      if (!isIdentifierPart(line.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isRegion(String line, int start, int end, String expected) {
+    return end - start == expected.length() && line.startsWith(expected, start);
+  }
+
+  // Matches '(?::+[^\d:]|[^:])+'.
+  private static boolean isSourceFile(String line, int start, int end) {
+    if (start == end) {
+      return false;
+    }
+    int i = start;
+    while (i < end) {
+      if (line.charAt(i) == ':') {
+        while (i < end && line.charAt(i) == ':') {
+          i++;
+        }
+        if (i == end || isDigit(line.charAt(i))) {
+          return false;
+        }
+      }
+      i++;
+    }
+    return true;
+  }
+}
@@ -24,6 +24,7 @@ public class StackTraceRegularExpressionParser
           + "|(?:(?:(?:%c|.*)?[:\"]\\s+)?%c(?::.*)?)";
 
   private final Pattern compiledPattern;
+  private final boolean isDefaultRegularExpression;
 
   private static final int NO_MATCH = -1;
 
@@ -52,10 +53,19 @@ public class StackTraceRegularExpressionParser
     registerGroups(
         regularExpression, refinedRegularExpressionBuilder, handlers, FIRST_CAPTURE_GROUP_INDEX);
     compiledPattern = Pattern.compile(refinedRegularExpressionBuilder.toString());
+    isDefaultRegularExpression = regularExpression.equals(DEFAULT_REGULAR_EXPRESSION);
   }
 
   @Override
   public StackTraceElementStringProxy parse(String stackTraceLine) {
+    if (isDefaultRegularExpression) {
+      // Most lines in a stack trace are frames of a standard form that can be parsed without
+      // matching the regular expression.
+      StackTraceElementStringProxy atLineProxy = StackTraceAtLineParser.tryParse(stackTraceLine);
+      if (atLineProxy != null) {
+        return atLineProxy;
+      }
+    }
     StackTraceElementStringProxyBuilder proxyBuilder =
         StackTraceElementStringProxy.builder(stackTraceLine);
     Matcher matcher = compiledPattern.matcher(stackTraceLine);
@@ -412,7 +412,7 @@ public class Enqueuer {
     this.mode = mode;
     this.options = options;
     this.useRegistryFactory = createUseRegistryFactory();
-    this.workList = EnqueuerWorklist.createWorklist(this);
+    this.workList = EnqueuerWorklist.createWorklist(this, options);
     this.proguardCompatibilityActionsBuilder =
         mode.isInitialTreeShaking() && options.forceProguardCompatibility
             ? ProguardCompatibilityActions.builder()
@@ -3148,7 +3148,7 @@ public class Enqueuer {
               return appBuilder.build();
             });
     appView.setAppInfo(appInfo);
-    subtypingInfo = new SubtypingInfo(appView);
+    subtypingInfo = SubtypingInfo.create(appView, executorService);
 
     // Finally once all synthesized items "exist" it is now safe to continue tracing. The new work
     // items are enqueued and the fixed point will continue once this subroutine returns.
@@ -3431,6 +3431,7 @@ public class Enqueuer {
       while (true) {
         long numberOfLiveItems = getNumberOfLiveItems();
         while (!workList.isEmpty()) {
+          workList.parsePendingCodeIfNeeded(executorService);
           EnqueuerAction action = workList.poll();
           action.run(this);
         }
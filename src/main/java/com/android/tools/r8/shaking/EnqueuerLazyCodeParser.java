@@ -0,0 +1,81 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.shaking;
+
+import com.android.tools.r8.graph.Code;
+import com.android.tools.r8.graph.DexProgramClass;
+import com.android.tools.r8.graph.LazyCfCode;
+import com.android.tools.r8.graph.ProgramMethod;
+import com.android.tools.r8.utils.InternalOptions;
+import com.android.tools.r8.utils.ThreadUtils;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Parses the lazy class file code of methods that have been enqueued for tracing, ahead of the
+ * sequential tracing of their code in the {@link Enqueuer}.
+ *
+ * <p>The code of all methods in a class is parsed at once by {@link LazyCfCode}, so the pending
+ * methods are grouped by their holder to ensure that each class is parsed by at most one thread.
+ * Parsing does not change any of the state of the {@link Enqueuer}, so the result of tracing is the
+ * same as when the code is parsed on demand.
+ *
+ * <p>If parsing fails, the exception of the first class that fails to parse in the order the
+ * classes were enqueued is rethrown unwrapped, such that it is reported as if the code was parsed
+ * on demand.
+ */
+class EnqueuerLazyCodeParser {
+
+  private final int batchSize;
+  private final Map<DexProgramClass, LazyCfCode> pending = new LinkedHashMap<>();
+
+  private EnqueuerLazyCodeParser(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  static EnqueuerLazyCodeParser create(InternalOptions options) {
+    return options.enableParallelLazyCodeParsingInEnqueuer
+        ? new EnqueuerLazyCodeParser(options.enqueuerLazyCodeParsingBatchSize)
+        : null;
+  }
+
+  void enqueue(ProgramMethod method) {
+    Code code = method.getDefinition().getCode();
+    if (code != null && code.isLazyCfCode() && !code.asLazyCfCode().isParsed()) {
+      pending.putIfAbsent(method.getHolder(), code.asLazyCfCode());
+    }
+  }
+
+  void parsePendingCodeIfNeeded(ExecutorService executorService) {
+    if (pending.size() < batchSize) {
+      return;
+    }
+    List<LazyCfCode> codeToParse = new ArrayList<>(pending.size());
+    for (LazyCfCode code : pending.values()) {
+      // The code may have been parsed on demand since it was enqueued.
+      if (!code.isParsed()) {
+        codeToParse.add(code);
+      }
+    }
+    pending.clear();
+    try {
+      ThreadUtils.processItems(codeToParse, LazyCfCode::asCfCode, executorService);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        // No checked exception is thrown when parsing code.
+        throw new AssertionError(e);
+      }
+    }
+  }
+}
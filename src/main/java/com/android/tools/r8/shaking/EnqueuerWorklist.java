@@ -16,6 +16,7 @@ import com.android.tools.r8.utils.Action;
 import com.android.tools.r8.utils.InternalOptions;
 import java.util.ArrayDeque;
 import java.util.Queue;
+import java.util.concurrent.ExecutorService;
 
 public class EnqueuerWorklist {
 
@@ -280,14 +281,16 @@ public class EnqueuerWorklist {
   }
 
   private final Enqueuer enqueuer;
+  private final EnqueuerLazyCodeParser lazyCodeParser;
   private final Queue<EnqueuerAction> queue = new ArrayDeque<>();
 
-  private EnqueuerWorklist(Enqueuer enqueuer) {
+  private EnqueuerWorklist(Enqueuer enqueuer, EnqueuerLazyCodeParser lazyCodeParser) {
     this.enqueuer = enqueuer;
+    this.lazyCodeParser = lazyCodeParser;
   }
 
-  public static EnqueuerWorklist createWorklist(Enqueuer enqueuer) {
-    return new EnqueuerWorklist(enqueuer);
+  public static EnqueuerWorklist createWorklist(Enqueuer enqueuer, InternalOptions options) {
+    return new EnqueuerWorklist(enqueuer, EnqueuerLazyCodeParser.create(options));
   }
 
   public boolean isEmpty() {
@@ -298,6 +301,22 @@ public class EnqueuerWorklist {
     return queue.poll();
   }
 
+  /**
+   * Parses the code of the methods that are pending to be traced on the given executor, if
+   * sufficiently many have been enqueued since the last time code was parsed.
+   */
+  void parsePendingCodeIfNeeded(ExecutorService executorService) {
+    if (lazyCodeParser != null) {
+      lazyCodeParser.parsePendingCodeIfNeeded(executorService);
+    }
+  }
+
+  private void enqueueCodeForParsing(ProgramMethod method) {
+    if (lazyCodeParser != null) {
+      lazyCodeParser.enqueue(method);
+    }
+  }
+
   boolean enqueueAssertAction(Action assertion) {
     if (InternalOptions.assertionsEnabled()) {
       queue.add(new AssertAction(assertion));
@@ -347,6 +366,7 @@ public class EnqueuerWorklist {
       ProgramMethod method, ProgramDefinition context, KeepReason reason) {
     if (enqueuer.addLiveMethod(method, reason)) {
       queue.add(new MarkMethodLiveAction(method, context));
+      enqueueCodeForParsing(method);
       if (!enqueuer.isMethodTargeted(method)) {
         queue.add(new TraceMethodDefinitionExcludingCodeAction(method));
       }
@@ -365,6 +385,7 @@ public class EnqueuerWorklist {
 
   public void enqueueTraceCodeAction(ProgramMethod method) {
     queue.add(new TraceCodeAction(method));
+    enqueueCodeForParsing(method);
   }
 
   public void enqueueTraceConstClassAction(DexType type, ProgramMethod context) {
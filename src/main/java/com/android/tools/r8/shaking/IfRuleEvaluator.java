@@ -27,7 +27,6 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -65,10 +64,22 @@ public class IfRuleEvaluator {
     appView.appInfo().app().timing.begin("Find consequent items for -if rules...");
     try {
       if (ifRules != null && !ifRules.isEmpty()) {
-        Iterator<Map.Entry<Wrapper<ProguardIfRule>, Set<ProguardIfRule>>> it =
-            ifRules.entrySet().iterator();
-        while (it.hasNext()) {
-          Map.Entry<Wrapper<ProguardIfRule>, Set<ProguardIfRule>> ifRuleEntry = it.next();
+        RuleCandidateIndex index = createIndex();
+        List<Map.Entry<Wrapper<ProguardIfRule>, Set<ProguardIfRule>>> ifRuleEntries =
+            new ArrayList<>(ifRules.entrySet());
+
+        // Find the classes that may satisfy each of the -if rules. Each task only matches its own
+        // rule, since matching captures the wildcards of the rule.
+        List<List<DexProgramClass>> candidatesForRules =
+            new ArrayList<>(
+                ThreadUtils.processItemsWithResults(
+                    ifRuleEntries,
+                    ifRuleEntry -> findCandidatesForRule(ifRuleEntry.getKey().get(), index),
+                    executorService));
+
+        for (int i = 0; i < ifRuleEntries.size(); i++) {
+          Map.Entry<Wrapper<ProguardIfRule>, Set<ProguardIfRule>> ifRuleEntry =
+              ifRuleEntries.get(i);
           ProguardIfRule ifRule = ifRuleEntry.getKey().get();
           ProguardIfRuleEvaluationData ifRuleEvaluationData =
               appView.options().testing.proguardIfRuleEvaluationData;
@@ -76,17 +87,8 @@ public class IfRuleEvaluator {
           // Depending on which types that trigger the -if rule, the application of the subsequent
           // -keep rule may vary (due to back references). So, we need to try all pairs of -if
           // rule and live types.
-          for (DexProgramClass clazz :
-              ifRule.relevantCandidatesForRule(
-                  appView, subtypingInfo, appView.appInfo().classes())) {
-            if (!isEffectivelyLive(clazz)) {
-              continue;
-            }
-
+          for (DexProgramClass clazz : candidatesForRules.get(i)) {
             // Check if the class matches the if-rule.
-            if (appView.options().testing.measureProguardIfRuleEvaluations) {
-              ifRuleEvaluationData.numberOfProguardIfRuleClassEvaluations++;
-            }
             if (evaluateClassForIfRule(ifRule, clazz)) {
               // When matching an if rule against a type, the if-rule are filled with the current
               // capture of wildcards. Propagate this down to member rules with same class part
@@ -118,9 +120,6 @@ public class IfRuleEvaluator {
                   assert false;
                   continue;
                 }
-                if (appView.options().testing.measureProguardIfRuleEvaluations) {
-                  ifRuleEvaluationData.numberOfProguardIfRuleClassEvaluations++;
-                }
                 if (evaluateClassForIfRule(ifRule, sourceClass)) {
                   ifRuleEntry
                       .getValue()
@@ -139,7 +138,7 @@ public class IfRuleEvaluator {
             }
           }
           if (ifRuleEntry.getValue().isEmpty()) {
-            it.remove();
+            ifRules.remove(ifRuleEntry.getKey());
           }
         }
         ThreadUtils.awaitFutures(futures);
@@ -150,6 +149,80 @@ public class IfRuleEvaluator {
     return rootSetBuilder.buildConsequentRootSet();
   }
 
+  private RuleCandidateIndex createIndex() throws ExecutionException {
+    List<DexProgramClass> classes = new ArrayList<>(appView.appInfo().classes());
+    List<Boolean> isEffectivelyLive =
+        new ArrayList<>(
+            ThreadUtils.processItemsWithResults(classes, this::isEffectivelyLive, executorService));
+    List<DexProgramClass> effectivelyLiveClasses = new ArrayList<>();
+    for (int i = 0; i < classes.size(); i++) {
+      if (isEffectivelyLive.get(i)) {
+        effectivelyLiveClasses.add(classes.get(i));
+      }
+    }
+    return RuleCandidateIndex.create(appView, effectivelyLiveClasses);
+  }
+
+  /**
+   * Returns the effectively live classes that may satisfy the given if-rule, either directly or
+   * through one of the classes that have been merged into them.
+   *
+   * <p>This only performs the checks of {@link #evaluateClassForIfRule} that do not have any side
+   * effects besides capturing the wildcards of the rule, such that it can run concurrently for
+   * different rules.
+   */
+  private List<DexProgramClass> findCandidatesForRule(
+      ProguardIfRule rule, RuleCandidateIndex index) {
+    int numberOfEvaluations = 0;
+    List<DexProgramClass> candidates = new ArrayList<>();
+    for (DexProgramClass clazz : rule.relevantCandidatesForRule(appView, subtypingInfo, () -> index)) {
+      if (!index.contains(clazz)) {
+        continue;
+      }
+      numberOfEvaluations++;
+      boolean isCandidate = mayEvaluateClassForIfRule(rule, clazz);
+      if (!isCandidate && appView.verticallyMergedClasses() != null) {
+        for (DexType sourceType : appView.verticallyMergedClasses().getSourcesFor(clazz.type)) {
+          DexProgramClass sourceClass = asProgramClassOrNull(appView.definitionFor(sourceType));
+          if (sourceClass != null) {
+            numberOfEvaluations++;
+            if (mayEvaluateClassForIfRule(rule, sourceClass)) {
+              isCandidate = true;
+              break;
+            }
+          }
+        }
+      }
+      if (isCandidate) {
+        candidates.add(clazz);
+      }
+    }
+    if (appView.options().testing.measureProguardIfRuleEvaluations) {
+      ProguardIfRuleEvaluationData ifRuleEvaluationData =
+          appView.options().testing.proguardIfRuleEvaluationData;
+      synchronized (ifRuleEvaluationData) {
+        ifRuleEvaluationData.numberOfProguardIfRuleClassEvaluations += numberOfEvaluations;
+      }
+    }
+    return candidates;
+  }
+
+  /** Returns false if {@param clazz} cannot satisfy the given if-rule class specification. */
+  private static boolean mayEvaluateClassForIfRule(ProguardIfRule rule, DexProgramClass clazz) {
+    if (!RootSetBuilder.satisfyClassType(rule, clazz)
+        || !RootSetBuilder.satisfyAccessFlag(rule, clazz)) {
+      return false;
+    }
+    AnnotationMatchResult annotationMatchResult = RootSetBuilder.satisfyAnnotation(rule, clazz);
+    if (annotationMatchResult == null) {
+      return false;
+    }
+    // The evaluation of a class with matching annotations has the side effect of retaining the
+    // annotations, even if the class name does not match.
+    return annotationMatchResult.isConcreteAnnotationMatchResult()
+        || rule.getClassNames().matches(clazz.type);
+  }
+
   private boolean canRemoveSubsequentKeepRule(ProguardIfRule rule) {
     // We cannot remove an if-rule if there is a kept graph consumer, otherwise we would not record
     // all edges.
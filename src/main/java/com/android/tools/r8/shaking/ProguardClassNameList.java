@@ -5,16 +5,20 @@ package com.android.tools.r8.shaking;
 
 import com.android.tools.r8.graph.DexItemFactory;
 import com.android.tools.r8.graph.DexType;
+import com.android.tools.r8.utils.SetUtils;
 import com.android.tools.r8.utils.TraversalContinuation;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import it.unimi.dsi.fastutil.objects.Object2BooleanArrayMap;
 import it.unimi.dsi.fastutil.objects.Object2BooleanMap;
 import it.unimi.dsi.fastutil.objects.Object2BooleanMap.Entry;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -86,6 +90,24 @@ public abstract class ProguardClassNameList {
 
   public abstract boolean matches(DexType type);
 
+  /**
+   * Returns source name prefixes such that every type matched by this list starts with one of the
+   * prefixes, or null if the matched types cannot be restricted by prefixes.
+   */
+  public abstract Set<String> getSourceNamePrefixes();
+
+  static Set<String> getSourceNamePrefixes(Iterable<ProguardTypeMatcher> matchers) {
+    Set<String> prefixes = new HashSet<>();
+    for (ProguardTypeMatcher matcher : matchers) {
+      String prefix = matcher.getSourceNamePrefix();
+      if (prefix.isEmpty()) {
+        return null;
+      }
+      prefixes.add(prefix);
+    }
+    return prefixes;
+  }
+
   protected Iterable<ProguardWildcard> getWildcards() {
     return Collections::emptyIterator;
   }
@@ -163,6 +185,11 @@ public abstract class ProguardClassNameList {
       return false;
     }
 
+    @Override
+    public Set<String> getSourceNamePrefixes() {
+      return Collections.emptySet();
+    }
+
     @Override
     public void forEachTypeMatcher(Consumer<ProguardTypeMatcher> consumer) {
     }
@@ -220,6 +247,11 @@ public abstract class ProguardClassNameList {
       return className.matches(type);
     }
 
+    @Override
+    public Set<String> getSourceNamePrefixes() {
+      return getSourceNamePrefixes(Collections.singletonList(className));
+    }
+
     @Override
     protected Iterable<ProguardWildcard> getWildcards() {
       return className.getWildcards();
@@ -245,9 +277,13 @@ public abstract class ProguardClassNameList {
   private static class PositiveClassNameList extends ProguardClassNameList {
 
     private final ImmutableList<ProguardTypeMatcher> classNames;
+    // The types of the class names if all class names are specific types, otherwise null.
+    private final Set<DexType> specificTypes;
 
     private PositiveClassNameList(Collection<ProguardTypeMatcher> classNames) {
       this.classNames = ImmutableList.copyOf(classNames);
+      List<DexType> types = asSpecificDexTypes();
+      this.specificTypes = types != null ? SetUtils.newIdentityHashSet(types) : null;
     }
 
     @Override
@@ -295,7 +331,20 @@ public abstract class ProguardClassNameList {
 
     @Override
     public boolean matches(DexType type) {
-      return classNames.stream().anyMatch(name -> name.matches(type));
+      if (specificTypes != null) {
+        return specificTypes.contains(type);
+      }
+      for (ProguardTypeMatcher className : classNames) {
+        if (className.matches(type)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public Set<String> getSourceNamePrefixes() {
+      return getSourceNamePrefixes(classNames);
     }
 
     @Override
@@ -394,6 +443,20 @@ public abstract class ProguardClassNameList {
       return lastWasNegated;
     }
 
+    @Override
+    public Set<String> getSourceNamePrefixes() {
+      // Types that are not matched by any of the names are matched if the last name is negated.
+      List<ProguardTypeMatcher> positiveClassNames = new ArrayList<>();
+      boolean lastWasNegated = false;
+      for (Entry<ProguardTypeMatcher> className : classNames.object2BooleanEntrySet()) {
+        if (!className.getBooleanValue()) {
+          positiveClassNames.add(className.getKey());
+        }
+        lastWasNegated = className.getBooleanValue();
+      }
+      return lastWasNegated ? null : getSourceNamePrefixes(positiveClassNames);
+    }
+
     @Override
     protected Iterable<ProguardWildcard> getWildcards() {
       return classNames.keySet().stream()
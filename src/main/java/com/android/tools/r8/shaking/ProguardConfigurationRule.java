@@ -19,6 +19,7 @@ import com.google.common.collect.Iterables;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
 import java.util.stream.StreamSupport;
 
 public abstract class ProguardConfigurationRule extends ProguardClassSpecification {
@@ -113,7 +114,7 @@ public abstract class ProguardConfigurationRule extends ProguardClassSpecificati
   Iterable<DexProgramClass> relevantCandidatesForRule(
       AppView<? extends AppInfoWithClassHierarchy> appView,
       SubtypingInfo subtypingInfo,
-      Iterable<DexProgramClass> defaultValue) {
+      Supplier<RuleCandidateIndex> candidateIndex) {
     List<DexType> specificTypes = getClassNames().asSpecificDexTypes();
     if (specificTypes != null) {
       return DexProgramClass.asProgramClasses(
@@ -147,7 +148,7 @@ public abstract class ProguardConfigurationRule extends ProguardClassSpecificati
         return DexProgramClass.asProgramClasses(subtypingInfo.subtypes(type), appView);
       }
     }
-    return defaultValue;
+    return candidateIndex.get().getCandidates(this);
   }
 
   abstract String typeString();
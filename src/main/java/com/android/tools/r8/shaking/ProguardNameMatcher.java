@@ -4,7 +4,6 @@
 package com.android.tools.r8.shaking;
 
 import com.android.tools.r8.shaking.ProguardConfigurationParser.IdentifierPatternWithWildcards;
-import com.android.tools.r8.shaking.ProguardWildcard.BackReference;
 import com.android.tools.r8.shaking.ProguardWildcard.Pattern;
 import com.google.common.collect.ImmutableList;
 import java.util.Collections;
@@ -29,64 +28,6 @@ public abstract class ProguardNameMatcher {
     }
   }
 
-  private static boolean matchFieldOrMethodNameImpl(
-      String pattern, int patternIndex,
-      String name, int nameIndex,
-      List<ProguardWildcard> wildcards, int wildcardIndex) {
-    ProguardWildcard wildcard;
-    Pattern wildcardPattern;
-    BackReference backReference;
-    for (int i = patternIndex; i < pattern.length(); i++) {
-      char patternChar = pattern.charAt(i);
-      switch (patternChar) {
-        case '*':
-          wildcard = wildcards.get(wildcardIndex);
-          assert wildcard.isPattern();
-          wildcardPattern = wildcard.asPattern();
-          // Match the rest of the pattern against the rest of the name.
-          for (int nextNameIndex = nameIndex; nextNameIndex <= name.length(); nextNameIndex++) {
-            wildcardPattern.setCaptured(name.substring(nameIndex, nextNameIndex));
-            if (matchFieldOrMethodNameImpl(
-                pattern, i + 1, name, nextNameIndex, wildcards, wildcardIndex + 1)) {
-              return true;
-            }
-          }
-          return false;
-        case '?':
-          wildcard = wildcards.get(wildcardIndex);
-          assert wildcard.isPattern();
-          if (nameIndex == name.length()) {
-            return false;
-          }
-          wildcardPattern = wildcard.asPattern();
-          wildcardPattern.setCaptured(name.substring(nameIndex, nameIndex + 1));
-          nameIndex++;
-          wildcardIndex++;
-          break;
-        case '<':
-          wildcard = wildcards.get(wildcardIndex);
-          assert wildcard.isBackReference();
-          backReference = wildcard.asBackReference();
-          String captured = backReference.getCaptured();
-          if (captured == null
-              || name.length() < nameIndex + captured.length()
-              || !captured.equals(name.substring(nameIndex, nameIndex + captured.length()))) {
-            return false;
-          }
-          nameIndex = nameIndex + captured.length();
-          wildcardIndex++;
-          i = pattern.indexOf(">", i);
-          break;
-        default:
-          if (nameIndex == name.length() || patternChar != name.charAt(nameIndex++)) {
-            return false;
-          }
-          break;
-      }
-    }
-    return nameIndex == name.length();
-  }
-
   public abstract boolean matches(String name);
 
   protected Iterable<ProguardWildcard> getWildcards() {
@@ -138,19 +79,18 @@ public abstract class ProguardNameMatcher {
 
     private final String pattern;
     private final List<ProguardWildcard> wildcards;
+    private final ProguardNamePattern compiledPattern;
 
     MatchNamePattern(IdentifierPatternWithWildcards identifierPatternWithWildcards) {
       this.pattern = identifierPatternWithWildcards.pattern;
       this.wildcards = identifierPatternWithWildcards.wildcards;
+      this.compiledPattern =
+          ProguardNamePattern.compile(pattern, wildcards, ProguardNamePattern.Kind.MEMBER);
     }
 
     @Override
     public boolean matches(String name) {
-      boolean matched = matchFieldOrMethodNameImpl(pattern, 0, name, 0, wildcards, 0);
-      if (!matched) {
-        wildcards.forEach(ProguardWildcard::clearCaptured);
-      }
-      return matched;
+      return compiledPattern.matches(name);
     }
 
     @Override
@@ -0,0 +1,302 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.shaking;
+
+import com.android.tools.r8.shaking.ProguardWildcard.Pattern;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A member, class or type name pattern with wildcards, compiled into a sequence of literal and
+ * wildcard segments.
+ *
+ * <p>The literal prefix and suffix of the pattern and the minimal length of a matching name are
+ * computed when the pattern is compiled, such that most names are rejected without backtracking.
+ * While matching, the parts of the name captured by the wildcards are only recorded as positions in
+ * the name. The captured strings are stored in the wildcards when the name matches, and the
+ * captured strings are cleared when it does not, as for the {@link ProguardWildcard} interface.
+ */
+class ProguardNamePattern {
+
+  enum Kind {
+    // Field and method names, where '*' matches any part of the name.
+    MEMBER,
+    // Class names, where '*' does not match package separators and '**' does.
+    CLASS,
+    // Types, where '*' and '**' in addition do not match array types and '***' does.
+    TYPE
+  }
+
+  private static final byte LITERAL = 0;
+  private static final byte ANY_CHARACTER = 1;
+  private static final byte SINGLE_ASTERISK = 2;
+  private static final byte DOUBLE_ASTERISK = 3;
+  private static final byte TRIPLE_ASTERISK = 4;
+  private static final byte BACK_REFERENCE = 5;
+
+  private static final int NO_WILDCARD = -1;
+
+  private final Kind kind;
+  private final List<ProguardWildcard> wildcards;
+
+  // The segments of the pattern. Literal segments have the literal text, and wildcard segments
+  // have the index of their wildcard in the list of wildcards.
+  private final byte[] segmentKinds;
+  private final String[] literals;
+  private final int[] wildcardIndices;
+
+  private final String prefix;
+  private final String suffix;
+  private final int minimumLength;
+
+  private ProguardNamePattern(
+      Kind kind,
+      List<ProguardWildcard> wildcards,
+      byte[] segmentKinds,
+      String[] literals,
+      int[] wildcardIndices) {
+    this.kind = kind;
+    this.wildcards = wildcards;
+    this.segmentKinds = segmentKinds;
+    this.literals = literals;
+    this.wildcardIndices = wildcardIndices;
+    int last = segmentKinds.length - 1;
+    this.prefix = last >= 0 && segmentKinds[0] == LITERAL ? literals[0] : "";
+    this.suffix = last > 0 && segmentKinds[last] == LITERAL ? literals[last] : "";
+    int minimumLength = 0;
+    for (int segment = 0; segment <= last; segment++) {
+      if (segmentKinds[segment] == LITERAL) {
+        minimumLength += literals[segment].length();
+      } else if (segmentKinds[segment] == ANY_CHARACTER) {
+        minimumLength++;
+      }
+    }
+    this.minimumLength = minimumLength;
+  }
+
+  static ProguardNamePattern compile(String pattern, List<ProguardWildcard> wildcards, Kind kind) {
+    List<Byte> segmentKinds = new ArrayList<>();
+    List<String> literals = new ArrayList<>();
+    List<Integer> wildcardIndices = new ArrayList<>();
+    StringBuilder literal = new StringBuilder();
+    int wildcardIndex = 0;
+    for (int i = 0; i < pattern.length(); i++) {
+      char patternChar = pattern.charAt(i);
+      byte segmentKind;
+      if (patternChar == '*') {
+        // In class and type names up to three consecutive asterisks form a single wildcard.
+        int asterisks = 1;
+        while (kind != Kind.MEMBER
+            && asterisks < 3
+            && i + asterisks < pattern.length()
+            && pattern.charAt(i + asterisks) == '*') {
+          asterisks++;
+        }
+        segmentKind =
+            asterisks == 1
+                ? SINGLE_ASTERISK
+                : asterisks == 2 ? DOUBLE_ASTERISK : TRIPLE_ASTERISK;
+        i += asterisks - 1;
+      } else if (patternChar == '?') {
+        segmentKind = ANY_CHARACTER;
+      } else if (patternChar == '<'
+          && wildcardIndex < wildcards.size()
+          && wildcards.get(wildcardIndex).isBackReference()) {
+        segmentKind = BACK_REFERENCE;
+        i = pattern.indexOf('>', i);
+        assert i >= 0;
+      } else {
+        literal.append(patternChar);
+        continue;
+      }
+      if (literal.length() > 0) {
+        segmentKinds.add(LITERAL);
+        literals.add(literal.toString());
+        wildcardIndices.add(NO_WILDCARD);
+        literal.setLength(0);
+      }
+      segmentKinds.add(segmentKind);
+      literals.add(null);
+      wildcardIndices.add(wildcardIndex < wildcards.size() ? wildcardIndex : NO_WILDCARD);
+      wildcardIndex++;
+    }
+    if (literal.length() > 0) {
+      segmentKinds.add(LITERAL);
+      literals.add(literal.toString());
+      wildcardIndices.add(NO_WILDCARD);
+    }
+    byte[] segmentKindsArray = new byte[segmentKinds.size()];
+    int[] wildcardIndicesArray = new int[wildcardIndices.size()];
+    for (int segment = 0; segment < segmentKindsArray.length; segment++) {
+      segmentKindsArray[segment] = segmentKinds.get(segment);
+      wildcardIndicesArray[segment] = wildcardIndices.get(segment);
+    }
+    return new ProguardNamePattern(
+        kind,
+        wildcards,
+        segmentKindsArray,
+        literals.toArray(new String[0]),
+        wildcardIndicesArray);
+  }
+
+  boolean matches(String name) {
+    if (name.length() < minimumLength || !name.startsWith(prefix) || !name.endsWith(suffix)) {
+      wildcards.forEach(ProguardWildcard::clearCaptured);
+      return false;
+    }
+    // The start and end of the part of the name captured by each wildcard.
+    int[] captures = new int[2 * wildcards.size()];
+    Arrays.fill(captures, -1);
+    if (!matches(name, 0, 0, captures)) {
+      wildcards.forEach(ProguardWildcard::clearCaptured);
+      return false;
+    }
+    for (int i = 0; i < wildcards.size(); i++) {
+      ProguardWildcard wildcard = wildcards.get(i);
+      if (wildcard.isPattern() && captures[2 * i] >= 0) {
+        wildcard.setCaptured(name.substring(captures[2 * i], captures[2 * i + 1]));
+      }
+    }
+    return true;
+  }
+
+  private boolean matches(String name, int segment, int nameIndex, int[] captures) {
+    for (; segment < segmentKinds.length; segment++) {
+      switch (segmentKinds[segment]) {
+        case LITERAL:
+          String literal = literals[segment];
+          if (!name.startsWith(literal, nameIndex)) {
+            return false;
+          }
+          nameIndex += literal.length();
+          break;
+
+        case ANY_CHARACTER:
+          if (nameIndex == name.length()
+              || (kind != Kind.MEMBER && name.charAt(nameIndex) == '.')) {
+            return false;
+          }
+          capture(segment, nameIndex, nameIndex + 1, captures);
+          nameIndex++;
+          break;
+
+        case BACK_REFERENCE:
+          if (!matchesBackReference(name, segment, nameIndex, captures)) {
+            return false;
+          }
+          nameIndex += getCapturedLength(segment, captures);
+          break;
+
+        default:
+          return matchesAsterisk(name, segment, nameIndex, captures);
+      }
+    }
+    return nameIndex == name.length();
+  }
+
+  private boolean matchesAsterisk(String name, int segment, int nameIndex, int[] captures) {
+    byte segmentKind = segmentKinds[segment];
+    int nextSegment = segment + 1;
+
+    // Fast cases for the common case where a pattern ends with '*', '**', or '***'.
+    if (nextSegment == segmentKinds.length) {
+      capture(segment, nameIndex, name.length(), captures);
+      if (kind == Kind.MEMBER || segmentKind == TRIPLE_ASTERISK) {
+        return true;
+      }
+      boolean matchesArrayType = kind == Kind.CLASS || !isArrayType(name);
+      if (segmentKind == DOUBLE_ASTERISK) {
+        return matchesArrayType;
+      }
+      return name.indexOf('.', nameIndex) < 0 && matchesArrayType;
+    }
+
+    if (kind == Kind.MEMBER) {
+      for (int nextNameIndex = nameIndex; nextNameIndex <= name.length(); nextNameIndex++) {
+        if (canMatchAt(name, nextSegment, nextNameIndex)) {
+          capture(segment, nameIndex, nextNameIndex, captures);
+          if (matches(name, nextSegment, nextNameIndex, captures)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    // Match the rest of the pattern against the (non-empty) rest of the class name.
+    for (int nextNameIndex = nameIndex; nextNameIndex < name.length(); nextNameIndex++) {
+      char nameChar = name.charAt(nextNameIndex);
+      boolean isLastCandidate =
+          (segmentKind == SINGLE_ASTERISK && nameChar == '.')
+              || (kind == Kind.TYPE && nameChar == '[');
+      if (canMatchAt(name, nextSegment, nextNameIndex)) {
+        capture(segment, nameIndex, nextNameIndex, captures);
+        if (matches(name, nextSegment, nextNameIndex, captures)) {
+          return true;
+        }
+      }
+      if (isLastCandidate) {
+        return false;
+      }
+    }
+
+    // Finally, check the case where the '*', '**', or '***' eats all of the class name.
+    capture(segment, nameIndex, name.length(), captures);
+    return matches(name, nextSegment, name.length(), captures);
+  }
+
+  // Returns false if the given segment is a literal that does not occur at the given index.
+  private boolean canMatchAt(String name, int segment, int nameIndex) {
+    return segmentKinds[segment] != LITERAL || name.startsWith(literals[segment], nameIndex);
+  }
+
+  private void capture(int segment, int start, int end, int[] captures) {
+    int wildcardIndex = wildcardIndices[segment];
+    if (wildcardIndex != NO_WILDCARD) {
+      captures[2 * wildcardIndex] = start;
+      captures[2 * wildcardIndex + 1] = end;
+    }
+  }
+
+  // Returns the index of the wildcard of this pattern that is referred to by the back reference of
+  // the given segment, if it has been captured while matching the current name.
+  private int getLocalReferenceIndex(int segment, int[] captures) {
+    int wildcardIndex = wildcardIndices[segment];
+    Pattern reference = wildcards.get(wildcardIndex).asBackReference().reference;
+    for (int i = 0; i < wildcardIndex; i++) {
+      if (wildcards.get(i) == reference && captures[2 * i] >= 0) {
+        return i;
+      }
+    }
+    return NO_WILDCARD;
+  }
+
+  private boolean matchesBackReference(String name, int segment, int nameIndex, int[] captures) {
+    int referenceIndex = getLocalReferenceIndex(segment, captures);
+    if (referenceIndex != NO_WILDCARD) {
+      int start = captures[2 * referenceIndex];
+      int length = captures[2 * referenceIndex + 1] - start;
+      return name.regionMatches(nameIndex, name, start, length);
+    }
+    String captured = wildcards.get(wildcardIndices[segment]).getCaptured();
+    return captured != null && name.startsWith(captured, nameIndex);
+  }
+
+  private int getCapturedLength(int segment, int[] captures) {
+    int referenceIndex = getLocalReferenceIndex(segment, captures);
+    if (referenceIndex != NO_WILDCARD) {
+      return captures[2 * referenceIndex + 1] - captures[2 * referenceIndex];
+    }
+    return wildcards.get(wildcardIndices[segment]).getCaptured().length();
+  }
+
+  private static boolean isArrayType(String type) {
+    int length = type.length();
+    if (length < 2) {
+      return false;
+    }
+    return type.charAt(length - 1) == ']' && type.charAt(length - 2) == '[';
+  }
+}
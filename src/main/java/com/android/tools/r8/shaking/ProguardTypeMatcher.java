@@ -147,6 +147,12 @@ public abstract class ProguardTypeMatcher {
     return getSpecificType() != null;
   }
 
+  // Returns a prefix of the source name of every type that is matched by this matcher. The empty
+  // prefix is returned if the matched types do not share a prefix.
+  public String getSourceNamePrefix() {
+    return "";
+  }
+
   private static class MatchAllTypes extends ProguardTypeMatcher {
 
     private static final ProguardTypeMatcher MATCH_ALL_TYPES = new MatchAllTypes();
@@ -372,6 +378,11 @@ public abstract class ProguardTypeMatcher {
     public DexType getSpecificType() {
       return type;
     }
+
+    @Override
+    public String getSourceNamePrefix() {
+      return type.toSourceString();
+    }
   }
 
   private static class MatchTypePattern extends ProguardTypeMatcher {
@@ -379,23 +390,37 @@ public abstract class ProguardTypeMatcher {
     private final String pattern;
     private final List<ProguardWildcard> wildcards;
     private final ClassOrType kind;
+    private final ProguardNamePattern compiledPattern;
 
     private MatchTypePattern(
         IdentifierPatternWithWildcards identifierPatternWithWildcards, ClassOrType kind) {
       this.pattern = identifierPatternWithWildcards.pattern;
       this.wildcards = identifierPatternWithWildcards.wildcards;
       this.kind = kind;
+      this.compiledPattern =
+          ProguardNamePattern.compile(
+              pattern,
+              wildcards,
+              kind == ClassOrType.CLASS
+                  ? ProguardNamePattern.Kind.CLASS
+                  : ProguardNamePattern.Kind.TYPE);
     }
 
     @Override
     public boolean matches(DexType type) {
       // TODO(herhut): Translate pattern to work on descriptors instead.
-      String typeName = type.toSourceString();
-      boolean matched = matchClassOrTypeNameImpl(pattern, 0, typeName, 0, wildcards, 0, kind);
-      if (!matched) {
-        wildcards.forEach(ProguardWildcard::clearCaptured);
+      return compiledPattern.matches(type.toSourceString());
+    }
+
+    @Override
+    public String getSourceNamePrefix() {
+      for (int i = 0; i < pattern.length(); i++) {
+        char patternChar = pattern.charAt(i);
+        if (patternChar == '*' || patternChar == '?' || patternChar == '<') {
+          return pattern.substring(0, i);
+        }
       }
-      return matched;
+      return pattern;
     }
 
     @Override
@@ -488,126 +513,6 @@ public abstract class ProguardTypeMatcher {
       return builder.toString();
     }
 
-    private static boolean matchClassOrTypeNameImpl(
-        String pattern, int patternIndex,
-        String name, int nameIndex,
-        List<ProguardWildcard> wildcards, int wildcardIndex,
-        ClassOrType kind) {
-      ProguardWildcard wildcard;
-      Pattern wildcardPattern;
-      BackReference backReference;
-      for (int i = patternIndex; i < pattern.length(); i++) {
-        char patternChar = pattern.charAt(i);
-        switch (patternChar) {
-          case '*':
-            wildcard = wildcards.get(wildcardIndex);
-            assert wildcard.isPattern();
-            wildcardPattern = wildcard.asPattern();
-
-            boolean includeSeparators = pattern.length() > (i + 1) && pattern.charAt(i + 1) == '*';
-            boolean includeAll =
-                includeSeparators && pattern.length() > (i + 2) && pattern.charAt(i + 2) == '*';
-            int nextPatternIndex = i + 1;
-            if (includeAll) {
-              nextPatternIndex += 2;
-            } else if (includeSeparators) {
-              nextPatternIndex += 1;
-            }
-
-            // Fast cases for the common case where a pattern ends with  '*', '**', or '***'.
-            if (nextPatternIndex == pattern.length()) {
-              wildcardPattern.setCaptured(name.substring(nameIndex));
-              if (includeAll) {
-                return true;
-              }
-              if (includeSeparators) {
-                return kind == ClassOrType.CLASS || !isArrayType(name);
-              }
-              boolean hasSeparators = containsSeparatorsStartingAt(name, nameIndex);
-              return !hasSeparators && (kind == ClassOrType.CLASS || !isArrayType(name));
-            }
-
-            // Match the rest of the pattern against the (non-empty) rest of the class name.
-            for (int nextNameIndex = nameIndex; nextNameIndex < name.length(); nextNameIndex++) {
-              wildcardPattern.setCaptured(name.substring(nameIndex, nextNameIndex));
-              if (!includeSeparators) {
-                if (name.charAt(nextNameIndex) == '.') {
-                  return matchClassOrTypeNameImpl(
-                      pattern,
-                      nextPatternIndex,
-                      name,
-                      nextNameIndex,
-                      wildcards,
-                      wildcardIndex + 1,
-                      kind);
-                }
-              }
-              if (kind == ClassOrType.TYPE && name.charAt(nextNameIndex) == '[') {
-                return matchClassOrTypeNameImpl(
-                    pattern, nextPatternIndex, name, nextNameIndex, wildcards, wildcardIndex + 1,
-                    kind);
-              }
-              if (matchClassOrTypeNameImpl(
-                  pattern, nextPatternIndex, name, nextNameIndex, wildcards, wildcardIndex + 1,
-                  kind)) {
-                return true;
-              }
-            }
-
-            // Finally, check the case where the '*', '**', or '***' eats all of the class name.
-            wildcardPattern.setCaptured(name.substring(nameIndex));
-            return matchClassOrTypeNameImpl(
-                pattern, nextPatternIndex, name, name.length(), wildcards, wildcardIndex + 1, kind);
-
-          case '?':
-            wildcard = wildcards.get(wildcardIndex);
-            assert wildcard.isPattern();
-            if (nameIndex == name.length() || name.charAt(nameIndex) == '.') {
-              return false;
-            }
-            wildcardPattern = wildcard.asPattern();
-            wildcardPattern.setCaptured(name.substring(nameIndex, nameIndex + 1));
-            nameIndex++;
-            wildcardIndex++;
-            break;
-
-          case '<':
-            wildcard = wildcards.get(wildcardIndex);
-            assert wildcard.isBackReference();
-            backReference = wildcard.asBackReference();
-            String captured = backReference.getCaptured();
-            if (captured == null
-                || name.length() < nameIndex + captured.length()
-                || !captured.equals(name.substring(nameIndex, nameIndex + captured.length()))) {
-              return false;
-            }
-            nameIndex = nameIndex + captured.length();
-            wildcardIndex++;
-            i = pattern.indexOf(">", i);
-            break;
-
-          default:
-            if (nameIndex == name.length() || patternChar != name.charAt(nameIndex++)) {
-              return false;
-            }
-            break;
-        }
-      }
-      return nameIndex == name.length();
-    }
-
-    private static boolean containsSeparatorsStartingAt(String className, int nameIndex) {
-      return className.indexOf('.', nameIndex) != -1;
-    }
-
-    private static boolean isArrayType(String type) {
-      int length = type.length();
-      if (length < 2) {
-        return false;
-      }
-      return type.charAt(length - 1) == ']' && type.charAt(length - 2) == '[';
-    }
-
     @Override
     public String toString() {
       return pattern;
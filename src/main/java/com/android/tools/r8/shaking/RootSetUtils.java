@@ -49,6 +49,7 @@ import com.android.tools.r8.utils.PredicateSet;
 import com.android.tools.r8.utils.StringDiagnostic;
 import com.android.tools.r8.utils.ThreadUtils;
 import com.google.common.base.Equivalence.Wrapper;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -79,6 +80,7 @@ import java.util.concurrent.Future;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class RootSetUtils {
@@ -128,6 +130,10 @@ public class RootSetUtils {
     private final DexStringCache dexStringCache = new DexStringCache();
     private final Set<ProguardIfRule> ifRules = Sets.newIdentityHashSet();
 
+    // Index of the program classes, created on demand when the candidates of a rule that names
+    // neither specific classes nor a specific inheritance class are looked up by a rule task.
+    private final Supplier<RuleCandidateIndex> candidateIndex;
+
     private final Map<OriginWithPosition, Set<DexMethod>> assumeNoSideEffectsWarnings =
         new LinkedHashMap<>();
 
@@ -142,6 +148,8 @@ public class RootSetUtils {
       this.application = appView.appInfo().app().asDirect();
       this.rules = rules;
       this.options = appView.options();
+      this.candidateIndex =
+          Suppliers.memoize(() -> RuleCandidateIndex.create(appView, application.classes()));
     }
 
     private RootSetBuilder(
@@ -294,7 +302,7 @@ public class RootSetUtils {
           executorService.submit(
               () -> {
                 for (DexProgramClass clazz :
-                    rule.relevantCandidatesForRule(appView, subtypingInfo, application.classes())) {
+                    rule.relevantCandidatesForRule(appView, subtypingInfo, candidateIndex)) {
                   process(clazz, rule, ifRule);
                 }
                 if (rule.applyToNonProgramClasses()) {
@@ -0,0 +1,169 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.shaking;
+
+import static com.android.tools.r8.graph.DexProgramClass.asProgramClassOrNull;
+
+import com.android.tools.r8.graph.AppView;
+import com.android.tools.r8.graph.DexAnnotation;
+import com.android.tools.r8.graph.DexProgramClass;
+import com.android.tools.r8.graph.DexType;
+import com.google.common.collect.Sets;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of program classes used to find the classes that may satisfy the class specification of a
+ * rule without matching the rule against all classes.
+ *
+ * <p>Classes are indexed by their source name and by the types of their class annotations. If
+ * classes have been vertically merged, the target class is also indexed by the names and
+ * annotations of the classes merged into it, since these are also matched by the {@link
+ * IfRuleEvaluator}. The candidates for a rule may thus include classes that do not satisfy it.
+ */
+class RuleCandidateIndex {
+
+  // The indexed classes in the order of the application.
+  private final List<DexProgramClass> classes;
+  private final Reference2IntMap<DexProgramClass> positions;
+
+  // The source names of the indexed classes (and their merged sources) in sorted order, and the
+  // classes they map to.
+  private final String[] sortedNames;
+  private final DexProgramClass[] classesForSortedNames;
+
+  private final Map<DexType, List<DexProgramClass>> classesByAnnotationType;
+
+  private RuleCandidateIndex(
+      List<DexProgramClass> classes,
+      Reference2IntMap<DexProgramClass> positions,
+      String[] sortedNames,
+      DexProgramClass[] classesForSortedNames,
+      Map<DexType, List<DexProgramClass>> classesByAnnotationType) {
+    this.classes = classes;
+    this.positions = positions;
+    this.sortedNames = sortedNames;
+    this.classesForSortedNames = classesForSortedNames;
+    this.classesByAnnotationType = classesByAnnotationType;
+  }
+
+  static RuleCandidateIndex create(AppView<?> appView, List<DexProgramClass> classes) {
+    Reference2IntMap<DexProgramClass> positions = new Reference2IntOpenHashMap<>(classes.size());
+    List<NamedClass> namedClasses = new ArrayList<>(classes.size());
+    Map<DexType, List<DexProgramClass>> classesByAnnotationType = new IdentityHashMap<>();
+    for (DexProgramClass clazz : classes) {
+      positions.put(clazz, positions.size());
+      Set<DexType> annotationTypes = Sets.newIdentityHashSet();
+      addNameAndAnnotations(clazz, clazz, namedClasses, annotationTypes);
+      if (appView.verticallyMergedClasses() != null) {
+        for (DexType sourceType : appView.verticallyMergedClasses().getSourcesFor(clazz.type)) {
+          DexProgramClass sourceClass = asProgramClassOrNull(appView.definitionFor(sourceType));
+          if (sourceClass != null) {
+            addNameAndAnnotations(sourceClass, clazz, namedClasses, annotationTypes);
+          }
+        }
+      }
+      for (DexType annotationType : annotationTypes) {
+        classesByAnnotationType
+            .computeIfAbsent(annotationType, ignore -> new ArrayList<>())
+            .add(clazz);
+      }
+    }
+    namedClasses.sort(Comparator.comparing(namedClass -> namedClass.name));
+    String[] sortedNames = new String[namedClasses.size()];
+    DexProgramClass[] classesForSortedNames = new DexProgramClass[namedClasses.size()];
+    for (int i = 0; i < namedClasses.size(); i++) {
+      sortedNames[i] = namedClasses.get(i).name;
+      classesForSortedNames[i] = namedClasses.get(i).clazz;
+    }
+    return new RuleCandidateIndex(
+        classes, positions, sortedNames, classesForSortedNames, classesByAnnotationType);
+  }
+
+  private static void addNameAndAnnotations(
+      DexProgramClass clazz,
+      DexProgramClass target,
+      List<NamedClass> namedClasses,
+      Set<DexType> annotationTypes) {
+    namedClasses.add(new NamedClass(clazz.type.toSourceString(), target));
+    for (DexAnnotation annotation : clazz.annotations().annotations) {
+      annotationTypes.add(annotation.getAnnotationType());
+    }
+  }
+
+  boolean contains(DexProgramClass clazz) {
+    return positions.containsKey(clazz);
+  }
+
+  /**
+   * Returns the indexed classes that may satisfy the class specification of the given rule, in
+   * the order of the application.
+   */
+  List<DexProgramClass> getCandidates(ProguardConfigurationRule rule) {
+    // The annotations of a class are matched before its name, so only use the name index if the
+    // rule does not have any class annotations.
+    if (!rule.getClassAnnotations().isEmpty()) {
+      List<DexProgramClass> candidates = classes;
+      for (ProguardTypeMatcher annotation : rule.getClassAnnotations()) {
+        if (annotation.hasSpecificType()) {
+          List<DexProgramClass> annotatedClasses =
+              classesByAnnotationType.getOrDefault(
+                  annotation.getSpecificType(), Collections.emptyList());
+          if (annotatedClasses.size() < candidates.size()) {
+            candidates = annotatedClasses;
+          }
+        }
+      }
+      return candidates;
+    }
+    Set<String> prefixes = rule.getClassNames().getSourceNamePrefixes();
+    if (prefixes == null) {
+      return classes;
+    }
+    Set<DexProgramClass> candidates = Sets.newIdentityHashSet();
+    for (String prefix : prefixes) {
+      int index = lowerBound(prefix);
+      while (index < sortedNames.length && sortedNames[index].startsWith(prefix)) {
+        candidates.add(classesForSortedNames[index]);
+        index++;
+      }
+    }
+    List<DexProgramClass> result = new ArrayList<>(candidates);
+    result.sort(Comparator.comparingInt(positions::getInt));
+    return result;
+  }
+
+  // Returns the index of the first name that is not less than the given prefix.
+  private int lowerBound(String prefix) {
+    int low = 0;
+    int high = sortedNames.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (sortedNames[middle].compareTo(prefix) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static class NamedClass {
+
+    private final String name;
+    private final DexProgramClass clazz;
+
+    private NamedClass(String name, DexProgramClass clazz) {
+      this.name = name;
+      this.clazz = clazz;
+    }
+  }
+}
@@ -3,6 +3,8 @@
 // BSD-style license that can be found in the LICENSE file.
 package com.android.tools.r8.tracereferences;
 
+import static com.android.tools.r8.utils.ExceptionUtils.unwrapExecutionException;
+
 import com.android.tools.r8.CompilationFailedException;
 import com.android.tools.r8.Keep;
 import com.android.tools.r8.ProgramResource;
@@ -17,18 +19,27 @@ import com.android.tools.r8.utils.AndroidApp;
 import com.android.tools.r8.utils.ExceptionUtils;
 import com.android.tools.r8.utils.InternalOptions;
 import com.android.tools.r8.utils.StringUtils;
+import com.android.tools.r8.utils.ThreadUtils;
 import com.android.tools.r8.utils.Timing;
 import com.google.common.collect.ImmutableList;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 
 @Keep
 public class TraceReferences {
 
   public static void run(TraceReferencesCommand command) throws CompilationFailedException {
-    ExceptionUtils.withCompilationHandler(command.getReporter(), () -> runInternal(command));
+    run(command, options -> {});
+  }
+
+  static void run(TraceReferencesCommand command, Consumer<InternalOptions> optionsConsumer)
+      throws CompilationFailedException {
+    ExceptionUtils.withCompilationHandler(
+        command.getReporter(), () -> runInternal(command, optionsConsumer));
   }
 
   private static void forEachDescriptor(ProgramResourceProvider provider, Consumer<String> consumer)
@@ -54,7 +65,8 @@ public class TraceReferences {
     }
   }
 
-  private static void runInternal(TraceReferencesCommand command)
+  private static void runInternal(
+      TraceReferencesCommand command, Consumer<InternalOptions> optionsConsumer)
       throws IOException, ResourceException {
     AndroidApp.Builder builder = AndroidApp.builder();
     command.getLibrary().forEach(builder::addLibraryResourceProvider);
@@ -67,8 +79,18 @@ public class TraceReferences {
     for (ProgramResourceProvider provider : command.getSource()) {
       forEachDescriptor(provider, targetDescriptors::remove);
     }
-    Tracer tracer = new Tracer(targetDescriptors, builder.build(), command.getReporter());
-    tracer.run(command.getConsumer());
+    InternalOptions options = new InternalOptions();
+    optionsConsumer.accept(options);
+    Tracer tracer =
+        new Tracer(targetDescriptors, builder.build(), command.getReporter(), options);
+    ExecutorService executorService = ThreadUtils.getExecutorService(options);
+    try {
+      tracer.run(command.getConsumer(), executorService);
+    } catch (ExecutionException e) {
+      throw unwrapExecutionException(e);
+    } finally {
+      executorService.shutdown();
+    }
   }
 
   public static void run(String... args) throws CompilationFailedException {
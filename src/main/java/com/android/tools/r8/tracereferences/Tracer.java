@@ -7,8 +7,10 @@ import static com.android.tools.r8.graph.DexProgramClass.asProgramClassOrNull;
 
 import com.android.tools.r8.DiagnosticsHandler;
 import com.android.tools.r8.dex.ApplicationReader;
+import com.android.tools.r8.errors.Unreachable;
 import com.android.tools.r8.features.ClassToFeatureSplitMap;
 import com.android.tools.r8.graph.AppInfoWithClassHierarchy;
+import com.android.tools.r8.graph.Code;
 import com.android.tools.r8.graph.DexAnnotation;
 import com.android.tools.r8.graph.DexCallSite;
 import com.android.tools.r8.graph.DexClass;
@@ -30,6 +32,7 @@ import com.android.tools.r8.ir.desugar.LambdaDescriptor;
 import com.android.tools.r8.references.ClassReference;
 import com.android.tools.r8.references.FieldReference;
 import com.android.tools.r8.references.MethodReference;
+import com.android.tools.r8.references.PackageReference;
 import com.android.tools.r8.references.Reference;
 import com.android.tools.r8.shaking.MainDexInfo;
 import com.android.tools.r8.tracereferences.TraceReferencesConsumer.AccessFlags;
@@ -42,11 +45,17 @@ import com.android.tools.r8.tracereferences.TraceReferencesConsumer.TracedMethod
 import com.android.tools.r8.tracereferences.TraceReferencesConsumer.TracedReference;
 import com.android.tools.r8.utils.AndroidApp;
 import com.android.tools.r8.utils.InternalOptions;
+import com.android.tools.r8.utils.ThreadUtils;
 import com.android.tools.r8.utils.Timing;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 
 class Tracer {
 
@@ -223,14 +232,22 @@ class Tracer {
 
   private final Set<String> descriptors;
   private final DiagnosticsHandler diagnostics;
+  private final InternalOptions options;
   private final DirectMappedDexApplication application;
   private final AppInfoWithClassHierarchy appInfo;
-
-  Tracer(Set<String> descriptors, AndroidApp inputApp, DiagnosticsHandler diagnostics)
+  private final Set<ClassReference> missingClasses = new HashSet<>();
+  private final Set<FieldReference> missingFields = new HashSet<>();
+  private final Set<MethodReference> missingMethods = new HashSet<>();
+
+  Tracer(
+      Set<String> descriptors,
+      AndroidApp inputApp,
+      DiagnosticsHandler diagnostics,
+      InternalOptions options)
       throws IOException {
     this.descriptors = descriptors;
     this.diagnostics = diagnostics;
-    InternalOptions options = new InternalOptions();
+    this.options = options;
     application = new ApplicationReader(inputApp, options, Timing.empty()).read().toDirect();
     appInfo =
         AppInfoWithClassHierarchy.createInitialAppInfoWithClassHierarchy(
@@ -239,39 +256,122 @@ class Tracer {
             MainDexInfo.none());
   }
 
-  void run(TraceReferencesConsumer consumer) {
-    UseCollector useCollector = new UseCollector(appInfo.dexItemFactory(), consumer, diagnostics);
-    for (DexProgramClass clazz : application.classes()) {
-      useCollector.setContext(clazz);
-      useCollector.registerSuperType(clazz, clazz.superType);
-      for (DexType implementsType : clazz.interfaces.values) {
-        useCollector.registerSuperType(clazz, implementsType);
+  /**
+   * Traces the classes on the executor in batches of {@link
+   * InternalOptions#traceReferencesBatchSize} classes. The uses of each class are buffered, and
+   * after each batch they are passed to the consumer in the order of the classes, such that the
+   * consumer is called from a single thread and in the same order as when tracing sequentially.
+   */
+  void run(TraceReferencesConsumer consumer, ExecutorService executorService)
+      throws ExecutionException {
+    // The classes are traced in a deterministic order, since the order in which the classes are
+    // read depends on the threading.
+    List<DexProgramClass> classes = application.classesWithDeterministicOrder();
+    // The code of all methods in a class is parsed at once by LazyCfCode, and tracing a class can
+    // register the methods of other classes, so all code is parsed before tracing.
+    ThreadUtils.processItems(classes, Tracer::parseCode, executorService);
+    int batchSize = Math.max(1, options.traceReferencesBatchSize);
+    for (int start = 0; start < classes.size(); start += batchSize) {
+      List<DexProgramClass> batch =
+          classes.subList(start, Math.min(start + batchSize, classes.size()));
+      Collection<UseCollector> useCollectors =
+          ThreadUtils.processItemsWithResults(batch, this::traceClass, executorService);
+      for (UseCollector useCollector : useCollectors) {
+        useCollector.flush(consumer);
       }
-      clazz.forEachProgramMethod(useCollector::registerMethod);
-      clazz.forEachField(useCollector::registerField);
     }
     consumer.finished(diagnostics);
-    useCollector.reportMissingDefinitions();
+    reportMissingDefinitions();
+  }
+
+  private static void parseCode(DexProgramClass clazz) {
+    for (DexEncodedMethod method : clazz.methods()) {
+      Code code = method.getCode();
+      if (code != null && code.isLazyCfCode()) {
+        code.asLazyCfCode().asCfCode();
+        return;
+      }
+    }
+  }
+
+  private UseCollector traceClass(DexProgramClass clazz) {
+    UseCollector useCollector = new UseCollector(appInfo.dexItemFactory(), clazz, diagnostics);
+    useCollector.registerSuperType(clazz, clazz.superType);
+    for (DexType implementsType : clazz.interfaces.values) {
+      useCollector.registerSuperType(clazz, implementsType);
+    }
+    clazz.forEachProgramMethod(useCollector::registerMethod);
+    clazz.forEachField(useCollector::registerField);
+    return useCollector;
+  }
+
+  private void reportMissingDefinitions() {
+    if (missingClasses.size() > 0 || missingFields.size() > 0 || missingMethods.size() > 0) {
+      diagnostics.error(
+          new MissingDefinitionsDiagnostic(missingClasses, missingFields, missingMethods));
+    }
+  }
+
+  /** Buffers the uses found when tracing a single class until they are passed to the consumer. */
+  private static class TracedUsesBuffer implements TraceReferencesConsumer {
+
+    private final List<Consumer<TraceReferencesConsumer>> uses = new ArrayList<>();
+
+    @Override
+    public void acceptType(TracedClass tracedClass, DiagnosticsHandler handler) {
+      uses.add(consumer -> consumer.acceptType(tracedClass, handler));
+    }
+
+    @Override
+    public void acceptField(TracedField tracedField, DiagnosticsHandler handler) {
+      uses.add(consumer -> consumer.acceptField(tracedField, handler));
+    }
+
+    @Override
+    public void acceptMethod(TracedMethod tracedMethod, DiagnosticsHandler handler) {
+      uses.add(consumer -> consumer.acceptMethod(tracedMethod, handler));
+    }
+
+    @Override
+    public void acceptPackage(PackageReference pkg, DiagnosticsHandler handler) {
+      uses.add(consumer -> consumer.acceptPackage(pkg, handler));
+    }
+
+    @Override
+    public void finished(DiagnosticsHandler handler) {
+      throw new Unreachable();
+    }
+
+    void flush(TraceReferencesConsumer consumer) {
+      uses.forEach(use -> use.accept(consumer));
+      uses.clear();
+    }
   }
 
   class UseCollector extends UseRegistry {
 
     private DexItemFactory factory;
-    private final TraceReferencesConsumer consumer;
-    private DexProgramClass context;
+    private final TracedUsesBuffer consumer = new TracedUsesBuffer();
+    private final DexProgramClass context;
     private final DiagnosticsHandler diagnostics;
     private final Set<ClassReference> missingClasses = new HashSet<>();
     private final Set<FieldReference> missingFields = new HashSet<>();
     private final Set<MethodReference> missingMethods = new HashSet<>();
 
-    UseCollector(
-        DexItemFactory factory, TraceReferencesConsumer consumer, DiagnosticsHandler diagnostics) {
+    UseCollector(DexItemFactory factory, DexProgramClass context, DiagnosticsHandler diagnostics) {
       super(factory);
       this.factory = factory;
-      this.consumer = consumer;
+      this.context = context;
       this.diagnostics = diagnostics;
     }
 
+    private void flush(TraceReferencesConsumer target) {
+      consumer.flush(target);
+      Tracer.this.missingClasses.addAll(missingClasses);
+      Tracer.this.missingFields.addAll(missingFields);
+      Tracer.this.missingMethods.addAll(missingMethods);
+    }
+
     private boolean isTargetType(DexType type) {
       return descriptors.contains(type.toDescriptorString());
     }
@@ -356,17 +456,6 @@ class Tracer {
       }
     }
 
-    private void reportMissingDefinitions() {
-      if (missingClasses.size() > 0 || missingFields.size() > 0 || missingMethods.size() > 0) {
-        diagnostics.error(
-            new MissingDefinitionsDiagnostic(missingClasses, missingFields, missingMethods));
-      }
-    }
-
-    public void setContext(DexProgramClass context) {
-      this.context = context;
-    }
-
     @Override
     public void registerInitClass(DexType clazz) {
       addType(clazz);
@@ -39,19 +39,48 @@ public class ArchiveResourceProvider implements ProgramResourceProvider, DataRes
   private final Origin origin;
   private final FilteredClassPath archive;
   private final boolean ignoreDexInArchive;
+  private final boolean lazyInflation;
 
   public static ArchiveResourceProvider fromArchive(Path archive, boolean ignoreDexInArchive) {
     return new ArchiveResourceProvider(FilteredClassPath.unfiltered(archive), ignoreDexInArchive);
   }
 
+  /**
+   * Create a provider that memory maps the archive and only inflates the content of an entry
+   * when the corresponding program resource is read.
+   *
+   * <p>The archive must not be modified while the program resources are in use.
+   */
+  public static ArchiveResourceProvider fromArchiveWithLazyInflation(
+      Path archive, boolean ignoreDexInArchive) {
+    return new ArchiveResourceProvider(
+        FilteredClassPath.unfiltered(archive), ignoreDexInArchive, true);
+  }
+
   ArchiveResourceProvider(FilteredClassPath archive, boolean ignoreDexInArchive) {
+    this(archive, ignoreDexInArchive, isLazyInflationEnabledByDefault());
+  }
+
+  ArchiveResourceProvider(
+      FilteredClassPath archive, boolean ignoreDexInArchive, boolean lazyInflation) {
     assert isArchive(archive.getPath());
     origin = new PathOrigin(archive.getPath());
     this.archive = archive;
     this.ignoreDexInArchive = ignoreDexInArchive;
+    this.lazyInflation = lazyInflation;
+  }
+
+  private static boolean isLazyInflationEnabledByDefault() {
+    return System.getProperty("com.android.tools.r8.lazyArchiveInflation") != null;
   }
 
   private List<ProgramResource> readArchive() throws IOException {
+    if (lazyInflation) {
+      MappedZipFile mappedZipFile = openMappedArchive();
+      if (mappedZipFile != null) {
+        return readMappedArchive(mappedZipFile);
+      }
+    }
     List<ProgramResource> dexResources = new ArrayList<>();
     List<ProgramResource> classResources = new ArrayList<>();
     try (ZipFile zipFile =
@@ -87,6 +116,29 @@ public class ArchiveResourceProvider implements ProgramResourceProvider, DataRes
       throw new CompilationError(
           "Zip error while reading '" + archive + "': " + e.getMessage(), e);
     }
+    return selectProgramResources(dexResources, classResources);
+  }
+
+  private List<ProgramResource> readMappedArchive(MappedZipFile zipFile) {
+    List<ProgramResource> dexResources = new ArrayList<>();
+    List<ProgramResource> classResources = new ArrayList<>();
+    for (MappedZipFile.Entry entry : zipFile.getEntries()) {
+      String name = entry.getName();
+      if (archive.matchesFile(name)) {
+        if (ZipUtils.isDexFile(name)) {
+          if (!ignoreDexInArchive) {
+            dexResources.add(createMappedResource(entry));
+          }
+        } else if (ZipUtils.isClassFile(name)) {
+          classResources.add(createMappedResource(entry));
+        }
+      }
+    }
+    return selectProgramResources(dexResources, classResources);
+  }
+
+  private List<ProgramResource> selectProgramResources(
+      List<ProgramResource> dexResources, List<ProgramResource> classResources) {
     if (!dexResources.isEmpty() && !classResources.isEmpty()) {
       throw new CompilationError(
           "Cannot create android app from an archive '" + archive
@@ -95,6 +147,29 @@ public class ArchiveResourceProvider implements ProgramResourceProvider, DataRes
     return !dexResources.isEmpty() ? dexResources : classResources;
   }
 
+  // Returns null if the archive cannot be memory mapped, in which case it is read using ZipFile.
+  private MappedZipFile openMappedArchive() throws IOException {
+    try {
+      return MappedZipFile.open(archive.getPath());
+    } catch (ZipException e) {
+      return null;
+    }
+  }
+
+  private ProgramResource createMappedResource(MappedZipFile.Entry entry) {
+    String name = entry.getName();
+    Origin entryOrigin = new ArchiveEntryOrigin(name, origin);
+    if (ZipUtils.isDexFile(name)) {
+      return MappedZipEntryResource.create(Kind.DEX, entryOrigin, entry, null);
+    }
+    assert ZipUtils.isClassFile(name);
+    return MappedZipEntryResource.create(
+        Kind.CF,
+        entryOrigin,
+        entry,
+        Collections.singleton(DescriptorUtils.guessTypeDescriptor(name)));
+  }
+
   @Override
   public Collection<ProgramResource> getProgramResources() throws ResourceException {
     try {
@@ -139,6 +214,25 @@ public class ArchiveResourceProvider implements ProgramResourceProvider, DataRes
   }
 
   public void accept(Consumer<ProgramResource> visitor) throws ResourceException {
+    if (lazyInflation) {
+      try {
+        MappedZipFile mappedZipFile = openMappedArchive();
+        if (mappedZipFile != null) {
+          for (MappedZipFile.Entry entry : mappedZipFile.getEntries()) {
+            String name = entry.getName();
+            if (archive.matchesFile(name) && isProgramResourceName(name)) {
+              visitor.accept(createMappedResource(entry));
+            }
+          }
+          return;
+        }
+      } catch (IOException e) {
+        throw new ResourceException(
+            origin,
+            new CompilationError(
+                "I/O exception while reading '" + archive + "': " + e.getMessage(), e));
+      }
+    }
     try (ZipFile zipFile =
         FileUtils.createZipFile(archive.getPath().toFile(), StandardCharsets.UTF_8)) {
       final Enumeration<? extends ZipEntry> entries = zipFile.entries();
@@ -26,7 +26,8 @@ public class CfLineToMethodMapper {
     this.inputApp = inputApp;
   }
 
-  public String lookupNameAndDescriptor(String binaryName, int lineNumber)
+  // Synchronized as the line number optimizer processes classes concurrently.
+  public synchronized String lookupNameAndDescriptor(String binaryName, int lineNumber)
       throws ResourceException {
     if (sourceMethodMapping == null) {
       sourceMethodMapping = new HashMap<>();
@@ -0,0 +1,102 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache that can be accessed concurrently and evicts the least recently used entries.
+ *
+ * <p>The entries are distributed over a fixed number of segments by the hash of their key. Each
+ * segment is an access ordered {@link LinkedHashMap} guarded by its own lock, such that threads
+ * only contend when they access the same segment.
+ */
+public class ConcurrentLRUCache<K, V> {
+
+  private static final int NUMBER_OF_SEGMENTS = 16;
+
+  private static class Segment<K, V> extends LinkedHashMap<K, V> {
+
+    private final int capacity;
+
+    Segment(int capacity) {
+      super(16, 0.75f, true);
+      this.capacity = capacity;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > capacity;
+    }
+  }
+
+  private final Segment<K, V>[] segments;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  public ConcurrentLRUCache(int capacity) {
+    assert capacity > 0;
+    int segmentCapacity = Math.max(1, capacity / NUMBER_OF_SEGMENTS);
+    segments = new Segment[NUMBER_OF_SEGMENTS];
+    for (int i = 0; i < NUMBER_OF_SEGMENTS; i++) {
+      segments[i] = new Segment<>(segmentCapacity);
+    }
+  }
+
+  private Segment<K, V> getSegment(K key) {
+    int hash = key.hashCode();
+    return segments[(hash ^ (hash >>> 16)) & (NUMBER_OF_SEGMENTS - 1)];
+  }
+
+  public V get(K key) {
+    Segment<K, V> segment = getSegment(key);
+    V value;
+    synchronized (segment) {
+      value = segment.get(key);
+    }
+    if (value == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return value;
+  }
+
+  public void put(K key, V value) {
+    Segment<K, V> segment = getSegment(key);
+    synchronized (segment) {
+      segment.putIfAbsent(key, value);
+    }
+  }
+
+  public void clear() {
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  public boolean isEmpty() {
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        if (!segment.isEmpty()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+}
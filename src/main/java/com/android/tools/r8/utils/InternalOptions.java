@@ -14,8 +14,10 @@ import com.android.tools.r8.DumpOptions;
 import com.android.tools.r8.FeatureSplit;
 import com.android.tools.r8.ProgramConsumer;
 import com.android.tools.r8.StringConsumer;
+import com.android.tools.r8.TelemetryConsumer;
 import com.android.tools.r8.Version;
 import com.android.tools.r8.cf.CfVersion;
+import com.android.tools.r8.dex.ClassDexingCache;
 import com.android.tools.r8.dex.Marker;
 import com.android.tools.r8.dex.Marker.Backend;
 import com.android.tools.r8.dex.Marker.Tool;
@@ -71,6 +73,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -230,10 +233,31 @@ public class InternalOptions implements GlobalKeepInfoConfiguration {
   // Flag to toggle if DEX code objects should pass-through without IR processing.
   public boolean passthroughDexCode = false;
 
+  // Flag to toggle if dex file inputs are memory mapped instead of read onto the heap. This is
+  // disabled on Windows, where a mapped file cannot be deleted or replaced until the mapping is
+  // garbage collected.
+  public boolean memoryMapDexInputs = !System.getProperty("os.name", "").startsWith("Windows");
+
+  // Directory of the persistent D8 cache of the DEX code of classes read from class files, and the
+  // cache instance for the current compilation. The cache is only created when a directory is set.
+  public Path classDexingCacheDirectory = null;
+  public ClassDexingCache classDexingCache = null;
+
   // Flag to toggle if the prefix based merge restriction should be enforced.
   public boolean enableNeverMergePrefixes = true;
   public Set<String> neverMergePrefixes = ImmutableSet.of("j$.");
 
+  // Flag to toggle if the lazy class file code of live methods should be parsed on the executor
+  // ahead of being traced by the Enqueuer, and the number of classes to parse in each batch.
+  public boolean enableParallelLazyCodeParsingInEnqueuer = true;
+  public int enqueuerLazyCodeParsingBatchSize = 64;
+  // Number of classes that TraceReferences traces concurrently before the references found in
+  // them are passed to the consumer. This bounds the number of buffered references.
+  public int traceReferencesBatchSize = 1024;
+  // Flag to toggle if the method and field renamings of the minifier should be computed on the
+  // executor concurrently with the class renaming.
+  public boolean enableParallelMinification = true;
+
   public boolean classpathInterfacesMayHaveStaticInitialization = false;
   public boolean libraryInterfacesMayHaveStaticInitialization = false;
 
@@ -482,6 +506,9 @@ public class InternalOptions implements GlobalKeepInfoConfiguration {
     if (desugarGraphConsumer != null) {
       desugarGraphConsumer.finished();
     }
+    if (telemetryConsumer != null) {
+      telemetryConsumer.finished(reporter);
+    }
   }
 
   public boolean shouldDesugarNests() {
@@ -781,6 +808,9 @@ public class InternalOptions implements GlobalKeepInfoConfiguration {
   // code objects needed for correct desugaring needs to be provided to the consumer.
   public DesugarGraphConsumer desugarGraphConsumer = null;
 
+  // If non-null, each phase of the compilation is reported to the consumer, see Timing.
+  public TelemetryConsumer telemetryConsumer = null;
+
   public Consumer<List<ProguardConfigurationRule>> syntheticProguardRulesConsumer = null;
 
   public static boolean assertionsEnabled() {
@@ -1160,6 +1190,9 @@ public class InternalOptions implements GlobalKeepInfoConfiguration {
             || System.getProperty("com.android.tools.r8.disableHorizontalClassMerging") == null;
     public boolean enableConstructorMerging = true;
     public boolean enableJavaLambdaMerging = true;
+    // Flag to toggle if the policies should be evaluated concurrently using the
+    // ConcurrentPolicyExecutor instead of the sequential PolicyExecutor.
+    public boolean enableConcurrentPolicyExecution = true;
 
     public int maxGroupSize = 30;
 
@@ -1183,6 +1216,10 @@ public class InternalOptions implements GlobalKeepInfoConfiguration {
       return maxGroupSize;
     }
 
+    public boolean isConcurrentPolicyExecutionEnabled() {
+      return enableConcurrentPolicyExecution;
+    }
+
     public boolean isConstructorMergingEnabled() {
       return enableConstructorMerging;
     }
@@ -0,0 +1,64 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.utils;
+
+import com.android.tools.r8.ProgramResource;
+import com.android.tools.r8.ResourceException;
+import com.android.tools.r8.origin.Origin;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+/** Program resource for an entry of a {@link MappedZipFile} that is only inflated when read. */
+class MappedZipEntryResource implements ProgramResource {
+
+  private final Origin origin;
+  private final Kind kind;
+  private final MappedZipFile.Entry entry;
+  private final Set<String> classDescriptors;
+
+  static MappedZipEntryResource create(
+      Kind kind, Origin origin, MappedZipFile.Entry entry, Set<String> classDescriptors) {
+    return new MappedZipEntryResource(origin, kind, entry, classDescriptors);
+  }
+
+  private MappedZipEntryResource(
+      Origin origin, Kind kind, MappedZipFile.Entry entry, Set<String> classDescriptors) {
+    assert entry != null;
+    this.origin = origin;
+    this.kind = kind;
+    this.entry = entry;
+    this.classDescriptors = classDescriptors;
+  }
+
+  @Override
+  public Origin getOrigin() {
+    return origin;
+  }
+
+  @Override
+  public Kind getKind() {
+    return kind;
+  }
+
+  @Override
+  public InputStream getByteStream() throws ResourceException {
+    return new ByteArrayInputStream(getBytes());
+  }
+
+  @Override
+  public byte[] getBytes() throws ResourceException {
+    try {
+      return entry.getBytes();
+    } catch (IOException e) {
+      throw new ResourceException(origin, e);
+    }
+  }
+
+  @Override
+  public Set<String> getClassDescriptors() {
+    return classDescriptors;
+  }
+}
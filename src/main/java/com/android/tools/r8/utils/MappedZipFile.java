@@ -0,0 +1,247 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Read-only view of a zip archive backed by a memory mapping of the file.
+ *
+ * <p>Opening the archive only decodes the central directory. The content of an entry is located
+ * and inflated when {@link Entry#getBytes()} is called, which may happen concurrently from
+ * multiple threads. Zip64 archives, encrypted entries and compression methods other than STORED
+ * and DEFLATED are not supported and cause a {@link ZipException} when opening the archive.
+ */
+public class MappedZipFile {
+
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int LOCAL_HEADER_SIZE = 30;
+  private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+  private static final int CENTRAL_HEADER_SIZE = 46;
+  private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+  private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+  private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+  private static final int ENCRYPTED_FLAG = 1;
+
+  private final Path path;
+  private final ByteBuffer contents;
+  private final List<Entry> entries;
+
+  private MappedZipFile(Path path, ByteBuffer contents) throws ZipException {
+    this.path = path;
+    this.contents = contents;
+    this.entries = readCentralDirectory();
+  }
+
+  public static MappedZipFile open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new ZipException("Archive too large to be memory mapped: " + path);
+      }
+      ByteBuffer contents = channel.map(MapMode.READ_ONLY, 0, size);
+      contents.order(ByteOrder.LITTLE_ENDIAN);
+      return new MappedZipFile(path, contents);
+    }
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  /** Entries in the order of the central directory. */
+  public List<Entry> getEntries() {
+    return entries;
+  }
+
+  private List<Entry> readCentralDirectory() throws ZipException {
+    int end = findEndOfCentralDirectory();
+    int numberOfEntries = unsignedShort(end + 10);
+    long centralDirectorySize = unsignedInt(end + 12);
+    long centralDirectoryOffset = unsignedInt(end + 16);
+    if (numberOfEntries == 0xFFFF
+        || centralDirectorySize == 0xFFFFFFFFL
+        || centralDirectoryOffset == 0xFFFFFFFFL) {
+      throw new ZipException("Zip64 archives are not supported: " + path);
+    }
+    if (centralDirectoryOffset + centralDirectorySize > end) {
+      throw new ZipException("Invalid central directory in " + path);
+    }
+    List<Entry> result = new ArrayList<>(numberOfEntries);
+    int offset = (int) centralDirectoryOffset;
+    for (int i = 0; i < numberOfEntries; i++) {
+      if (offset + CENTRAL_HEADER_SIZE > end
+          || contents.getInt(offset) != CENTRAL_HEADER_SIGNATURE) {
+        throw new ZipException("Invalid central directory entry in " + path);
+      }
+      int flags = unsignedShort(offset + 8);
+      int method = unsignedShort(offset + 10);
+      int crc = contents.getInt(offset + 16);
+      long compressedSize = unsignedInt(offset + 20);
+      long size = unsignedInt(offset + 24);
+      int nameLength = unsignedShort(offset + 28);
+      int extraLength = unsignedShort(offset + 30);
+      int commentLength = unsignedShort(offset + 32);
+      long localHeaderOffset = unsignedInt(offset + 42);
+      String name = readName(offset + CENTRAL_HEADER_SIZE, nameLength);
+      if ((flags & ENCRYPTED_FLAG) != 0) {
+        throw new ZipException("Encrypted entry '" + name + "' is not supported in " + path);
+      }
+      if (method != ZipEntry.STORED && method != ZipEntry.DEFLATED) {
+        throw new ZipException(
+            "Unsupported compression method " + method + " for '" + name + "' in " + path);
+      }
+      if (compressedSize == 0xFFFFFFFFL
+          || size == 0xFFFFFFFFL
+          || localHeaderOffset == 0xFFFFFFFFL) {
+        throw new ZipException("Zip64 archives are not supported: " + path);
+      }
+      if (size > Integer.MAX_VALUE || localHeaderOffset + compressedSize > end) {
+        throw new ZipException("Invalid size of entry '" + name + "' in " + path);
+      }
+      result.add(
+          new Entry(
+              name, method, crc, (int) compressedSize, (int) size, (int) localHeaderOffset));
+      offset += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  private int findEndOfCentralDirectory() throws ZipException {
+    int limit = Math.max(0, contents.limit() - END_OF_CENTRAL_DIRECTORY_SIZE - MAX_COMMENT_SIZE);
+    for (int offset = contents.limit() - END_OF_CENTRAL_DIRECTORY_SIZE;
+        offset >= limit;
+        offset--) {
+      if (contents.getInt(offset) == END_OF_CENTRAL_DIRECTORY_SIGNATURE
+          && offset + END_OF_CENTRAL_DIRECTORY_SIZE + unsignedShort(offset + 20)
+              == contents.limit()) {
+        return offset;
+      }
+    }
+    throw new ZipException("Missing end of central directory in " + path);
+  }
+
+  private String readName(int offset, int length) {
+    byte[] bytes = new byte[length];
+    ByteBuffer slice = contents.duplicate();
+    slice.position(offset);
+    slice.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private int unsignedShort(int offset) {
+    return contents.getShort(offset) & 0xFFFF;
+  }
+
+  private long unsignedInt(int offset) {
+    return contents.getInt(offset) & 0xFFFFFFFFL;
+  }
+
+  public class Entry {
+
+    private final String name;
+    private final int method;
+    private final int crc;
+    private final int compressedSize;
+    private final int size;
+    private final int localHeaderOffset;
+
+    private Entry(
+        String name, int method, int crc, int compressedSize, int size, int localHeaderOffset) {
+      this.name = name;
+      this.method = method;
+      this.crc = crc;
+      this.compressedSize = compressedSize;
+      this.size = size;
+      this.localHeaderOffset = localHeaderOffset;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public boolean isDirectory() {
+      return name.endsWith("/");
+    }
+
+    public int getSize() {
+      return size;
+    }
+
+    public MappedZipFile getArchive() {
+      return MappedZipFile.this;
+    }
+
+    /** Reads and, if needed, inflates the content of this entry. */
+    public byte[] getBytes() throws ZipException {
+      if (localHeaderOffset + LOCAL_HEADER_SIZE > contents.limit()
+          || contents.getInt(localHeaderOffset) != LOCAL_HEADER_SIGNATURE) {
+        throw new ZipException("Invalid local header for '" + name + "' in " + path);
+      }
+      int dataOffset =
+          localHeaderOffset
+              + LOCAL_HEADER_SIZE
+              + unsignedShort(localHeaderOffset + 26)
+              + unsignedShort(localHeaderOffset + 28);
+      if (dataOffset + compressedSize > contents.limit()) {
+        throw new ZipException("Truncated entry '" + name + "' in " + path);
+      }
+      byte[] data = new byte[compressedSize];
+      ByteBuffer slice = contents.duplicate();
+      slice.position(dataOffset);
+      slice.get(data);
+      byte[] result = method == ZipEntry.STORED ? data : inflate(data);
+      if (result.length != size) {
+        throw new ZipException("Invalid size of entry '" + name + "' in " + path);
+      }
+      CRC32 checksum = new CRC32();
+      checksum.update(result);
+      if ((int) checksum.getValue() != crc) {
+        throw new ZipException("Invalid checksum for entry '" + name + "' in " + path);
+      }
+      return result;
+    }
+
+    private byte[] inflate(byte[] data) throws ZipException {
+      Inflater inflater = new Inflater(true);
+      try {
+        inflater.setInput(data);
+        byte[] result = new byte[size];
+        int length = 0;
+        while (length < size) {
+          int inflated = inflater.inflate(result, length, size - length);
+          if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+            break;
+          }
+          length += inflated;
+        }
+        if (length != size) {
+          throw new ZipException("Invalid size of entry '" + name + "' in " + path);
+        }
+        return result;
+      } catch (DataFormatException e) {
+        throw new ZipException(
+            "Invalid deflated data for '" + name + "' in " + path + ": " + e.getMessage());
+      } finally {
+        inflater.end();
+      }
+    }
+  }
+}
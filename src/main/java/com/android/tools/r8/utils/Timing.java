@@ -12,10 +12,15 @@ package com.android.tools.r8.utils;
 //     t.scope("My task", () -> { ... });
 // Finally a report is printed by:
 //     t.report();
+// If a telemetry consumer is set, an event is reported to the consumer each time a node ends.
 
+import com.android.tools.r8.PhaseEvent;
+import com.android.tools.r8.TelemetryConsumer;
 import com.google.common.base.Strings;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -53,11 +58,21 @@ public class Timing {
           // Ignore.
         }
 
+        @Override
+        public void finish() {
+          // Ignore.
+        }
+
         @Override
         public void report() {
           // Ignore.
         }
 
+        @Override
+        public void count(String kind, long count) {
+          // Ignore.
+        }
+
         @Override
         public void scope(String title, TimingScope fn) {
           // Ignore.
@@ -69,6 +84,9 @@ public class Timing {
   }
 
   public static Timing create(String title, InternalOptions options) {
+    if (options.telemetryConsumer != null) {
+      return new Timing(title, options.printMemory, options.telemetryConsumer);
+    }
     // We also create a timer when running assertions to validate wellformedness of the node stack.
     return options.printTimes || InternalOptions.assertionsEnabled()
         ? new Timing(title, options.printMemory)
@@ -82,6 +100,7 @@ public class Timing {
   private final Node top;
   private final Stack<Node> stack;
   private final boolean trackMemory;
+  private final TelemetryConsumer telemetryConsumer;
 
   @Deprecated
   public Timing(String title) {
@@ -89,9 +108,14 @@ public class Timing {
   }
 
   private Timing(String title, boolean trackMemory) {
+    this(title, trackMemory, null);
+  }
+
+  private Timing(String title, boolean trackMemory, TelemetryConsumer telemetryConsumer) {
     this.trackMemory = trackMemory;
+    this.telemetryConsumer = telemetryConsumer;
     stack = new Stack<>();
-    top = new Node(title, trackMemory);
+    top = new Node(title, trackMemory, telemetryConsumer != null);
     stack.push(top);
   }
 
@@ -111,22 +135,137 @@ public class Timing {
     }
   }
 
+  // Allocation counter of the current thread, if supported by the runtime.
+  private static class ThreadAllocation {
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = getThreadMXBean();
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+      try {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+          com.sun.management.ThreadMXBean result = (com.sun.management.ThreadMXBean) bean;
+          if (result.isThreadAllocatedMemorySupported()
+              && result.isThreadAllocatedMemoryEnabled()) {
+            return result;
+          }
+        }
+      } catch (LinkageError | UnsupportedOperationException e) {
+        // Fall through to report allocations as unknown.
+      }
+      return null;
+    }
+
+    static long currentThreadAllocatedBytes() {
+      return THREAD_MX_BEAN == null
+          ? -1
+          : THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+  }
+
+  // The telemetry of a single run of a node, from begin to end.
+  private static class PhaseEventImpl implements PhaseEvent {
+
+    private final String name;
+    private final String parentName;
+    private final long startNanos;
+    private final long endNanos;
+    private final Thread thread;
+    private final long allocatedBytes;
+    private final long liveHeapBytes;
+    private final Map<String, Long> counts;
+
+    PhaseEventImpl(Node node, String parentName, long endNanos) {
+      this.name = node.title;
+      this.parentName = parentName;
+      this.startNanos = node.start_time;
+      this.endNanos = endNanos;
+      this.thread = Thread.currentThread();
+      long endAllocatedBytes = ThreadAllocation.currentThreadAllocatedBytes();
+      this.allocatedBytes =
+          endAllocatedBytes < 0 || node.startAllocatedBytes < 0
+              ? -1
+              : endAllocatedBytes - node.startAllocatedBytes;
+      Runtime runtime = Runtime.getRuntime();
+      this.liveHeapBytes = runtime.totalMemory() - runtime.freeMemory();
+      this.counts =
+          node.counts == null ? Collections.emptyMap() : Collections.unmodifiableMap(node.counts);
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public String getParentName() {
+      return parentName;
+    }
+
+    @Override
+    public long getStartNanos() {
+      return startNanos;
+    }
+
+    @Override
+    public long getEndNanos() {
+      return endNanos;
+    }
+
+    @Override
+    public String getThreadName() {
+      return thread.getName();
+    }
+
+    @Override
+    public long getThreadId() {
+      return thread.getId();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+      return allocatedBytes;
+    }
+
+    @Override
+    public long getLiveHeapBytes() {
+      return liveHeapBytes;
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+      return counts;
+    }
+  }
+
   static class Node {
     final String title;
     final boolean trackMemory;
+    final boolean trackTelemetry;
 
     final Map<String, Node> children = new LinkedHashMap<>();
     long duration = 0;
     long start_time;
     Map<String, MemInfo> startMemory;
     Map<String, MemInfo> endMemory;
+    // Telemetry of the current run of the node.
+    long startAllocatedBytes;
+    Map<String, Long> counts;
 
     Node(String title, boolean trackMemory) {
+      this(title, trackMemory, false);
+    }
+
+    Node(String title, boolean trackMemory, boolean trackTelemetry) {
       this.title = title;
       this.trackMemory = trackMemory;
+      this.trackTelemetry = trackTelemetry;
       if (trackMemory) {
         startMemory = computeMemoryInformation();
       }
+      if (trackTelemetry) {
+        startAllocatedBytes = ThreadAllocation.currentThreadAllocatedBytes();
+      }
       this.start_time = System.nanoTime();
     }
 
@@ -135,11 +274,33 @@ public class Timing {
       if (trackMemory) {
         startMemory = computeMemoryInformation();
       }
+      if (trackTelemetry) {
+        startAllocatedBytes = ThreadAllocation.currentThreadAllocatedBytes();
+        counts = null;
+      }
       start_time = System.nanoTime();
     }
 
+    void count(String kind, long count) {
+      if (counts == null) {
+        counts = new LinkedHashMap<>();
+      }
+      counts.merge(kind, count, Long::sum);
+    }
+
     void end() {
-      duration += System.nanoTime() - start_time;
+      end(System.nanoTime());
+    }
+
+    void end(TelemetryConsumer telemetryConsumer, String parentTitle) {
+      assert trackTelemetry;
+      long endTime = System.nanoTime();
+      telemetryConsumer.acceptPhase(new PhaseEventImpl(this, parentTitle, endTime));
+      end(endTime);
+    }
+
+    private void end(long endTime) {
+      duration += endTime - start_time;
       start_time = -1;
       assert duration() >= 0;
       if (trackMemory) {
@@ -364,26 +525,51 @@ public class Timing {
       child = parent.children.get(title);
       child.restart();
     } else {
-      child = new Node(title, trackMemory);
+      child = new Node(title, trackMemory, telemetryConsumer != null);
       parent.children.put(title, child);
     }
     stack.push(child);
   }
 
   public void end() {
-    stack.peek().end();  // record time.
-    stack.pop();
+    Node node = stack.pop();
+    if (telemetryConsumer != null) {
+      node.end(telemetryConsumer, stack.isEmpty() ? null : stack.peek().title);
+    } else {
+      node.end(); // record time.
+    }
+  }
+
+  /**
+   * Ends the top node of the timing, if not already ended.
+   *
+   * <p>Nodes that are still open, e.g., due to an exception, are ended as well such that they are
+   * reported to the telemetry consumer.
+   */
+  public void finish() {
+    while (!stack.isEmpty()) {
+      end();
+    }
   }
 
   public void report() {
-    assert stack.size() == 1;
-    Node top = stack.peek();
-    assert top == this.top;
-    top.end();
+    assert stack.isEmpty() || (stack.size() == 1 && stack.peek() == top);
+    finish();
     System.out.println("Recorded timings:");
     top.report(0, top);
   }
 
+  /** Records the number of items of the given kind processed by the current node. */
+  public void count(String kind, long count) {
+    if (telemetryConsumer != null) {
+      stack.peek().count(kind, count);
+    }
+  }
+
+  public boolean isTelemetryEnabled() {
+    return telemetryConsumer != null;
+  }
+
   public void scope(String title, TimingScope fn) {
     begin(title);
     try {
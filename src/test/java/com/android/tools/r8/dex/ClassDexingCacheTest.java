@@ -0,0 +1,121 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.dex;
+
+import static com.android.tools.r8.DiagnosticsMatcher.diagnosticMessage;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.android.tools.r8.CompilationFailedException;
+import com.android.tools.r8.D8TestBuilder;
+import com.android.tools.r8.D8TestCompileResult;
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.utils.Box;
+import com.android.tools.r8.utils.InternalOptions;
+import com.android.tools.r8.utils.StringUtils;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class ClassDexingCacheTest extends TestBase {
+
+  private static final String EXPECTED = StringUtils.lines("Hello, world!", "42");
+
+  private final TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withDexRuntimes().withAllApiLevels().build();
+  }
+
+  public ClassDexingCacheTest(TestParameters parameters) {
+    this.parameters = parameters;
+  }
+
+  private D8TestBuilder testForD8(Path cacheDirectory, Box<InternalOptions> options) {
+    return testForD8()
+        .apply(b -> b.getBuilder().setClassDexingCacheDirectory(cacheDirectory))
+        .addOptionsModification(options::set)
+        .setMinApi(parameters.getApiLevel());
+  }
+
+  private static int getNumberOfHits(Box<InternalOptions> options) {
+    return options.get().classDexingCache.getNumberOfHits();
+  }
+
+  private static long countEntries(Path cacheDirectory) throws Exception {
+    try (Stream<Path> paths = Files.walk(cacheDirectory)) {
+      return paths.filter(path -> path.toString().endsWith(".dex")).count();
+    }
+  }
+
+  @Test
+  public void test() throws Exception {
+    Path cacheDirectory = temp.newFolder().toPath();
+    Box<InternalOptions> uncachedOptions = new Box<>();
+    D8TestCompileResult uncached =
+        testForD8(cacheDirectory, uncachedOptions).addProgramClasses(Main.class, A.class).compile();
+    assertEquals(0, getNumberOfHits(uncachedOptions));
+    assertTrue(countEntries(cacheDirectory) > 0);
+    Box<InternalOptions> cachedOptions = new Box<>();
+    D8TestCompileResult cached =
+        testForD8(cacheDirectory, cachedOptions).addProgramClasses(Main.class, A.class).compile();
+    assertEquals(2, getNumberOfHits(cachedOptions));
+    assertArrayEquals(
+        uncached.getApp().getDexProgramResourcesForTesting().get(0).getBytes(),
+        cached.getApp().getDexProgramResourcesForTesting().get(0).getBytes());
+    cached.run(parameters.getRuntime(), Main.class).assertSuccessWithOutput(EXPECTED);
+  }
+
+  @Test
+  public void testPrefixMergingWithCachedClasses() throws Exception {
+    Path cacheDirectory = temp.newFolder().toPath();
+    byte[] desugaredLibraryClass = transformer(A.class).setClassDescriptor("Lj$/A;").transform();
+    // Compiling the classes separately is allowed and puts both classes in the cache.
+    testForD8(cacheDirectory, new Box<>()).addProgramClasses(Main.class).compile();
+    testForD8(cacheDirectory, new Box<>()).addProgramClassFileData(desugaredLibraryClass).compile();
+    // Merging them is not allowed, also when their code is taken from the cache.
+    Box<InternalOptions> options = new Box<>();
+    assertThrows(
+        CompilationFailedException.class,
+        () ->
+            testForD8(cacheDirectory, options)
+                .addProgramClasses(Main.class)
+                .addProgramClassFileData(desugaredLibraryClass)
+                .compileWithExpectedDiagnostics(
+                    diagnostics ->
+                        diagnostics.assertErrorsMatch(
+                            diagnosticMessage(
+                                containsString(
+                                    "Merging dex file containing classes with prefix 'j$.' with"
+                                        + " classes with any other prefixes is not allowed.")))));
+    assertEquals(2, getNumberOfHits(options));
+  }
+
+  static class A {
+
+    int value() {
+      return 42;
+    }
+  }
+
+  static class Main {
+
+    public static void main(String[] args) {
+      System.out.println("Hello, world!");
+      System.out.println(new A().value());
+    }
+  }
+}
@@ -0,0 +1,105 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.dex;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import com.android.tools.r8.D8TestCompileResult;
+import com.android.tools.r8.ProgramResource;
+import com.android.tools.r8.ProgramResource.Kind;
+import com.android.tools.r8.ResourceException;
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.origin.PathOrigin;
+import com.android.tools.r8.utils.StringUtils;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class MemoryMappedDexInputTest extends TestBase {
+
+  private static final String EXPECTED = StringUtils.lines("Hello, world!", "42");
+
+  private final TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withDexRuntimes().withAllApiLevels().build();
+  }
+
+  public MemoryMappedDexInputTest(TestParameters parameters) {
+    this.parameters = parameters;
+  }
+
+  private Path compileToDexFile(Class<?> clazz) throws Exception {
+    Path dexFile = temp.newFolder().toPath().resolve("classes.dex");
+    Files.write(
+        dexFile,
+        testForD8()
+            .addProgramClasses(clazz)
+            .setMinApi(parameters.getApiLevel())
+            .compile()
+            .getApp()
+            .getDexProgramResourcesForTesting()
+            .get(0)
+            .getBytes());
+    return dexFile;
+  }
+
+  private D8TestCompileResult merge(Path mainDexFile, Path aDexFile, boolean memoryMapDexInputs)
+      throws Exception {
+    return testForD8()
+        .addProgramFiles(mainDexFile, aDexFile)
+        .addOptionsModification(options -> options.memoryMapDexInputs = memoryMapDexInputs)
+        .setMinApi(parameters.getApiLevel())
+        .compile();
+  }
+
+  @Test
+  public void testMerge() throws Exception {
+    Path mainDexFile = compileToDexFile(Main.class);
+    Path aDexFile = compileToDexFile(A.class);
+    D8TestCompileResult mapped = merge(mainDexFile, aDexFile, true);
+    D8TestCompileResult read = merge(mainDexFile, aDexFile, false);
+    assertArrayEquals(
+        read.getApp().getDexProgramResourcesForTesting().get(0).getBytes(),
+        mapped.getApp().getDexProgramResourcesForTesting().get(0).getBytes());
+    mapped.run(parameters.getRuntime(), Main.class).assertSuccessWithOutput(EXPECTED);
+  }
+
+  @Test
+  public void testMissingFile() throws Exception {
+    Path missingFile = temp.newFolder().toPath().resolve("missing.dex");
+    ResourceException exception =
+        assertThrows(
+            ResourceException.class,
+            () ->
+                DexReader.createMemoryMappedIfFile(
+                    ProgramResource.fromFile(Kind.DEX, missingFile)));
+    assertEquals(new PathOrigin(missingFile), exception.getOrigin());
+  }
+
+  static class A {
+
+    int value() {
+      return 42;
+    }
+  }
+
+  static class Main {
+
+    public static void main(String[] args) {
+      System.out.println("Hello, world!");
+      System.out.println(new A().value());
+    }
+  }
+}
@@ -0,0 +1,167 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.horizontalclassmerging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.ToolHelper;
+import com.android.tools.r8.graph.AppView;
+import com.android.tools.r8.graph.DexProgramClass;
+import com.android.tools.r8.graph.DexType;
+import com.android.tools.r8.shaking.AppInfoWithLiveness;
+import com.android.tools.r8.shaking.RuntimeTypeCheckInfo;
+import com.android.tools.r8.utils.ListUtils;
+import com.android.tools.r8.utils.Timing;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class ConcurrentPolicyExecutorTest extends TestBase {
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withNoneRuntime().build();
+  }
+
+  public ConcurrentPolicyExecutorTest(TestParameters parameters) {
+    parameters.assertNoneRuntime();
+  }
+
+  @Test
+  public void test() throws Exception {
+    AppView<AppInfoWithLiveness> appView =
+        computeAppViewWithLiveness(
+            buildInnerClasses(getClass())
+                .addLibraryFile(ToolHelper.getMostRecentAndroidJar())
+                .build(),
+            Main.class);
+    HorizontalClassMerger merger = new HorizontalClassMerger(appView);
+    RuntimeTypeCheckInfo runtimeTypeCheckInfo =
+        new RuntimeTypeCheckInfo.Builder(appView.dexItemFactory()).build();
+
+    List<Policy> policies = merger.getPolicies(runtimeTypeCheckInfo);
+    Collection<MergeGroup> groups =
+        new PolicyExecutor().run(createInitialGroups(appView), policies, Timing.empty());
+
+    List<Policy> concurrentPolicies = merger.getPolicies(runtimeTypeCheckInfo);
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    Collection<MergeGroup> concurrentGroups;
+    try {
+      concurrentGroups =
+          new ConcurrentPolicyExecutor()
+              .run(
+                  createInitialGroups(appView),
+                  concurrentPolicies,
+                  executorService,
+                  Timing.empty());
+    } finally {
+      executorService.shutdown();
+    }
+
+    // Both executors yield the same groups in the same order.
+    assertFalse(groups.isEmpty());
+    assertEquals(getGroupTypes(groups), getGroupTypes(concurrentGroups));
+
+    // Each policy removes the same number of classes with both executors.
+    assertEquals(policies.size(), concurrentPolicies.size());
+    int numberOfRemovedClasses = 0;
+    for (int i = 0; i < policies.size(); i++) {
+      Policy policy = policies.get(i);
+      Policy concurrentPolicy = concurrentPolicies.get(i);
+      assertEquals(policy.getName(), concurrentPolicy.getName());
+      assertEquals(
+          policy.getName(),
+          policy.numberOfRemovedClasses,
+          concurrentPolicy.numberOfRemovedClasses);
+      numberOfRemovedClasses += policy.numberOfRemovedClasses;
+    }
+    assertTrue(numberOfRemovedClasses > 0);
+  }
+
+  private static Collection<MergeGroup> createInitialGroups(
+      AppView<AppInfoWithLiveness> appView) {
+    return Collections.singletonList(
+        new MergeGroup(appView.appInfo().classesWithDeterministicOrder()));
+  }
+
+  private static List<List<DexType>> getGroupTypes(Collection<MergeGroup> groups) {
+    List<List<DexType>> groupTypes = new ArrayList<>();
+    for (MergeGroup group : groups) {
+      groupTypes.add(ListUtils.map(group.getClasses(), DexProgramClass::getType));
+    }
+    return groupTypes;
+  }
+
+  static class Main {
+
+    public static void main(String[] args) {
+      System.out.println(new A().x);
+      System.out.println(new B().x);
+      System.out.println(new C().y);
+      System.out.println(new D().y);
+      System.out.println(new E().s);
+      System.out.println(new F().s);
+      System.out.println(new G());
+      System.out.println(new H());
+      System.out.println(Enum.ONE);
+      System.out.println(new WithNativeMethod());
+      System.out.println(new WithInterface());
+    }
+  }
+
+  static class A {
+    int x = 1;
+  }
+
+  static class B {
+    int x = 2;
+  }
+
+  static class C {
+    long y = 3;
+  }
+
+  static class D {
+    long y = 4;
+  }
+
+  static class E {
+    String s = "5";
+  }
+
+  static class F {
+    String s = "6";
+  }
+
+  static class G {}
+
+  static class H {}
+
+  enum Enum {
+    ONE,
+    TWO
+  }
+
+  static class WithNativeMethod {
+    native void method();
+  }
+
+  interface I {}
+
+  static class WithInterface implements I {}
+}
@@ -0,0 +1,105 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.ir;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.ir.code.AlwaysMaterializingNop;
+import com.android.tools.r8.ir.code.Instruction;
+import com.android.tools.r8.ir.code.InstructionList;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+import org.junit.Test;
+
+/** Tests that {@link InstructionList} behaves as a {@link LinkedList}. */
+public class InstructionListTest extends TestBase {
+
+  @Test
+  public void testDequeOperations() {
+    InstructionList instructions = new InstructionList();
+    Instruction first = new AlwaysMaterializingNop();
+    Instruction second = new AlwaysMaterializingNop();
+    Instruction third = new AlwaysMaterializingNop();
+    instructions.addLast(second);
+    instructions.addFirst(first);
+    instructions.add(third);
+    assertEquals(3, instructions.size());
+    assertSame(first, instructions.getFirst());
+    assertSame(second, instructions.get(1));
+    assertSame(third, instructions.getLast());
+    assertSame(first, instructions.removeFirst());
+    assertSame(third, instructions.removeLast());
+    assertSame(second, instructions.getFirst());
+    assertSame(second, instructions.getLast());
+    instructions.clear();
+    assertEquals(0, instructions.size());
+    // Instructions can be added to another list once removed.
+    InstructionList other = new InstructionList();
+    other.add(first);
+    other.add(second);
+    other.add(third);
+    assertEquals(3, other.size());
+  }
+
+  @Test
+  public void testListIterator() {
+    Random random = new Random(42);
+    InstructionList instructions = new InstructionList();
+    LinkedList<Instruction> expected = new LinkedList<>();
+    for (int round = 0; round < 100; round++) {
+      int index = random.nextInt(expected.size() + 1);
+      ListIterator<Instruction> iterator = instructions.listIterator(index);
+      ListIterator<Instruction> expectedIterator = expected.listIterator(index);
+      boolean canModify = false;
+      for (int step = 0; step < 20; step++) {
+        assertEquals(expectedIterator.nextIndex(), iterator.nextIndex());
+        switch (random.nextInt(5)) {
+          case 0:
+            if (expectedIterator.hasNext()) {
+              assertSame(expectedIterator.next(), iterator.next());
+              canModify = true;
+            }
+            break;
+          case 1:
+            if (expectedIterator.hasPrevious()) {
+              assertSame(expectedIterator.previous(), iterator.previous());
+              canModify = true;
+            }
+            break;
+          case 2:
+            Instruction added = new AlwaysMaterializingNop();
+            expectedIterator.add(added);
+            iterator.add(added);
+            canModify = false;
+            break;
+          case 3:
+            if (canModify) {
+              expectedIterator.remove();
+              iterator.remove();
+              canModify = false;
+            }
+            break;
+          default:
+            if (canModify) {
+              Instruction replacement = new AlwaysMaterializingNop();
+              expectedIterator.set(replacement);
+              iterator.set(replacement);
+            }
+            break;
+        }
+      }
+      assertEquals(expected.size(), instructions.size());
+      List<Instruction> actual = new ArrayList<>(instructions);
+      for (int i = 0; i < expected.size(); i++) {
+        assertSame(expected.get(i), actual.get(i));
+      }
+    }
+  }
+}
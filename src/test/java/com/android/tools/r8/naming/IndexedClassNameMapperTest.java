@@ -0,0 +1,77 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.naming;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestDiagnosticMessagesImpl;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.retrace.ProguardMapProducer;
+import com.android.tools.r8.utils.StringUtils;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class IndexedClassNameMapperTest extends TestBase {
+
+  private static final String MAPPING =
+      StringUtils.lines(
+          "com.foo.Bar -> a:",
+          "# {\"id\":\"sourceFile\",\"fileName\":\"Bar.kt\"}",
+          "    java.lang.String field -> a",
+          "    1:3:void method():10:12 -> a",
+          "com.foo.Baz -> b:",
+          "    4:5:void other():20:21 -> b",
+          "com.foo.Qux -> c:",
+          "com.foo.Quux -> ab:");
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withNoneRuntime().build();
+  }
+
+  public IndexedClassNameMapperTest(TestParameters parameters) {
+    parameters.assertNoneRuntime();
+  }
+
+  @Test
+  public void testSameAsTextMapping() throws IOException {
+    ClassNameMapper mapper = ClassNameMapper.mapperFromString(MAPPING);
+    Path index = temp.newFile("mapping.idx").toPath();
+    IndexedClassNameMapper.write(mapper, index);
+    IndexedClassNameMapper indexedMapper =
+        IndexedClassNameMapper.mapperFromFile(index, new TestDiagnosticMessagesImpl(), true);
+    assertEquals(mapper.getClassNameMappings().size(), indexedMapper.size());
+    for (String obfuscatedName : mapper.getClassNameMappings().keySet()) {
+      assertTrue(indexedMapper.hasMapping(obfuscatedName));
+      ClassNamingForNameMapper expected = mapper.getClassNaming(obfuscatedName);
+      assertEquals(expected.originalName, indexedMapper.getOriginalName(obfuscatedName));
+      assertEquals(expected, indexedMapper.getClassNaming(obfuscatedName));
+    }
+    assertFalse(indexedMapper.hasMapping("d"));
+    assertNull(indexedMapper.getOriginalName("d"));
+    assertNull(indexedMapper.getClassNaming("d"));
+  }
+
+  @Test
+  public void testTextMappingFromIndex() throws IOException {
+    ClassNameMapper mapper = ClassNameMapper.mapperFromString(MAPPING);
+    Path index = temp.newFile("mapping.idx").toPath();
+    IndexedClassNameMapper.write(mapper, index);
+    // The text mapping produced from the index is parsed to the same mapping.
+    ClassNameMapper mapperFromIndex =
+        ClassNameMapper.mapperFromString(ProguardMapProducer.fromIndexPath(index).get());
+    assertEquals(mapper.getClassNameMappings(), mapperFromIndex.getClassNameMappings());
+  }
+}
@@ -0,0 +1,68 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.naming;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestDiagnosticMessagesImpl;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.utils.FileUtils;
+import com.android.tools.r8.utils.StringUtils;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class LazyClassNameMapperTest extends TestBase {
+
+  private static final String MAPPING =
+      StringUtils.lines(
+          "# {\"id\":\"com.android.tools.r8.mapping\",\"version\":\"1.0\"}",
+          "com.foo.Bar -> a:",
+          "# {\"id\":\"sourceFile\",\"fileName\":\"Bar.kt\"}",
+          "    java.lang.String field -> a",
+          "    1:3:void method():10:12 -> a",
+          "",
+          "com.foo.Baz -> b:",
+          "    4:5:void other():20:21 -> b",
+          "com.foo.Qux -> c:");
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withNoneRuntime().build();
+  }
+
+  public LazyClassNameMapperTest(TestParameters parameters) {
+    parameters.assertNoneRuntime();
+  }
+
+  @Test
+  public void testSameAsEagerMapper() throws IOException {
+    Path mappingFile = temp.newFile("mapping.txt").toPath();
+    FileUtils.writeTextFile(mappingFile, MAPPING);
+    ClassNameMapper eagerMapper = ClassNameMapper.mapperFromString(MAPPING);
+    LazyClassNameMapper lazyMapper =
+        LazyClassNameMapper.mapperFromFile(mappingFile, new TestDiagnosticMessagesImpl(), true);
+    for (String obfuscatedName : eagerMapper.getClassNameMappings().keySet()) {
+      assertTrue(lazyMapper.hasMapping(obfuscatedName));
+      ClassNamingForNameMapper expected = eagerMapper.getClassNaming(obfuscatedName);
+      ClassNamingForNameMapper actual = lazyMapper.getClassNaming(obfuscatedName);
+      assertEquals(expected.originalName, actual.originalName);
+      assertEquals(expected.toString(), actual.toString());
+      // The class is only parsed once.
+      assertTrue(actual == lazyMapper.getClassNaming(obfuscatedName));
+    }
+    assertFalse(lazyMapper.hasMapping("d"));
+    assertNull(lazyMapper.getClassNaming("d"));
+  }
+}
@@ -0,0 +1,105 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.naming;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.android.tools.r8.NeverClassInline;
+import com.android.tools.r8.NeverInline;
+import com.android.tools.r8.NoVerticalClassMerging;
+import com.android.tools.r8.R8TestCompileResult;
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.utils.StringUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class ParallelMinificationTest extends TestBase {
+
+  private static final String EXPECTED = StringUtils.lines("A.foo", "B.foo", "I.bar", "B.field");
+
+  private final TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withDexRuntimes().withAllApiLevels().build();
+  }
+
+  public ParallelMinificationTest(TestParameters parameters) {
+    this.parameters = parameters;
+  }
+
+  private R8TestCompileResult compile(boolean enableParallelMinification) throws Exception {
+    return testForR8(parameters.getBackend())
+        .addInnerClasses(ParallelMinificationTest.class)
+        .addKeepMainRule(Main.class)
+        .addOptionsModification(
+            options -> options.enableParallelMinification = enableParallelMinification)
+        .enableNoVerticalClassMergingAnnotations()
+        .enableNeverClassInliningAnnotations()
+        .enableInliningAnnotations()
+        .setMinApi(parameters.getApiLevel())
+        .compile();
+  }
+
+  @Test
+  public void test() throws Exception {
+    R8TestCompileResult serial = compile(false);
+    R8TestCompileResult parallel = compile(true);
+    assertEquals(serial.getProguardMap(), parallel.getProguardMap());
+    assertArrayEquals(
+        serial.getApp().getDexProgramResourcesForTesting().get(0).getBytes(),
+        parallel.getApp().getDexProgramResourcesForTesting().get(0).getBytes());
+    parallel.run(parameters.getRuntime(), Main.class).assertSuccessWithOutput(EXPECTED);
+  }
+
+  interface I {
+
+    void bar();
+  }
+
+  @NoVerticalClassMerging
+  @NeverClassInline
+  static class A implements I {
+
+    String field = "B.field";
+
+    @NeverInline
+    void foo() {
+      System.out.println("A.foo");
+    }
+
+    @NeverInline
+    @Override
+    public void bar() {
+      System.out.println("I.bar");
+    }
+  }
+
+  @NeverClassInline
+  static class B extends A {
+
+    @NeverInline
+    @Override
+    void foo() {
+      super.foo();
+      System.out.println("B.foo");
+    }
+  }
+
+  static class Main {
+
+    public static void main(String[] args) {
+      B b = System.currentTimeMillis() > 0 ? new B() : null;
+      b.foo();
+      ((I) b).bar();
+      System.out.println(b.field);
+    }
+  }
+}
@@ -0,0 +1,33 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.naming;
+
+import static org.junit.Assert.assertEquals;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.naming.ProguardMapSupplier.ProguardMapIdBuilder;
+import com.android.tools.r8.utils.StringUtils;
+import org.junit.Test;
+
+/** Tests that the concurrently computed hash input gives the same map id as the strings. */
+public class ProguardMapIdBuilderTest extends TestBase {
+
+  private static final String[] MAPPINGS = {
+    StringUtils.lines("com.example.Main -> a:", "    void main(java.lang.String[]) -> a"),
+    StringUtils.lines("com.example.æøå -> b:", "\t1:2:void <init>() -> <init>"),
+    StringUtils.lines("com.example.中文 -> c:", "    int f -> a")
+  };
+
+  @Test
+  public void test() {
+    ProguardMapIdBuilder fromStrings = new ProguardMapIdBuilder();
+    ProguardMapIdBuilder fromHashInputs = new ProguardMapIdBuilder();
+    for (String mapping : MAPPINGS) {
+      fromStrings.accept(mapping);
+      fromHashInputs.accept(ProguardMapIdBuilder.computeHashInput(mapping));
+    }
+    assertEquals(fromStrings.build().get(), fromHashInputs.build().get());
+  }
+}
@@ -0,0 +1,87 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.retrace;
+
+import static com.android.tools.r8.retrace.internal.StackTraceRegularExpressionParser.DEFAULT_REGULAR_EXPRESSION;
+import static org.junit.Assert.assertEquals;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.retrace.internal.StackTraceElementStringProxy;
+import com.android.tools.r8.retrace.internal.StackTraceRegularExpressionParser;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/** Checks that the parsing of 'at' lines without the regular expression gives the same result. */
+@RunWith(Parameterized.class)
+public class StackTraceAtLineParserTest extends TestBase {
+
+  private static final List<String> LINES =
+      ImmutableList.of(
+          "\tat a.b.c(SourceFile:12)",
+          "at a.b(SourceFile:12)",
+          "    at com.foo.Bar.<init>(Bar.java:)",
+          "    at com.foo.Bar.<clinit>(Bar.java:3)",
+          "    at com.foo.Bar.<foo>(Bar.java:3)",
+          "\tat a.b(Native Method)",
+          "\tat a.b(Unknown Source)",
+          "\tat a.b(:12)",
+          "\tat a.b()",
+          "\tat a.b(:)",
+          "\tat Suppressed.foo(A.java:1)",
+          "  at a.b.c (F:o:o.java:12)  ",
+          "\tat a.b(Foo::12)",
+          "\tat a.b(Foo:12:)",
+          "\tat a.b(x)(y:1)",
+          "\tat a.b(Foo.java:12) ~[foo.jar:?]",
+          "\tat a.é.c(Foo.java:12)",
+          "\tat a..c(Foo.java:12)",
+          "\tat 1a.c(Foo.java:12)",
+          "\tat .c(Foo.java:12)",
+          "\tata.b(Foo.java:12)",
+          "\tat\ta$1.b_$(Foo.java:12)\r",
+          "foo at a.b(Foo.java:12)",
+          "\tat classloader//a.b(:20)",
+          "com.foo.Exception: at a.b(Foo.java:12)",
+          "Caused by: a.b.c: foo");
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withNoneRuntime().build();
+  }
+
+  public StackTraceAtLineParserTest(TestParameters parameters) {
+    parameters.assertNoneRuntime();
+  }
+
+  @Test
+  public void testSameAsRegularExpression() {
+    StackTraceRegularExpressionParser parser = new StackTraceRegularExpressionParser();
+    // An equivalent expression that is not the default is always matched.
+    StackTraceRegularExpressionParser regularExpressionParser =
+        new StackTraceRegularExpressionParser("(?:" + DEFAULT_REGULAR_EXPRESSION + ")");
+    for (String line : LINES) {
+      assertEquals(
+          line, describe(regularExpressionParser.parse(line)), describe(parser.parse(line)));
+    }
+  }
+
+  private static String describe(StackTraceElementStringProxy proxy) {
+    return String.join(
+        ", ",
+        String.valueOf(proxy.getClassReference()),
+        proxy.getMethodName(),
+        proxy.getFileName(),
+        proxy.hasLineNumber() ? proxy.lineNumberAsString() : null,
+        proxy.getFieldName(),
+        proxy.getFieldOrReturnType(),
+        proxy.getMethodArguments());
+  }
+}
@@ -0,0 +1,121 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.retrace;
+
+import static org.junit.Assert.assertEquals;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestDiagnosticMessagesImpl;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.utils.StringUtils;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/** Checks that retracing a batch of stack traces gives the same result as retracing each one. */
+@RunWith(Parameterized.class)
+public class StringRetraceBatchTest extends TestBase {
+
+  private static final String MAPPING =
+      StringUtils.lines(
+          "com.example.Main -> a.a:",
+          "    1:1:void main(java.lang.String[]):101:101 -> a",
+          "    6:7:void method3(long):80:81 -> a",
+          "    6:7:void method2(int):88 -> a",
+          "    6:7:void main(java.lang.String[]):102 -> a",
+          "com.example.Foo -> a.b:",
+          "    void foo() -> a",
+          "    void bar(int) -> a",
+          "    1:3:void baz():10:12 -> b",
+          "com.example.Bar -> a.c:",
+          "    1:2:void run():20:21 -> b",
+          "com.example.MyException -> a.d:");
+
+  // The stack traces share classes, such that the class results of the retracer are reused.
+  private static final List<List<String>> STACK_TRACES =
+      ImmutableList.of(
+          ImmutableList.of(
+              "Exception in thread \"main\" java.lang.NullPointerException",
+              "\tat a.a.a(SourceFile:6)",
+              "\tat a.b.b(SourceFile:2)",
+              "\tat a.a.a(SourceFile:1)"),
+          ImmutableList.of(
+              "a.d: Something failed",
+              "\tat a.b.a(SourceFile)",
+              "\tat a.c.b(SourceFile:1)",
+              "\tat java.lang.Thread.run(Thread.java:764)"),
+          ImmutableList.of(
+              "Exception in thread \"main\" a.d",
+              "\tat a.c.b(SourceFile:2)",
+              "\tat a.b.b(SourceFile:3)",
+              "\tat a.a.a(SourceFile:7)",
+              "Caused by: java.lang.NullPointerException",
+              "\tat a.b.a(Unknown Source)",
+              "\t... 3 more"),
+          ImmutableList.of(
+              "Exception in thread \"main\" java.lang.NullPointerException",
+              "\tat a.a.a(SourceFile:6)",
+              "\tat a.b.b(SourceFile:2)",
+              "\tat a.a.a(SourceFile:1)"));
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withNoneRuntime().build();
+  }
+
+  public StringRetraceBatchTest(TestParameters parameters) {
+    parameters.assertNoneRuntime();
+  }
+
+  private static StringRetrace createStringRetrace(TestDiagnosticMessagesImpl diagnosticsHandler) {
+    return StringRetrace.create(
+        RetraceOptions.builder(diagnosticsHandler)
+            .setProguardMapProducer(() -> MAPPING)
+            .build());
+  }
+
+  @Test
+  public void testBatchRetrace() throws Exception {
+    // Retrace many copies of the stack traces to exercise concurrent lookups of the same classes.
+    List<List<String>> stackTraces = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      stackTraces.addAll(STACK_TRACES);
+    }
+
+    TestDiagnosticMessagesImpl diagnosticsHandler = new TestDiagnosticMessagesImpl();
+    List<List<String>> expected = new ArrayList<>();
+    for (List<String> stackTrace : stackTraces) {
+      expected.add(createStringRetrace(diagnosticsHandler).retrace(stackTrace));
+    }
+
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    List<List<String>> retraced;
+    try {
+      retraced = createStringRetrace(diagnosticsHandler).retrace(stackTraces, executorService);
+    } finally {
+      executorService.shutdown();
+    }
+    assertEquals(expected, retraced);
+    diagnosticsHandler.assertNoMessages();
+
+    assertEquals(
+        ImmutableList.of(
+            "Exception in thread \"main\" java.lang.NullPointerException",
+            "\tat com.example.Main.method3(Main.java:80)",
+            "\tat com.example.Main.method2(Main.java:88)",
+            "\tat com.example.Main.main(Main.java:102)",
+            "\tat com.example.Foo.baz(Foo.java:11)",
+            "\tat com.example.Main.main(Main.java:101)"),
+        retraced.get(0));
+    assertEquals(retraced.get(0), retraced.get(3));
+  }
+}
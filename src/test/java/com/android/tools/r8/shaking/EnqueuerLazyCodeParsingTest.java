@@ -0,0 +1,138 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.shaking;
+
+import static com.android.tools.r8.DiagnosticsMatcher.diagnosticException;
+import static com.android.tools.r8.DiagnosticsMatcher.diagnosticMessage;
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.CoreMatchers.containsString;
+
+import com.android.tools.r8.CompilationFailedException;
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.errors.CompilationError;
+import com.android.tools.r8.utils.BooleanUtils;
+import com.android.tools.r8.utils.InternalOptions;
+import com.android.tools.r8.utils.StringUtils;
+import java.util.Collection;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+@RunWith(Parameterized.class)
+public class EnqueuerLazyCodeParsingTest extends TestBase {
+
+  private static final String ABSENT_CODE_MESSAGE =
+      "Absent Code attribute in method that is not native or abstract";
+
+  private final TestParameters parameters;
+  private final boolean enableParallelLazyCodeParsing;
+
+  @Parameterized.Parameters(name = "{0}, parallel: {1}")
+  public static Collection<Object[]> data() {
+    return buildParameters(
+        getTestParameters().withAllRuntimesAndApiLevels().build(), BooleanUtils.values());
+  }
+
+  public EnqueuerLazyCodeParsingTest(
+      TestParameters parameters, boolean enableParallelLazyCodeParsing) {
+    this.parameters = parameters;
+    this.enableParallelLazyCodeParsing = enableParallelLazyCodeParsing;
+  }
+
+  private void configure(InternalOptions options) {
+    options.enableParallelLazyCodeParsingInEnqueuer = enableParallelLazyCodeParsing;
+    options.enqueuerLazyCodeParsingBatchSize = 1;
+  }
+
+  @Test
+  public void testBatchSizeOne() throws Exception {
+    testForR8(parameters.getBackend())
+        .addInnerClasses(getClass())
+        .addKeepMainRule(Main.class)
+        .addOptionsModification(this::configure)
+        .setMinApi(parameters.getApiLevel())
+        .run(parameters.getRuntime(), Main.class)
+        .assertSuccessWithOutput(StringUtils.lines("A", "B", "C"));
+  }
+
+  @Test(expected = CompilationFailedException.class)
+  public void testMalformedClassFile() throws Exception {
+    testForR8(parameters.getBackend())
+        .addProgramClassFileData(MalformedDump.dump())
+        .addKeepRules("-keep class Malformed { public static void main(java.lang.String[]); }")
+        .addOptionsModification(this::configure)
+        .setMinApi(parameters.getApiLevel())
+        .compileWithExpectedDiagnostics(
+            diagnostics ->
+                diagnostics.assertErrorsMatch(
+                    allOf(
+                        diagnosticException(CompilationError.class),
+                        diagnosticMessage(containsString(ABSENT_CODE_MESSAGE)))));
+  }
+
+  static class Main {
+
+    public static void main(String[] args) {
+      new A().print();
+    }
+  }
+
+  static class A {
+
+    void print() {
+      System.out.println("A");
+      new B().print();
+    }
+  }
+
+  static class B {
+
+    void print() {
+      System.out.println("B");
+      new C().print();
+    }
+  }
+
+  static class C {
+
+    void print() {
+      System.out.println("C");
+    }
+  }
+
+  static class MalformedDump implements Opcodes {
+
+    static byte[] dump() {
+      ClassWriter classWriter = new ClassWriter(0);
+      MethodVisitor methodVisitor;
+
+      classWriter.visit(V1_8, ACC_PUBLIC | ACC_SUPER, "Malformed", null, "java/lang/Object", null);
+
+      {
+        methodVisitor = classWriter.visitMethod(ACC_PUBLIC | ACC_STATIC, "foo", "()V", null, null);
+        // No code attribute.
+        methodVisitor.visitEnd();
+      }
+
+      {
+        methodVisitor =
+            classWriter.visitMethod(
+                ACC_PUBLIC | ACC_STATIC, "main", "([Ljava/lang/String;)V", null, null);
+        methodVisitor.visitCode();
+        methodVisitor.visitMethodInsn(INVOKESTATIC, "Malformed", "foo", "()V", false);
+        methodVisitor.visitInsn(RETURN);
+        methodVisitor.visitMaxs(0, 1);
+        methodVisitor.visitEnd();
+      }
+      classWriter.visitEnd();
+
+      return classWriter.toByteArray();
+    }
+  }
+}
@@ -3,7 +3,9 @@
 // BSD-style license that can be found in the LICENSE file.
 package com.android.tools.r8.shaking;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import com.android.tools.r8.graph.DexItemFactory;
@@ -178,6 +180,32 @@ public class ProguardNameMatchingTest {
     assertFalse(matchMemberName("*foo<1>", "barfoobaz"));
   }
 
+  @Test
+  public void capturedWildcards() {
+    IdentifierPatternWithWildcards classPattern =
+        toIdentifierPatternWithWildCards("**.*Activity", false);
+    ProguardTypeMatcher typeMatcher =
+        ProguardTypeMatcher.create(classPattern, ClassOrType.CLASS, dexItemFactory);
+    assertTrue(
+        typeMatcher.matches(
+            dexItemFactory.createType(
+                DescriptorUtils.javaTypeToDescriptor("com.example.MainActivity"))));
+    assertEquals("com.example", classPattern.wildcards.get(0).getCaptured());
+    assertEquals("Main", classPattern.wildcards.get(1).getCaptured());
+    assertFalse(
+        typeMatcher.matches(
+            dexItemFactory.createType(DescriptorUtils.javaTypeToDescriptor("com.example.Main"))));
+    assertNull(classPattern.wildcards.get(0).getCaptured());
+    assertNull(classPattern.wildcards.get(1).getCaptured());
+
+    IdentifierPatternWithWildcards memberPattern =
+        toIdentifierPatternWithWildCards("*foo<1>", true);
+    ProguardNameMatcher nameMatcher = ProguardNameMatcher.create(memberPattern);
+    assertTrue(nameMatcher.matches("barfoobar"));
+    assertEquals("bar", memberPattern.wildcards.get(0).getCaptured());
+    assertEquals("bar", memberPattern.wildcards.get(1).getCaptured());
+  }
+
   private static IdentifierPatternWithWildcards toIdentifierPatternWithWildCards(
       String pattern, boolean isForNameMatcher) {
     ImmutableList.Builder<ProguardWildcard> builder = ImmutableList.builder();
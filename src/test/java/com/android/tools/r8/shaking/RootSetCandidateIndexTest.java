@@ -0,0 +1,127 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.shaking;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.graph.DexItemFactory;
+import com.android.tools.r8.origin.Origin;
+import com.android.tools.r8.utils.DescriptorUtils;
+import com.android.tools.r8.utils.Reporter;
+import com.android.tools.r8.utils.codeinspector.FoundClassSubject;
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that the classes kept by rules that do not name specific classes, and for which the root
+ * set builder looks up the candidates in the {@link RuleCandidateIndex}, are the classes matched
+ * by the rule when scanning all classes.
+ */
+@RunWith(Parameterized.class)
+public class RootSetCandidateIndexTest extends TestBase {
+
+  private static final String KEEP_D_DESCRIPTOR = "Lcom/example/keep/KeepD;";
+  private static final String OTHER_D_DESCRIPTOR = "Lcom/example/other/OtherD;";
+
+  private static final List<String> CLASS_PATTERNS =
+      ImmutableList.of(
+          "com.android.tools.r8.shaking.RootSetCandidateIndexTest$Keep*",
+          "com.android.tools.r8.**$Kept?",
+          "com.example.**",
+          "com.example.*.Keep*",
+          "com.example.keep.KeepD,com.android.tools.r8.shaking.*$Other1",
+          "!com.example.other.**,com.example.**",
+          "*.example.**",
+          "!**$Other*,com.android.tools.r8.shaking.RootSetCandidateIndexTest$*");
+
+  private final TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withAllRuntimesAndApiLevels().build();
+  }
+
+  public RootSetCandidateIndexTest(TestParameters parameters) {
+    this.parameters = parameters;
+  }
+
+  private static List<String> getProgramClassDescriptors() {
+    return ImmutableList.of(
+        descriptor(KeepA.class),
+        descriptor(KeepB.class),
+        descriptor(KeptC.class),
+        descriptor(Other1.class),
+        descriptor(Other2.class),
+        KEEP_D_DESCRIPTOR,
+        OTHER_D_DESCRIPTOR);
+  }
+
+  // Returns the classes matched by the keep rule for the given class pattern when matching the
+  // rule against all program classes.
+  private static Set<String> getClassesMatchedByFullScan(String classPattern) {
+    DexItemFactory factory = new DexItemFactory();
+    List<ProguardConfigurationRule> rules =
+        ProguardConfigurationParser.parse(
+            ImmutableList.of(
+                new ProguardConfigurationSourceStrings(
+                    ImmutableList.of("-keep class " + classPattern),
+                    Paths.get(""),
+                    Origin.unknown())),
+            factory,
+            new Reporter());
+    assertEquals(1, rules.size());
+    ProguardClassNameList classNames = rules.get(0).getClassNames();
+    return getProgramClassDescriptors().stream()
+        .filter(descriptor -> classNames.matches(factory.createType(descriptor)))
+        .map(DescriptorUtils::descriptorToJavaType)
+        .collect(Collectors.toCollection(TreeSet::new));
+  }
+
+  @Test
+  public void test() throws Exception {
+    for (String classPattern : CLASS_PATTERNS) {
+      Set<String> expected = getClassesMatchedByFullScan(classPattern);
+      assertFalse(classPattern, expected.isEmpty());
+      testForR8(parameters.getBackend())
+          .addProgramClasses(KeepA.class, KeepB.class, KeptC.class, Other1.class, Other2.class)
+          .addProgramClassFileData(
+              transformer(KeepA.class).setClassDescriptor(KEEP_D_DESCRIPTOR).transform(),
+              transformer(Other1.class).setClassDescriptor(OTHER_D_DESCRIPTOR).transform())
+          .addKeepRules("-keep class " + classPattern)
+          .noMinification()
+          .setMinApi(parameters.getApiLevel())
+          .compile()
+          .inspect(
+              inspector ->
+                  assertEquals(
+                      classPattern,
+                      expected,
+                      inspector.allClasses().stream()
+                          .map(FoundClassSubject::getOriginalName)
+                          .collect(Collectors.toCollection(TreeSet::new))));
+    }
+  }
+
+  static class KeepA {}
+
+  static class KeepB {}
+
+  static class KeptC {}
+
+  static class Other1 {}
+
+  static class Other2 {}
+}
@@ -0,0 +1,94 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.shaking.ifrule;
+
+import static com.android.tools.r8.utils.codeinspector.Matchers.isPresent;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.utils.codeinspector.CodeInspector;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/** Tests -if rules whose class names are indexed by their package prefix. */
+@RunWith(Parameterized.class)
+public class IfRuleWithPackagePrefixTest extends TestBase {
+
+  private static final String PACKAGE = IfRuleWithPackagePrefixTest.class.getPackage().getName();
+  private static final String PREFIX = PACKAGE + ".IfRuleWithPackagePrefixTest$";
+
+  private final TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withAllRuntimesAndApiLevels().build();
+  }
+
+  public IfRuleWithPackagePrefixTest(TestParameters parameters) {
+    this.parameters = parameters;
+  }
+
+  @Test
+  public void test() throws Exception {
+    testForR8(parameters.getBackend())
+        .addInnerClasses(IfRuleWithPackagePrefixTest.class)
+        .addKeepMainRule(Main.class)
+        .addKeepRules(
+            // Matches the live class A through a package prefix and a back reference.
+            "-if class " + PACKAGE + ".**$A",
+            "-keep class " + PACKAGE + ".<1>$KeptByA",
+            // The prefix only matches classes that are not live.
+            "-if class " + PREFIX + "Dead*",
+            "-keep class " + PREFIX + "KeptByDead",
+            // Only the positive class name restricts the candidates.
+            "-if class !" + PREFIX + "DeadClass," + PREFIX + "A",
+            "-keep class " + PREFIX + "KeptByNegation",
+            // All classes outside the negated package are candidates.
+            "-if class !" + PACKAGE + ".**",
+            "-keep class " + PREFIX + "NotKeptByNegation")
+        .setMinApi(parameters.getApiLevel())
+        .compile()
+        .inspect(this::inspect)
+        .run(parameters.getRuntime(), Main.class)
+        .assertSuccessWithOutputLines("A");
+  }
+
+  private void inspect(CodeInspector inspector) {
+    assertThat(inspector.clazz(KeptByA.class), isPresent());
+    assertThat(inspector.clazz(KeptByDead.class), not(isPresent()));
+    assertThat(inspector.clazz(KeptByNegation.class), isPresent());
+    assertThat(inspector.clazz(NotKeptByNegation.class), not(isPresent()));
+  }
+
+  static class A {
+
+    @Override
+    public String toString() {
+      return "A";
+    }
+  }
+
+  static class DeadClass {}
+
+  static class KeptByA {}
+
+  static class KeptByDead {}
+
+  static class KeptByNegation {}
+
+  static class NotKeptByNegation {}
+
+  static class Main {
+
+    public static void main(String[] args) {
+      System.out.println(new A());
+    }
+  }
+}
@@ -0,0 +1,174 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.telemetry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.android.tools.r8.ChromeTraceEventConsumer;
+import com.android.tools.r8.DexIndexedConsumer;
+import com.android.tools.r8.DiagnosticsHandler;
+import com.android.tools.r8.L8;
+import com.android.tools.r8.L8Command;
+import com.android.tools.r8.PhaseEvent;
+import com.android.tools.r8.StringConsumer;
+import com.android.tools.r8.StringResource;
+import com.android.tools.r8.TelemetryConsumer;
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.ToolHelper;
+import com.android.tools.r8.utils.AndroidApiLevel;
+import com.android.tools.r8.utils.StringUtils;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class TelemetryConsumerTest extends TestBase {
+
+  static final String EXPECTED = StringUtils.lines("Hello, world");
+
+  private final TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withDexRuntimes().withAllApiLevels().build();
+  }
+
+  public TelemetryConsumerTest(TestParameters parameters) {
+    this.parameters = parameters;
+  }
+
+  @Test
+  public void testD8() throws Exception {
+    CollectingConsumer consumer = new CollectingConsumer();
+    testForD8()
+        .addProgramClasses(TestClass.class)
+        .setMinApi(parameters.getApiLevel())
+        .apply(b -> b.getBuilder().setTelemetryConsumer(consumer))
+        .run(parameters.getRuntime(), TestClass.class)
+        .assertSuccessWithOutput(EXPECTED);
+    inspectEvents(consumer, "D8");
+  }
+
+  @Test
+  public void testR8() throws Exception {
+    CollectingConsumer consumer = new CollectingConsumer();
+    testForR8(parameters.getBackend())
+        .addProgramClasses(TestClass.class)
+        .addKeepMainRule(TestClass.class)
+        .setMinApi(parameters.getApiLevel())
+        .apply(b -> b.getBuilder().setTelemetryConsumer(consumer))
+        .run(parameters.getRuntime(), TestClass.class)
+        .assertSuccessWithOutput(EXPECTED);
+    inspectEvents(consumer, "R8");
+  }
+
+  @Test
+  public void testL8() throws Exception {
+    CollectingConsumer consumer = new CollectingConsumer();
+    L8.run(
+        L8Command.builder()
+            .addLibraryFiles(ToolHelper.getAndroidJar(AndroidApiLevel.P))
+            .addProgramFiles(ToolHelper.getDesugarJDKLibs())
+            .setMinApiLevel(parameters.getApiLevel().getLevel())
+            .addDesugaredLibraryConfiguration(
+                StringResource.fromFile(ToolHelper.DESUGAR_LIB_JSON_FOR_TESTING))
+            .setProgramConsumer(DexIndexedConsumer.emptyConsumer())
+            .setTelemetryConsumer(consumer)
+            .build());
+    inspectEvents(consumer, "L8 desugaring", "D8");
+  }
+
+  @Test
+  public void testChromeTrace() throws Exception {
+    StringBuilder trace = new StringBuilder();
+    testForD8()
+        .addProgramClasses(TestClass.class)
+        .setMinApi(parameters.getApiLevel())
+        .apply(
+            b ->
+                b.getBuilder()
+                    .setTelemetryConsumer(
+                        new ChromeTraceEventConsumer(
+                            (string, handler) -> trace.append(string))))
+        .compile();
+    JsonObject json = new JsonParser().parse(trace.toString()).getAsJsonObject();
+    JsonArray traceEvents = json.getAsJsonArray("traceEvents");
+    boolean foundD8 = false;
+    for (JsonElement element : traceEvents) {
+      JsonObject traceEvent = element.getAsJsonObject();
+      if (traceEvent.get("ph").getAsString().equals("X")) {
+        assertTrue(traceEvent.get("ts").getAsDouble() >= 0);
+        assertTrue(traceEvent.get("dur").getAsDouble() >= 0);
+        foundD8 |= traceEvent.get("name").getAsString().equals("D8");
+      }
+    }
+    assertTrue(foundD8);
+  }
+
+  private void inspectEvents(CollectingConsumer consumer, String... compilers) {
+    assertTrue(consumer.finished);
+    assertFalse(consumer.events.isEmpty());
+    // The outermost phase of each compilation completes after the phases it contains.
+    List<PhaseEvent> outermost = new ArrayList<>();
+    for (PhaseEvent event : consumer.events) {
+      if (event.getParentName() == null && Arrays.asList(compilers).contains(event.getName())) {
+        outermost.add(event);
+      }
+    }
+    assertEquals(
+        Arrays.asList(compilers),
+        outermost.stream().map(PhaseEvent::getName).collect(Collectors.toList()));
+    PhaseEvent last = consumer.events.get(consumer.events.size() - 1);
+    assertEquals(compilers[compilers.length - 1], last.getName());
+    PhaseEvent first = outermost.get(0);
+    boolean foundClassCount = false;
+    for (PhaseEvent event : consumer.events) {
+      assertTrue(event.getEndNanos() >= event.getStartNanos());
+      assertTrue(first.getStartNanos() <= event.getStartNanos());
+      assertTrue(event.getLiveHeapBytes() > 0);
+      if (event.getName().equals("DexApplication.read")) {
+        assertTrue(event.getCounts().get("classes") > 0);
+        foundClassCount = true;
+      }
+    }
+    assertTrue(foundClassCount);
+  }
+
+  private static class CollectingConsumer implements TelemetryConsumer {
+
+    final List<PhaseEvent> events = new ArrayList<>();
+    boolean finished = false;
+
+    @Override
+    public synchronized void acceptPhase(PhaseEvent event) {
+      assertFalse(finished);
+      events.add(event);
+    }
+
+    @Override
+    public void finished(DiagnosticsHandler handler) {
+      finished = true;
+    }
+  }
+
+  static class TestClass {
+
+    public static void main(String[] args) {
+      System.out.println("Hello, world");
+    }
+  }
+}
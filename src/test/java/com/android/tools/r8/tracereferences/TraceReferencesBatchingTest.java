@@ -0,0 +1,202 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.tracereferences;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.android.tools.r8.CompilationFailedException;
+import com.android.tools.r8.DiagnosticsChecker;
+import com.android.tools.r8.DiagnosticsHandler;
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.ToolHelper;
+import com.android.tools.r8.references.PackageReference;
+import com.android.tools.r8.references.Reference;
+import com.android.tools.r8.utils.AndroidApiLevel;
+import com.android.tools.r8.utils.DescriptorUtils;
+import com.android.tools.r8.utils.InternalOptions;
+import com.android.tools.r8.utils.ZipUtils.ZipBuilder;
+import com.google.common.collect.ImmutableSet;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class TraceReferencesBatchingTest extends TestBase {
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withNoneRuntime().build();
+  }
+
+  public TraceReferencesBatchingTest(TestParameters parameters) {
+    parameters.assertNoneRuntime();
+  }
+
+  static class RecordingConsumer implements TraceReferencesConsumer {
+
+    private final List<String> calls = new ArrayList<>();
+
+    private static String describe(TracedReference<?, ?> tracedReference) {
+      return tracedReference.getReference()
+          + (tracedReference.isMissingDefinition() ? " (missing)" : "");
+    }
+
+    @Override
+    public void acceptType(TracedClass tracedClass, DiagnosticsHandler handler) {
+      calls.add("type " + describe(tracedClass));
+    }
+
+    @Override
+    public void acceptField(TracedField tracedField, DiagnosticsHandler handler) {
+      calls.add("field " + describe(tracedField));
+    }
+
+    @Override
+    public void acceptMethod(TracedMethod tracedMethod, DiagnosticsHandler handler) {
+      calls.add("method " + describe(tracedMethod));
+    }
+
+    @Override
+    public void acceptPackage(PackageReference pkg, DiagnosticsHandler handler) {
+      calls.add("package " + pkg.getPackageName());
+    }
+
+    @Override
+    public void finished(DiagnosticsHandler handler) {
+      calls.add("finished");
+    }
+  }
+
+  private MissingDefinitionsDiagnostic trace(
+      Path sourceJar,
+      Path targetJar,
+      RecordingConsumer consumer,
+      Consumer<InternalOptions> optionsConsumer) {
+    DiagnosticsChecker checker = new DiagnosticsChecker();
+    assertThrows(
+        CompilationFailedException.class,
+        () ->
+            TraceReferences.run(
+                TraceReferencesCommand.builder(checker)
+                    .addLibraryFiles(ToolHelper.getAndroidJar(AndroidApiLevel.P))
+                    .addSourceFiles(sourceJar)
+                    .addTargetFiles(targetJar)
+                    .setConsumer(consumer)
+                    .build(),
+                optionsConsumer));
+    assertEquals(1, checker.errors.size());
+    assertTrue(checker.errors.get(0) instanceof MissingDefinitionsDiagnostic);
+    return (MissingDefinitionsDiagnostic) checker.errors.get(0);
+  }
+
+  @Test
+  public void test() throws Exception {
+    Path dir = temp.newFolder().toPath();
+    Path targetJar =
+        ZipBuilder.builder(dir.resolve("target.jar"))
+            .addBytes(
+                DescriptorUtils.getPathFromJavaType(Target.class),
+                transformer(Target.class)
+                    .removeFields(
+                        (access, name, descriptor, signature, value) ->
+                            name.equals("missingField"))
+                    .removeMethods(
+                        (access, name, descriptor, signature, exceptions) ->
+                            name.equals("missingMethod"))
+                    .transform())
+            .build();
+    Path sourceJar =
+        ZipBuilder.builder(dir.resolve("source.jar"))
+            .addFilesRelative(
+                ToolHelper.getClassPathForTests(),
+                ToolHelper.getClassFileForTestClass(Source1.class),
+                ToolHelper.getClassFileForTestClass(Source2.class),
+                ToolHelper.getClassFileForTestClass(Source3.class))
+            .build();
+
+    RecordingConsumer sequentialConsumer = new RecordingConsumer();
+    MissingDefinitionsDiagnostic sequentialDiagnostic =
+        trace(sourceJar, targetJar, sequentialConsumer, options -> options.threadCount = 1);
+
+    // Trace each class in its own batch, such that the consumer is called and the missing
+    // definitions are collected after each class.
+    RecordingConsumer batchedConsumer = new RecordingConsumer();
+    MissingDefinitionsDiagnostic batchedDiagnostic =
+        trace(
+            sourceJar,
+            targetJar,
+            batchedConsumer,
+            options -> {
+              options.threadCount = 4;
+              options.traceReferencesBatchSize = 1;
+            });
+
+    assertEquals(sequentialConsumer.calls, batchedConsumer.calls);
+    assertEquals("finished", batchedConsumer.calls.get(batchedConsumer.calls.size() - 1));
+    assertEquals(
+        ImmutableSet.of(Reference.classFromClass(Target1.class)),
+        batchedDiagnostic.getMissingClasses());
+    assertEquals(
+        ImmutableSet.of(Reference.fieldFromField(Target.class.getField("missingField"))),
+        batchedDiagnostic.getMissingFields());
+    assertEquals(
+        ImmutableSet.of(
+            Reference.methodFromMethod(Target1.class.getDeclaredConstructor()),
+            Reference.methodFromMethod(Target.class.getMethod("missingMethod"))),
+        batchedDiagnostic.getMissingMethods());
+    assertEquals(sequentialDiagnostic.getMissingClasses(), batchedDiagnostic.getMissingClasses());
+    assertEquals(sequentialDiagnostic.getMissingFields(), batchedDiagnostic.getMissingFields());
+    assertEquals(sequentialDiagnostic.getMissingMethods(), batchedDiagnostic.getMissingMethods());
+  }
+
+  static class Target {
+
+    public static int field;
+    public static int missingField;
+    static int packagePrivateField;
+
+    public static void method() {}
+
+    public static void missingMethod() {}
+  }
+
+  static class Target1 {
+
+    public Target1() {}
+  }
+
+  static class Source1 {
+
+    public static void source() {
+      Target.method();
+      Target.field = 1;
+      Target.packagePrivateField = 2;
+    }
+  }
+
+  static class Source2 {
+
+    public static void source() {
+      Target.missingField = 3;
+      new Target1();
+    }
+  }
+
+  static class Source3 {
+
+    public static void source() {
+      Target.missingMethod();
+      System.out.println(Target.field);
+    }
+  }
+}
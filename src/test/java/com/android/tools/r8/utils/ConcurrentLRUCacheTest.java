@@ -0,0 +1,49 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ConcurrentLRUCacheTest {
+
+  // All keys are multiples of the number of segments, such that they map to the same segment.
+  private static final int SEGMENTS = 16;
+
+  @Test
+  public void testHitsAndMisses() {
+    ConcurrentLRUCache<Integer, String> cache = new ConcurrentLRUCache<>(64);
+    assertTrue(cache.isEmpty());
+    assertNull(cache.get(1));
+    cache.put(1, "one");
+    assertFalse(cache.isEmpty());
+    assertEquals("one", cache.get(1));
+    // A second value for a cached key is ignored.
+    cache.put(1, "uno");
+    assertEquals("one", cache.get(1));
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    cache.clear();
+    assertTrue(cache.isEmpty());
+    assertNull(cache.get(1));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted() {
+    // Each segment holds two entries.
+    ConcurrentLRUCache<Integer, String> cache = new ConcurrentLRUCache<>(2 * SEGMENTS);
+    cache.put(0, "a");
+    cache.put(SEGMENTS, "b");
+    // Use the first entry, such that the second entry is the least recently used.
+    assertEquals("a", cache.get(0));
+    cache.put(2 * SEGMENTS, "c");
+    assertEquals("a", cache.get(0));
+    assertNull(cache.get(SEGMENTS));
+    assertEquals("c", cache.get(2 * SEGMENTS));
+  }
+}
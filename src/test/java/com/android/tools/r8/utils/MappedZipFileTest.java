@@ -0,0 +1,89 @@
+// Copyright (c) 2021, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.android.tools.r8.ProgramResource;
+import com.android.tools.r8.ProgramResource.Kind;
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.google.common.collect.ImmutableSet;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class MappedZipFileTest extends TestBase {
+
+  private static final byte[] STORED_CONTENT = "stored".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] DEFLATED_CONTENT =
+      StringUtils.times("deflated", 1000).getBytes(StandardCharsets.UTF_8);
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withNoneRuntime().build();
+  }
+
+  public MappedZipFileTest(TestParameters parameters) {
+    parameters.assertNoneRuntime();
+  }
+
+  private Path writeArchive() throws Exception {
+    Path archive = temp.newFolder().toPath().resolve("input.jar");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive.toFile()))) {
+      out.setComment("archive comment");
+      ZipUtils.writeToZipStream(out, "a/A.class", STORED_CONTENT, ZipEntry.STORED);
+      ZipUtils.writeToZipStream(out, "b/", new byte[0], ZipEntry.STORED);
+      ZipUtils.writeToZipStream(out, "b/B.class", DEFLATED_CONTENT, ZipEntry.DEFLATED);
+      ZipUtils.writeToZipStream(out, "META-INF/MANIFEST.MF", new byte[0], ZipEntry.DEFLATED);
+    }
+    return archive;
+  }
+
+  @Test
+  public void testEntries() throws Exception {
+    List<MappedZipFile.Entry> entries = MappedZipFile.open(writeArchive()).getEntries();
+    assertEquals(4, entries.size());
+    assertEquals("a/A.class", entries.get(0).getName());
+    assertArrayEquals(STORED_CONTENT, entries.get(0).getBytes());
+    assertTrue(entries.get(1).isDirectory());
+    assertEquals("b/B.class", entries.get(2).getName());
+    assertFalse(entries.get(2).isDirectory());
+    assertArrayEquals(DEFLATED_CONTENT, entries.get(2).getBytes());
+    assertEquals(0, entries.get(3).getBytes().length);
+  }
+
+  @Test
+  public void testLazyArchiveResourceProvider() throws Exception {
+    Path archive = writeArchive();
+    Collection<ProgramResource> resources =
+        ArchiveResourceProvider.fromArchiveWithLazyInflation(archive, false)
+            .getProgramResources();
+    assertEquals(2, resources.size());
+    for (ProgramResource resource : resources) {
+      assertEquals(Kind.CF, resource.getKind());
+      // Lazily inflated resources can be read more than once.
+      assertArrayEquals(resource.getBytes(), resource.getBytes());
+    }
+    assertEquals(
+        ImmutableSet.of("La/A;", "Lb/B;"),
+        resources.stream()
+            .flatMap(resource -> resource.getClassDescriptors().stream())
+            .collect(ImmutableSet.toImmutableSet()));
+  }
+}